@@ -1,7 +1,10 @@
 import game.Game;
 import game.GameFactory;
+import net.SpectatorHub;
+import trace.LatencyTracer;
 import ui.GameWindow;
 
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -13,8 +16,33 @@ public class MainGame {
         Path piecesPath = Paths.get(uri);
         Game game = GameFactory.createGame(piecesPath);
 
+        // Run with -Dchess.traceLatency=true to print per-stage input latency on exit
+        if (Boolean.getBoolean("chess.traceLatency")) {
+            LatencyTracer tracer = new LatencyTracer();
+            game.setLatencyTracer(tracer);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(tracer.report())));
+        }
+
+        // Run with -Dchess.spectatorPort=<port> to let others watch (net.GameClient without joining)
+        Integer spectatorPort = Integer.getInteger("chess.spectatorPort");
+        if (spectatorPort != null) {
+            SpectatorHub hub = new SpectatorHub(game, 20);
+            hub.start(new InetSocketAddress(spectatorPort));
+            game.setTickListener(hub::publish);
+            System.out.printf("Spectators can connect on port %d%n", hub.getPort());
+        }
+
+        // Run with -Dchess.tickMs=<ms> to simulate at a fixed, lower rate (rendering interpolates)
+        game.setTickIntervalMs(Long.getLong("chess.tickMs", 0L));
+
+        // Run with -Dchess.tickThreads=<n> to update and resolve big boards region by region on n cores
+        game.setParallelism(Integer.getInteger("chess.tickThreads", 1));
+
+        // Run with -Dchess.fps=<rate> to render the board continuously on its own thread
+        double fps = Double.parseDouble(System.getProperty("chess.fps", "0"));
+
         javax.swing.SwingUtilities.invokeLater(() -> {
-            new GameWindow(game);
+            new GameWindow(game, 0, fps);
         });
 
         new Thread(game::run).start();
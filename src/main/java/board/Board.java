@@ -3,6 +3,8 @@ package board;
 import classes.Pair;
 import img.BuffImg;
 import img.Img;
+import img.TiledImg;
+import physics.FixedPoint;
 
 public class Board {
     // Pixel dimensions of each cell
@@ -20,6 +22,9 @@ public class Board {
     private final double cellHM; // Height of a cell in meters
     private final double cellWM; // Width of a cell in meters
 
+    // Deterministic mode: physics keep integer positions (see setFixedPoint)
+    private boolean fixedPoint;
+
     // Constructor with default physical cell size (1.0 meter)
     public Board(int cellHPix, int cellWPix,
                  int wCells, int hCells,
@@ -43,10 +48,12 @@ public class Board {
 
     /* ------------ convenience ------------- */
 
-    // Clone the board and make a deep copy of the image (if it exists)
+    // Clone the board and make a deep copy of the image (if it exists); a tiled background is expanded
     public Board cloneBoard() {
         Img newImg;
-        if (img != null && img.get() != null) {
+        if (img instanceof TiledImg tiled) {
+            newImg = new BuffImg(tiled.render());
+        } else if (img != null && img.get() != null) {
             // Make a copy of the image
             java.awt.image.BufferedImage copy = new java.awt.image.BufferedImage(
                     img.get().getColorModel(),
@@ -59,7 +66,30 @@ public class Board {
         } else {
             newImg = new BuffImg();
         }
-        return new Board(cellHPix, cellWPix, wCells, hCells, newImg, cellHM, cellWM);
+        Board copy = new Board(cellHPix, cellWPix, wCells, hCells, newImg, cellHM, cellWM);
+        copy.fixedPoint = fixedPoint;
+        return copy;
+    }
+
+    /**
+     * Switch the physics of pieces on this board to integer fixed-point positions and whole
+     * millisecond timing (see physics.FixedPoint), for lockstep play and replays that must come
+     * out the same on every machine. Set it before any piece is created or reset.
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    public boolean isFixedPoint() { return fixedPoint; }
+
+    /**
+     * Paint the empty board over target, the image of a cloneBoard() of this board, replacing
+     * whatever was drawn on it before.
+     */
+    public void drawBackground(Img target) {
+        if (img == null || img.get() == null) return;
+        if (img instanceof TiledImg) img.drawOn(target, 0, 0);
+        else target.get().setData(img.get().getRaster());
     }
 
     // Show the board's image (if one exists)
@@ -83,6 +113,10 @@ public class Board {
         return new Pair(row, col);
     }
 
+    // Allocation-free single-axis variants of mToCell, for per-tick hot paths
+    public int mToRow(double yM) { return (int) Math.round(yM / cellHM); }
+    public int mToCol(double xM) { return (int) Math.round(xM / cellWM); }
+
     /** Convert a cell (row, col) to its top-left corner in metres. */
     public double[] cellToM(int row, int col) {
        return new double[]{col * cellWM, row * cellHM};
@@ -100,9 +134,20 @@ public class Board {
         return new int[]{xPx, yPx};
     }
 
+    /** Fixed-point position (see physics.FixedPoint) to metres and to pixel coordinates. */
+    public double[] fxToM(long xFx, long yFx) {
+        return new double[]{(double) xFx / FixedPoint.ONE * cellWM, (double) yFx / FixedPoint.ONE * cellHM};
+    }
+
+    public int[] fxToPix(long xFx, long yFx) {
+        return new int[]{FixedPoint.toPix(xFx, cellWPix), FixedPoint.toPix(yFx, cellHPix)};
+    }
+
     /* ------------ getters ------------- */
     public int getCellHPix() { return cellHPix; }
     public int getCellWPix() { return cellWPix; }
+    public double getCellWM() { return cellWM; }
+    public double getCellHM() { return cellHM; }
     public int getWCells() { return wCells; }
     public int getHCells() { return hCells; }
     public Img getImg() { return img; }
@@ -2,29 +2,30 @@ package board;
 
 import img.BuffImg;
 import img.Img;
+import img.TiledImg;
 
-import java.nio.file.Path;
-import javax.imageio.ImageIO;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.nio.file.Path;
 
 public class BoardFactory {
+    // The bundled board.png is a whole chessboard: 8x8 cells
+    public static final int DEFAULT_IMAGE_CELLS = 8;
+
     // Static method to load a default board image and create a board.Board object
     public static Board loadDefault(Path boardImgPath) {
-        try {
-            // Get the class loader to load resources from the classpath
-            ClassLoader cl = BoardFactory.class.getClassLoader();
-
-            // Load a BufferedImage of the board from the classpath resource (inside your JAR or project resources)
-            BufferedImage img = ImageIO.read(cl.getResourceAsStream("pieces/board.png"));
-
-            // Assume the board is 8x8 cells, so each cell is width / 8 pixels
-            int cell = img.getWidth() / 8;
+        return load(boardImgPath, DEFAULT_IMAGE_CELLS, DEFAULT_IMAGE_CELLS);
+    }
 
+    // Board of wCells x hCells whose image is the given one, unscaled; the cell size follows from its width
+    public static Board load(Path boardImgPath, int wCells, int hCells) {
+        try {
             // Create an Img.Img object by reading the file at the provided path
             Img bg = new BuffImg().read(boardImgPath.toString());
 
-            // Create and return a board.Board object with 8x8 cells and each cell 'cell' pixels wide/high
-            return new Board(cell, cell, 8, 8, bg);
+            // Each cell is width / wCells pixels wide and high
+            int cell = bg.get().getWidth() / wCells;
+            return new Board(cell, cell, wCells, hCells, bg);
 
         } catch(Exception e) {
             // If any exception occurs during loading, print the error and throw a runtime exception
@@ -32,4 +33,28 @@ public class BoardFactory {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Board of any size whose background repeats one texture, so large maps need no large image
+     * file. The texture covers textureCells x textureCells cells (1 for a single cell, 8 for a
+     * chessboard like board.png); it is scaled once and kept as the board's only image (see
+     * img.TiledImg), repeated at draw time and cut off at the right and bottom edges.
+     */
+    public static Board tiled(Path texture, int textureCells, int wCells, int hCells, int cellPx) {
+        if (wCells <= 0 || hCells <= 0) throw new IllegalArgumentException("Empty board: " + wCells + "x" + hCells);
+        long w = (long) wCells * cellPx, h = (long) hCells * cellPx;
+        // Frames are still drawn into one image of the whole board (see Board.cloneBoard)
+        if (w * h > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format(
+                    "A %dx%d board at %d px per cell does not fit in one image; use a smaller cell size",
+                    wCells, hCells, cellPx));
+        }
+
+        int tilePx = textureCells * cellPx;
+        BufferedImage tile = new BuffImg().read(texture.toString(), new Dimension(tilePx, tilePx), false, null).get();
+        if (wCells == textureCells && hCells == textureCells) {
+            return new Board(cellPx, cellPx, wCells, hCells, new BuffImg(tile));
+        }
+        return new Board(cellPx, cellPx, wCells, hCells, new TiledImg(tile, (int) w, (int) h));
+    }
 }
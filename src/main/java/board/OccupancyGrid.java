@@ -0,0 +1,166 @@
+package board;
+
+import piece.Piece;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, lock-free view of which piece of each player occupies every cell.
+ * The game loop (single writer) publishes the grid after every tick; any thread may read it.
+ *
+ * The grid is a flat int array holding (slot + 1) per player and cell, 0 meaning empty.
+ * Slots index the pieces the grid was created with, so publishing never allocates.
+ * Only the cells of pieces that changed cell are written, so a publish costs O(changed pieces),
+ * not O(board): the game loop reports changes with move (from PieceStore's changed list), other
+ * writers publish the whole list of live pieces, which is compared piece by piece.
+ * A cell can briefly hold several pieces of one player (e.g. a slider passing over its own
+ * piece): it shows the one that entered last, and the others show again when that one leaves.
+ * The grid is guarded by a sequence lock: the writer makes the sequence odd before it starts
+ * writing and even again when done, and readers retry when it was odd or changed meanwhile.
+ */
+public class OccupancyGrid {
+    private final int rows, cols;
+
+    // Slot -> piece, fixed for the lifetime of the game (pieces are only ever removed)
+    private final Piece[] slots;
+    private final Map<Piece, Integer> slotOf = new IdentityHashMap<>();
+    private final int[] playerBase;     // (player - 1) * rows * cols of each slot
+
+    // Layout: [player - 1][row * cols + col]
+    private final int[] grid;
+
+    // Odd while a publish is writing the grid
+    private volatile long seq;
+
+    // Cell (row * cols + col) of each slot in the published grid and at the next publish, -1 = none
+    private final int[] publishedCell;
+    private final int[] nextCell;
+    // Slot + 1 of the piece under each slot on its cell, 0 = none
+    private final int[] below;
+    private final int[] pending;
+    private final boolean[] isPending;
+    private int pendingCount;
+    private final boolean[] seen;
+
+    public OccupancyGrid(Board board, List<Piece> pieces) {
+        this.rows = board.getHCells();
+        this.cols = board.getWCells();
+        this.slots = pieces.toArray(new Piece[0]);
+        int n = slots.length;
+        this.playerBase = new int[n];
+        for (int i = 0; i < n; i++) {
+            slotOf.put(slots[i], i);
+            playerBase[i] = (playerOf(slots[i]) - 1) * rows * cols;
+        }
+        this.grid = new int[2 * rows * cols];
+        this.publishedCell = new int[n];
+        this.nextCell = new int[n];
+        Arrays.fill(publishedCell, -1);
+        Arrays.fill(nextCell, -1);
+        this.below = new int[n];
+        this.pending = new int[n];
+        this.isPending = new boolean[n];
+        this.seen = new boolean[n];
+    }
+
+    /**
+     * The piece in a slot is on cell row * cols + col now, or off the board (captured) for -1.
+     * Takes effect at the next publish. Must only be called from the game loop thread.
+     */
+    public void move(int slot, int cell) {
+        if (cell == nextCell[slot]) return;
+        nextCell[slot] = cell;
+        if (isPending[slot]) return;
+        isPending[slot] = true;
+        pending[pendingCount++] = slot;
+    }
+
+    /**
+     * Bring the grid in line with the pieces that are currently alive and make it visible to
+     * readers. O(pieces); pieces that are not in the list leave the grid. Must only be called from
+     * the game loop thread.
+     */
+    public void publish(List<Piece> alive) {
+        for (int i = 0, n = alive.size(); i < n; i++) {
+            Piece p = alive.get(i);
+            Integer slot = slotOf.get(p);
+            if (slot == null) continue; // piece was not part of the game at creation
+            seen[slot] = true;
+            int r = p.state.physics.getCurrRow();
+            int c = p.state.physics.getCurrCol();
+            move(slot, r < 0 || r >= rows || c < 0 || c >= cols ? -1 : r * cols + c);
+        }
+        for (int s = 0; s < slots.length; s++) {
+            if (!seen[s]) move(s, -1);
+            seen[s] = false;
+        }
+        publish();
+    }
+
+    /** Make the moves reported since the last publish visible to readers. Game loop thread only. */
+    public void publish() {
+        if (pendingCount == 0) return;
+        long s = seq;
+        seq = s + 1;
+        VarHandle.storeStoreFence(); // readers must see the odd seq before any grid write
+        // Vacate first, so a piece entering a cell another one just left is not wiped out
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = pending[i];
+            int old = publishedCell[slot];
+            if (old >= 0) unlink(slot, playerBase[slot] + old);
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = pending[i];
+            int cell = nextCell[slot];
+            if (cell >= 0) {
+                int idx = playerBase[slot] + cell;
+                below[slot] = grid[idx];
+                grid[idx] = slot + 1;
+            }
+            publishedCell[slot] = cell;
+            isPending[slot] = false;
+        }
+        pendingCount = 0;
+        seq = s + 2; // volatile write: the grid writes above are visible before it
+    }
+
+    // Take a slot out of the stack of pieces on grid cell idx
+    private void unlink(int slot, int idx) {
+        if (grid[idx] == slot + 1) {
+            grid[idx] = below[slot];
+        } else {
+            int p = grid[idx];
+            while (p != 0 && below[p - 1] != slot + 1) p = below[p - 1];
+            if (p != 0) below[p - 1] = below[slot];
+        }
+        below[slot] = 0;
+    }
+
+    /**
+     * Returns the piece of the given player (1 = white, 2 = black) at (row, col), or null.
+     * Never locks and never allocates; waits only while a publish is writing the grid.
+     */
+    public Piece pieceAt(int row, int col, int player) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols || player < 1 || player > 2) return null;
+        int idx = (player - 1) * rows * cols + row * cols + col;
+        while (true) {
+            long before = seq;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait(); // a publish is in progress
+                continue;
+            }
+            int slot = grid[idx];
+            VarHandle.acquireFence(); // keep the grid read ahead of the second seq read
+            if (seq == before) return slot == 0 ? null : slots[slot - 1];
+        }
+    }
+
+    // Player number owning a piece, from the side letter in its id (e.g. "PW_(6,0)")
+    public static int playerOf(Piece p) {
+        return p.id.charAt(1) == 'W' ? 1 : 2;
+    }
+}
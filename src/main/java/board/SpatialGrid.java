@@ -0,0 +1,151 @@
+package board;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of the pieces on each cell, kept up to date incrementally: a piece is only
+ * re-bucketed when its cell changes, and the chunk it lands in (or changes in) is marked dirty.
+ * Whoever looks for collisions then visits the dirty chunks only, so on a large map the cost
+ * follows how many pieces moved, not how many cells there are.
+ *
+ * Pieces are known by slot (see piece.PieceStore); each cell holds a doubly linked list of
+ * slots. The board is split into square chunks of chunkSize cells, whose cell arrays are only
+ * allocated once a piece enters them.
+ *
+ * Game thread only.
+ */
+public class SpatialGrid {
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
+    private final int rows, cols;
+    private final int chunkSize;
+    private final int chunkCols, chunkRows;
+
+    // First slot on each cell, per chunk and indexed by the cell's position in it; null if never used
+    private final int[][] heads;
+
+    // By slot: cell (row * cols + col, -1 if not on the grid) and the neighbours in its cell
+    private final int[] cellOf;
+    private final int[] next, prev;
+
+    // Chunks marked since clearDirty, each once
+    private final int[] dirty;
+    private int dirtyCount;
+    private final boolean[] isDirty;
+
+    public SpatialGrid(int rows, int cols, int slotCount) {
+        this(rows, cols, slotCount, DEFAULT_CHUNK_SIZE);
+    }
+
+    public SpatialGrid(int rows, int cols, int slotCount, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be >= 1");
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkSize = chunkSize;
+        this.chunkRows = (rows + chunkSize - 1) / chunkSize;
+        this.chunkCols = (cols + chunkSize - 1) / chunkSize;
+        int chunks = chunkRows * chunkCols;
+        heads = new int[chunks][];
+        dirty = new int[chunks];
+        isDirty = new boolean[chunks];
+        cellOf = new int[slotCount];
+        next = new int[slotCount];
+        prev = new int[slotCount];
+        Arrays.fill(cellOf, -1);
+    }
+
+    /**
+     * Put a slot on a cell (-1 takes it off the grid). Marks the new cell's chunk dirty.
+     *
+     * @return false if the slot was already on that cell, in which case nothing changes
+     */
+    public boolean move(int slot, int cell) {
+        int old = cellOf[slot];
+        if (old == cell) return false;
+        if (old >= 0) unlink(slot, old);
+        cellOf[slot] = cell;
+        if (cell >= 0) {
+            int chunk = chunkOf(cell);
+            int[] h = heads[chunk];
+            if (h == null) {
+                h = heads[chunk] = new int[chunkSize * chunkSize];
+                Arrays.fill(h, -1);
+            }
+            int i = indexInChunk(cell);
+            prev[slot] = -1;
+            next[slot] = h[i];
+            if (h[i] >= 0) prev[h[i]] = slot;
+            h[i] = slot;
+            markDirty(chunk);
+        }
+        return true;
+    }
+
+    // Take a slot off the grid (a captured piece); leaving a cell cannot cause a collision
+    public void remove(int slot) {
+        move(slot, -1);
+    }
+
+    // Something other than the cell changed about a slot (state, start time): look at its chunk again
+    public void touch(int slot) {
+        if (cellOf[slot] >= 0) markDirty(chunkOf(cellOf[slot]));
+    }
+
+    private void unlink(int slot, int cell) {
+        int p = prev[slot], n = next[slot];
+        if (p >= 0) next[p] = n;
+        else heads[chunkOf(cell)][indexInChunk(cell)] = n;
+        if (n >= 0) prev[n] = p;
+    }
+
+    private void markDirty(int chunk) {
+        if (isDirty[chunk]) return;
+        isDirty[chunk] = true;
+        dirty[dirtyCount++] = chunk;
+    }
+
+    // Chunk of a cell (row * cols + col); chunks are numbered row by row, chunkCols per row
+    public int chunkOf(int cell) {
+        int r = cell / cols, c = cell % cols;
+        return (r / chunkSize) * chunkCols + c / chunkSize;
+    }
+
+    private int indexInChunk(int cell) {
+        int r = cell / cols, c = cell % cols;
+        return (r % chunkSize) * chunkSize + c % chunkSize;
+    }
+
+    /* ---------------- queries ---------------- */
+
+    public int dirtyCount() { return dirtyCount; }
+    public int dirtyChunk(int i) { return dirty[i]; }
+
+    public void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) isDirty[dirty[i]] = false;
+        dirtyCount = 0;
+    }
+
+    public int chunkCount() { return heads.length; }
+    public int chunkRows() { return chunkRows; }
+    public int chunkCols() { return chunkCols; }
+
+    // Cells per chunk, for firstInChunk (chunks on the right and bottom edges have unused ones)
+    public int chunkCells() { return chunkSize * chunkSize; }
+
+    // First slot on the i-th cell of a chunk, or -1; the others follow with nextOnCell
+    public int firstInChunk(int chunk, int i) {
+        int[] h = heads[chunk];
+        return h == null ? -1 : h[i];
+    }
+
+    // First slot on a cell, or -1; the others follow with nextOnCell
+    public int firstOnCell(int cell) {
+        int[] h = heads[chunkOf(cell)];
+        return h == null ? -1 : h[indexInChunk(cell)];
+    }
+
+    public int nextOnCell(int slot) { return next[slot]; }
+
+    // Cell of a slot, -1 if it is not on the grid
+    public int cellOf(int slot) { return cellOf[slot]; }
+}
@@ -0,0 +1,272 @@
+package board;
+
+import classes.Moves;
+import classes.Pair;
+import classes.State;
+import physics.IdlePhysics.MovePhysics;
+import physics.Physics;
+import piece.Piece;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-side count of pieces attacking every cell, kept up to date incrementally.
+ *
+ * A piece attacks the cells its current state's moves could capture on (tags "" and "capture",
+ * with a clear path). A piece in MovePhysics flight attacks only its destination, where it will
+ * capture on arrival, and a piece whose physics cannot capture (resting) attacks nothing.
+ *
+ * Each tick only pieces whose state or cell changed are recomputed, plus pieces whose last
+ * computation looked at a cell whose occupancy changed (e.g. a slider's ray through a vacated
+ * cell). The cells a computation looks at are recorded through the Moves.Occupancy callback, so
+ * the dependency tracking follows the real move rules. Readers on other threads get the last
+ * published counts through the same sequence lock as OccupancyGrid; a publish copies only the
+ * board rows whose counts were touched.
+ */
+public class ThreatMap {
+    private final int rows, cols, cells;
+
+    // Slot -> piece, fixed for the lifetime of the game (pieces are only ever removed)
+    private final Piece[] slots;
+    private final Map<Piece, Integer> slotOf = new IdentityHashMap<>();
+    private final int[] sideOf;
+
+    // Working counts, layout [side - 1][row * cols + col]; game thread only
+    private final int[] counts;
+    private final int[] occupied;            // pieces per cell
+
+    // What each slot contributed last time, to be undone when it is recomputed
+    private final int[][] attacks;
+    private final int[] attackCount;
+    private final BitSet[] watchedBy;        // cell -> slots whose attacks depend on its occupancy, null until watched
+    private final int[][] watched;
+    private final int[] watchedCount;
+
+    // Signature of each slot at its last computation
+    private final State[] lastState;
+    private final long[] lastStartMs;
+    private final int[] lastCell;             // -1 = not on the board (captured)
+    private final int[] lastEnd;
+
+    private final boolean[] aliveNow;
+    private final BitSet dirty = new BitSet();
+    private final BitSet dirtyRows = new BitSet();  // [side - 1) * rows + row], counts not yet published
+
+    // Recorder passed to Moves: answers occupancy and remembers which cells were asked about
+    private int recording = -1;
+    private final Moves.Occupancy recorder = this::recordOccupied;
+
+    // Published counts, same layout; guarded by seq, which is odd while they are being written
+    private final int[] published;
+    private final long[] rowSeq;             // seq each published row last changed at
+    private volatile long seq;
+
+    public ThreatMap(Board board, List<Piece> pieces) {
+        this.rows = board.getHCells();
+        this.cols = board.getWCells();
+        this.cells = rows * cols;
+        this.slots = pieces.toArray(new Piece[0]);
+        int n = slots.length;
+        this.sideOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            slotOf.put(slots[i], i);
+            sideOf[i] = OccupancyGrid.playerOf(slots[i]);
+        }
+        this.counts = new int[2 * cells];
+        this.occupied = new int[cells];
+        this.attacks = new int[n][8];
+        this.attackCount = new int[n];
+        this.watched = new int[n][8];
+        this.watchedCount = new int[n];
+        this.watchedBy = new BitSet[cells]; // allocated on first watch: most cells of a large board never are
+        this.lastState = new State[n];
+        this.lastStartMs = new long[n];
+        this.lastCell = new int[n];
+        this.lastEnd = new int[n];
+        Arrays.fill(lastCell, -1);
+        this.aliveNow = new boolean[n];
+        this.published = new int[2 * cells];
+        this.rowSeq = new long[2 * rows];
+    }
+
+    /**
+     * Bring the counts up to date with the pieces currently alive and publish them.
+     * Must only be called from the game loop thread.
+     */
+    public void update(List<Piece> alive) {
+        Arrays.fill(aliveNow, false);
+        for (int i = 0, n = alive.size(); i < n; i++) {
+            Integer slot = slotOf.get(alive.get(i));
+            if (slot != null) aliveNow[slot] = true;
+        }
+
+        // Find what changed: piece signatures, and cells whose occupancy flipped
+        for (int s = 0; s < slots.length; s++) {
+            Piece p = slots[s];
+            int cell = -1;
+            if (aliveNow[s]) {
+                cell = cellIndex(p.state.physics.getCurrRow(), p.state.physics.getCurrCol());
+            }
+            if (cell != lastCell[s]) {
+                if (lastCell[s] >= 0 && --occupied[lastCell[s]] == 0) markWatchers(lastCell[s]);
+                if (cell >= 0 && occupied[cell]++ == 0) markWatchers(cell);
+                lastCell[s] = cell;
+                dirty.set(s);
+            }
+            if (!aliveNow[s]) {
+                if (attackCount[s] > 0 || watchedCount[s] > 0) dirty.set(s);
+                continue;
+            }
+            Physics ph = p.state.physics;
+            int end = pack(ph.getEndCell());
+            if (p.state != lastState[s] || ph.getStartMs() != lastStartMs[s] || end != lastEnd[s]) {
+                lastState[s] = p.state;
+                lastStartMs[s] = ph.getStartMs();
+                lastEnd[s] = end;
+                dirty.set(s);
+            }
+        }
+        if (dirty.isEmpty()) return;
+
+        for (int s = dirty.nextSetBit(0); s >= 0; s = dirty.nextSetBit(s + 1)) recompute(s);
+        dirty.clear();
+        publish();
+    }
+
+    /**
+     * Number of pieces of the given side (1 = white, 2 = black) attacking (row, col).
+     * Never locks; waits only while a publish is writing the counts.
+     */
+    public int attackers(int side, int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols || side < 1 || side > 2) return 0;
+        int idx = (side - 1) * cells + row * cols + col;
+        while (true) {
+            long before = seq;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait(); // a publish is in progress
+                continue;
+            }
+            int n = published[idx];
+            VarHandle.acquireFence(); // keep the count read ahead of the second seq read
+            if (seq == before) return n;
+        }
+    }
+
+    public boolean isAttacked(int side, int row, int col) {
+        return attackers(side, row, col) > 0;
+    }
+
+    // Changes on every publish of new counts: while it stays the same, so do the counts
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * The last published counts as one array per side and row, layout [(side - 1) * rows + row][col].
+     * Rows that did not change since a previous result was taken are shared with it instead of
+     * copied, so a caller that keeps its last result pays only for the rows that changed.
+     *
+     * @param previous Earlier result of this method, or null to copy every row
+     * @param previousSeq getSeq() at the time previous was taken
+     */
+    public int[][] copyRows(int[][] previous, long previousSeq) {
+        while (true) {
+            long before = seq;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int[][] out = previous != null ? previous.clone() : new int[2 * rows][];
+            for (int r = 0; r < out.length; r++) {
+                if (previous == null || rowSeq[r] > previousSeq) {
+                    out[r] = Arrays.copyOfRange(published, r * cols, (r + 1) * cols);
+                }
+            }
+            VarHandle.acquireFence(); // keep the copies ahead of the second seq read
+            if (seq == before) return out;
+        }
+    }
+
+    private void recompute(int s) {
+        int base = (sideOf[s] - 1) * cells;
+        for (int i = 0; i < attackCount[s]; i++) {
+            counts[base + attacks[s][i]]--;
+            dirtyRows.set((base + attacks[s][i]) / cols);
+        }
+        attackCount[s] = 0;
+        for (int i = 0; i < watchedCount[s]; i++) watchedBy[watched[s][i]].clear(s);
+        watchedCount[s] = 0;
+        if (!aliveNow[s]) return;
+
+        State st = slots[s].state;
+        Physics ph = st.physics;
+        if (ph instanceof MovePhysics) {
+            // In flight: captures whatever is on the destination when it lands
+            Pair end = ph.getEndCell();
+            int cell = cellIndex(end.r, end.c);
+            if (cell >= 0 && ph.canCapture()) attack(s, cell);
+        } else if (ph.canCapture() && st.moves != null) {
+            Pair from = ph.getStartCell();
+            recording = s;
+            for (Map.Entry<Pair, String> m : st.moves.getMoves().entrySet()) {
+                int r = from.r + m.getKey().r, c = from.c + m.getKey().c;
+                if (cellIndex(r, c) < 0) continue;
+                if (st.moves.canAttack(from.r, from.c, r, c, recorder)) attack(s, r * cols + c);
+            }
+            recording = -1;
+        }
+        for (int i = 0; i < attackCount[s]; i++) {
+            counts[base + attacks[s][i]]++;
+            dirtyRows.set((base + attacks[s][i]) / cols);
+        }
+    }
+
+    private boolean recordOccupied(int r, int c) {
+        int cell = r * cols + c;
+        if (recording >= 0) watch(recording, cell);
+        return occupied[cell] != 0;
+    }
+
+    private void attack(int s, int cell) {
+        if (attackCount[s] == attacks[s].length) attacks[s] = Arrays.copyOf(attacks[s], attacks[s].length * 2);
+        attacks[s][attackCount[s]++] = cell;
+    }
+
+    private void markWatchers(int cell) {
+        if (watchedBy[cell] != null) dirty.or(watchedBy[cell]);
+    }
+
+    private void watch(int s, int cell) {
+        BitSet w = watchedBy[cell];
+        if (w == null) w = watchedBy[cell] = new BitSet();
+        if (w.get(s)) return;
+        w.set(s);
+        if (watchedCount[s] == watched[s].length) watched[s] = Arrays.copyOf(watched[s], watched[s].length * 2);
+        watched[s][watchedCount[s]++] = cell;
+    }
+
+    private void publish() {
+        long s = seq;
+        seq = s + 1;
+        VarHandle.storeStoreFence(); // readers must see the odd seq before any count write
+        for (int r = dirtyRows.nextSetBit(0); r >= 0; r = dirtyRows.nextSetBit(r + 1)) {
+            System.arraycopy(counts, r * cols, published, r * cols, cols);
+            rowSeq[r] = s + 2;
+        }
+        dirtyRows.clear();
+        seq = s + 2;
+    }
+
+    private int cellIndex(int r, int c) {
+        return r < 0 || r >= rows || c < 0 || c >= cols ? -1 : r * cols + c;
+    }
+
+    private static int pack(Pair cell) {
+        return (cell.r << 16) | (cell.c & 0xFFFF);
+    }
+}
@@ -4,6 +4,7 @@ import java.io.BufferedReader; // For reading text files line by line
 import java.io.IOException;     // For handling input/output exceptions
 import java.nio.file.Files;     // For working with files
 import java.nio.file.Path;      // Represents a file path
+import java.util.Collections;   // For read-only views
 import java.util.HashMap;       // A basic key-value data structure
 import java.util.Map;           // Interface for key-value maps
 
@@ -17,6 +18,11 @@ public class Moves {
     // Value: A string tag that describes move type, e.g. "capture", "non_capture", or empty meaning normal move
     private final Map<Pair, String> moves = new HashMap<>();
 
+    // Answers whether a board cell holds a piece, without building classes.Pair keys
+    public interface Occupancy {
+        boolean isOccupied(int r, int c);
+    }
+
     // Constructor: loads moves from a text file at movesFile path, using given board dimensions
     public Moves(Path movesFile, int rows, int cols) {
         this.rows = rows;
@@ -50,6 +56,11 @@ public class Moves {
         }
     }
 
+    // All moves of this state: (delta row, delta column) -> tag, read-only
+    public Map<Pair, String> getMoves() {
+        return Collections.unmodifiableMap(moves);
+    }
+
     /**
      * Checks if a move to destination cell with relative delta (dr, dc) is allowed,
      * depending on whether the destination cell is occupied by another piece.
@@ -89,56 +100,71 @@ public class Moves {
      * @return true if move is valid, false otherwise
      */
     public boolean isValid(int[] srcCell, int[] dstCell, java.util.Set<Pair> occupiedCells) {
-        int dstR = dstCell[0], dstC = dstCell[1];
+        return isValid(srcCell[0], srcCell[1], dstCell[0], dstCell[1],
+                (r, c) -> occupiedCells.contains(new Pair(r, c)));
+    }
 
+    /**
+     * Same as isValid with a set of occupied cells, for callers that keep their own board
+     * representation (e.g. move generators that check millions of moves).
+     */
+    public boolean isValid(int srcR, int srcC, int dstR, int dstC, Occupancy occupied) {
         // Check if destination is inside the board limits
         if (dstR < 0 || dstR >= rows || dstC < 0 || dstC >= cols) return false;
 
-        int dr = dstR - srcCell[0];  // Calculate relative row move
-        int dc = dstC - srcCell[1];  // Calculate relative column move
+        int dr = dstR - srcR;  // Calculate relative row move
+        int dc = dstC - srcC;  // Calculate relative column move
 
-        // Check if destination cell is occupied by a piece
-        boolean dstHasPiece = occupiedCells.contains(new Pair(dstR, dstC));
-
-        // Check if the move is allowed based on move type and occupancy
-        if (!isDstCellValid(dr, dc, dstHasPiece)) return false;
+        // Check if the move is allowed based on move type and occupancy of the destination
+        if (!isDstCellValid(dr, dc, occupied.isOccupied(dstR, dstC))) return false;
 
         // Check if path between source and destination is clear (no blocking pieces)
-        if (!pathIsClear(srcCell, dstCell, occupiedCells)) return false;
+        return pathIsClear(srcR, srcC, dr, dc, occupied);
+    }
 
-        // If all checks passed, move is valid
-        return true;
+    /**
+     * Checks if a piece on the source cell could capture on the destination cell, whether or not
+     * a piece is there now: a move tagged "" or "capture" with a clear path.
+     * Used to know which cells a piece threatens.
+     */
+    public boolean canAttack(int srcR, int srcC, int dstR, int dstC, Occupancy occupied) {
+        if (dstR < 0 || dstR >= rows || dstC < 0 || dstC >= cols) return false;
+        int dr = dstR - srcR;
+        int dc = dstC - srcC;
+        String tag = moves.get(new Pair(dr, dc));
+        if (tag == null || !(tag.isEmpty() || tag.equals("capture"))) return false;
+        return pathIsClear(srcR, srcC, dr, dc, occupied);
     }
 
     /**
      * Helper method to check if the path from source to destination is free of pieces,
      * except for source and destination cells themselves.
+     * Only straight and diagonal lines have a path; other shapes (knight moves) jump.
      *
-     * @param srcCell Source cell [row, col]
-     * @param dstCell Destination cell [row, col]
-     * @param occupiedCells Set of occupied cells (Pairs)
+     * @param srcR Source row
+     * @param srcC Source column
+     * @param dr Relative row move
+     * @param dc Relative column move
+     * @param occupied Occupancy of the board
      * @return true if path is clear, false if blocked
      */
-    private boolean pathIsClear(int[] srcCell, int[] dstCell, java.util.Set<Pair> occupiedCells) {
-        int dr = dstCell[0] - srcCell[0];
-        int dc = dstCell[1] - srcCell[1];
-
+    private boolean pathIsClear(int srcR, int srcC, int dr, int dc, Occupancy occupied) {
         // For moves to adjacent cells (distance <= 1), no blocking can occur
         if (Math.abs(dr) <= 1 && Math.abs(dc) <= 1) return true;
 
+        // Not a line: nothing in between to block
+        if (dr != 0 && dc != 0 && Math.abs(dr) != Math.abs(dc)) return true;
+
         int steps = Math.max(Math.abs(dr), Math.abs(dc));  // Number of steps between source and destination
-        double stepR = dr / (double) steps;  // Row increment per step (fractional)
-        double stepC = dc / (double) steps;  // Column increment per step (fractional)
+        int stepR = Integer.signum(dr);  // Row increment per step
+        int stepC = Integer.signum(dc);  // Column increment per step
 
         // Check each intermediate cell on the path (excluding source and destination)
         for (int i = 1; i < steps; i++) {
-            int r = srcCell[0] + (int) Math.round(i * stepR);
-            int c = srcCell[1] + (int) Math.round(i * stepC);
-
             // If any intermediate cell is occupied, path is blocked
-            if (occupiedCells.contains(new Pair(r, c))) return false;
+            if (occupied.isOccupied(srcR + i * stepR, srcC + i * stepC)) return false;
         }
         return true;
     }
 
-}
\ No newline at end of file
+}
@@ -46,9 +46,23 @@ public class State {
         return transitions;
     }
 
-    // Reset graphics and physics components when entering this state
+    // Find a state of this state machine by name (breadth-first over transitions), or null
+    public State findState(String stateName) {
+        Set<State> seen = new HashSet<>();
+        Deque<State> todo = new ArrayDeque<>();
+        todo.add(this);
+        while (!todo.isEmpty()) {
+            State s = todo.poll();
+            if (!seen.add(s)) continue;
+            if (Objects.equals(s.name, stateName)) return s;
+            todo.addAll(s.transitions.values());
+        }
+        return null;
+    }
+
+    // Reset the physics component when entering this state. Graphics are shared by every piece of
+    // the type and pick their frame from the physics start time, so they are not reset here.
     public void reset(Command cmd) {
-        graphics.reset(cmd);
         physics.reset(cmd);
     }
 
@@ -58,7 +72,7 @@ public class State {
         //String key = cmd.type.toLowerCase();  // Normalize command type (e.g., "MOVE" → "move")
         EState cmdState = cmd.type;
         // Get the next state for this command
-        State next = transitions.get(cmdState);
+        State next = transitions.get(cmdState.toString());
         if (next == null) return this;   // No such transition → stay in current state
 
         // Reject invalid move command that doesn't have source & destination
@@ -96,8 +110,9 @@ public class State {
     public State update(long nowMs) {
         Command internal = physics.update(nowMs);
         if (internal != null) {
-            // Run internal command like "long_rest → idle"
-            return onCommand(internal, null);
+            // Run internal command like "long_rest → idle"; the next state starts where this one ended
+            Command done = new Command(internal.timestamp, internal.pieceId, internal.type, List.of(physics.getEndCell()));
+            return onCommand(done, null);
         }
         return this;
     }
@@ -0,0 +1,94 @@
+package game;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streaming reader for board.csv: one line per row, comma-separated piece codes per cell, empty
+ * for none. The board's size is the number of lines by the longest line.
+ *
+ * The file is read in fixed-size chunks and cells are handed out one by one, so a layout with
+ * hundreds of thousands of cells never has to be in memory as lines or token arrays.
+ */
+public final class BoardLayout {
+    private BoardLayout() {}
+
+    /** Gets every non-empty cell, row by row. */
+    public interface CellVisitor {
+        void cell(int row, int col, String code);
+    }
+
+    /** Board size of a layout file: width = columns, height = rows. Does not look at the codes. */
+    public static Dimension size(Path csv) throws IOException {
+        return read(csv, null);
+    }
+
+    /**
+     * Visit every piece code of a layout file.
+     *
+     * @return The board size, as size(csv)
+     */
+    public static Dimension read(Path csv, CellVisitor visitor) throws IOException {
+        try (Reader in = Files.newBufferedReader(csv)) {
+            return scan(in, visitor);
+        }
+    }
+
+    // Same as size(Path), for layout lines already in memory (see GameFactory.readLayout)
+    public static Dimension size(List<String> lines) {
+        return read(lines, null);
+    }
+
+    public static Dimension read(List<String> lines, CellVisitor visitor) {
+        try {
+            return scan(new StringReader(String.join("\n", lines)), visitor);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringReader does not fail
+        }
+    }
+
+    private static Dimension scan(Reader in, CellVisitor visitor) throws IOException {
+        char[] buf = new char[8192];
+        StringBuilder code = new StringBuilder();
+        int row = 0, col = 0, width = 0;
+        boolean lineOpen = false; // some character of the current row has been read
+        for (int n; (n = in.read(buf)) > 0; ) {
+            for (int i = 0; i < n; i++) {
+                char ch = buf[i];
+                if (ch == ',' || ch == '\n') {
+                    emit(visitor, row, col, code);
+                    if (ch == ',') {
+                        col++;
+                        lineOpen = true;
+                    } else {
+                        width = Math.max(width, col + 1);
+                        row++;
+                        col = 0;
+                        lineOpen = false;
+                    }
+                } else if (ch != '\r') {
+                    // Only codes are kept, and only while their cell is being read
+                    if (visitor != null && !Character.isWhitespace(ch)) code.append(ch);
+                    lineOpen = true;
+                }
+            }
+        }
+        if (lineOpen) {
+            // Last line without a line break
+            emit(visitor, row, col, code);
+            width = Math.max(width, col + 1);
+            row++;
+        }
+        return new Dimension(width, row);
+    }
+
+    private static void emit(CellVisitor visitor, int row, int col, StringBuilder code) {
+        if (visitor != null && code.length() > 0) visitor.cell(row, col, code.toString());
+        code.setLength(0);
+    }
+}
@@ -0,0 +1,172 @@
+package game;
+
+import classes.Command;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Catches nondeterminism without logging the whole state (see Game.setDesyncDetector). After
+ * every tick the game's running StateChecksum is recorded, together with the commands the tick
+ * applied. Checksums of the same ticks from elsewhere, a peer running the same commands or a
+ * recorded game being replayed, are passed to expect; the first tick on which the two differ is
+ * reported once, with a dump of the local state at that tick.
+ *
+ * Ticks are counted from 0, the first tick after the detector was attached. Game.restoreState
+ * rewinds the detector to the tick of the saved state, so ticks played again after a rollback
+ * replace the mispredicted ones. With rollback, expect only ticks this side will not play again
+ * (see RollbackSession.confirmedFrame). record and command run on the game thread; expect may be
+ * called from any thread.
+ */
+public class DesyncDetector {
+    // Ticks kept by default: enough to compare against a peer that is some seconds behind
+    public static final int DEFAULT_HISTORY = 10_000;
+
+    /** One recorded tick: its game time, the commands it applied and the running checksum after it. */
+    public record Entry(long tick, long nowMs, List<Command> commands, long checksum) {}
+
+    /** Where the detector was after a tick, to rewind it there (see Game.saveState). */
+    public record Mark(long nextTick, long checksum) {}
+
+    /** First tick on which the local state did not match. */
+    public record Desync(long tick, long nowMs, long expected, long actual, String dump) {
+        @Override
+        public String toString() {
+            return "Desync at tick " + tick + " (" + nowMs + " ms): expected " + Long.toHexString(expected)
+                    + ", got " + Long.toHexString(actual) + "\n" + dump;
+        }
+    }
+
+    private final Game game;
+    private final int history;
+    private final Consumer<Desync> onDesync;
+
+    // Last 'history' ticks, oldest first
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    // Checksums received for ticks not played here yet
+    private final Map<Long, Long> pending = new HashMap<>();
+
+    private List<Command> tickCommands = new ArrayList<>();
+    private long nextTick;
+    private long checksum;
+    private Desync desync;
+
+    public DesyncDetector(Game game, Consumer<Desync> onDesync) {
+        this(game, DEFAULT_HISTORY, onDesync);
+    }
+
+    /**
+     * @param history  Ticks whose checksums are kept for late expect calls
+     * @param onDesync Gets the first desync, on the thread that found it (may be null)
+     */
+    public DesyncDetector(Game game, int history, Consumer<Desync> onDesync) {
+        if (history < 1) throw new IllegalArgumentException("history must be >= 1");
+        this.game = game;
+        this.history = history;
+        this.onDesync = onDesync;
+    }
+
+    // A command the current tick applied (Game._process_input)
+    void command(Command cmd) {
+        tickCommands.add(cmd);
+    }
+
+    // End of a tick (Game._tick): checksum the state and check it against what was expected
+    synchronized void record(long nowMs) {
+        long tick = nextTick++;
+        checksum = StateChecksum.roll(checksum, nowMs, StateChecksum.of(game));
+        Entry e = new Entry(tick, nowMs, tickCommands, checksum);
+        tickCommands = new ArrayList<>();
+        entries.addLast(e);
+        if (entries.size() > history) entries.removeFirst();
+
+        Long expected = pending.remove(tick);
+        if (expected != null) check(e, expected, null);
+    }
+
+    synchronized Mark mark() {
+        return new Mark(nextTick, checksum);
+    }
+
+    // Forget the ticks recorded since mark was taken (Game.restoreState)
+    synchronized void rewind(Mark mark) {
+        while (!entries.isEmpty() && entries.peekLast().tick >= mark.nextTick()) entries.removeLast();
+        nextTick = mark.nextTick();
+        checksum = mark.checksum();
+        tickCommands = new ArrayList<>();
+    }
+
+    /**
+     * The checksum the same tick had elsewhere. Checked at once if the tick was played here
+     * already (and is still in the history), or as soon as it is.
+     */
+    public synchronized void expect(long tick, long checksum) {
+        if (desync != null) return;
+        if (tick >= nextTick) {
+            pending.put(tick, checksum);
+            return;
+        }
+        for (Iterator<Entry> it = entries.descendingIterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (e.tick == tick) {
+                // Past tick: the state has moved on, so the dump is of the current state
+                check(e, checksum, "state " + (nextTick - 1 - tick) + " ticks later:\n");
+                return;
+            }
+            if (e.tick < tick) break;
+        }
+    }
+
+    private void check(Entry e, long expected, String late) {
+        if (desync != null || e.checksum == expected) return;
+        String dump = StateChecksum.dump(game);
+        desync = new Desync(e.tick, e.nowMs, expected, e.checksum, late == null ? dump : late + dump);
+        pending.clear();
+        if (onDesync != null) onDesync.accept(desync);
+    }
+
+    // First desync found, or null
+    public synchronized Desync getDesync() {
+        return desync;
+    }
+
+    // Running checksum after the last recorded tick
+    public synchronized long checksum() {
+        return checksum;
+    }
+
+    // Recorded ticks still in the history, oldest first
+    public synchronized List<Entry> entries() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Play a recording again on a fresh game built from the same layout: every tick gets the
+     * commands it applied originally, and its checksum is compared to the recorded one. The
+     * recording must start with the first tick of its game (a detector attached before the game
+     * started, with enough history).
+     *
+     * @return The first tick that came out differently, or null if all of them matched
+     */
+    public static Desync replay(Game fresh, List<Entry> recording) {
+        DesyncDetector detector = new DesyncDetector(fresh, Math.max(1, recording.size()), null);
+        fresh.setDesyncDetector(detector);
+        try {
+            for (Entry e : recording) {
+                detector.expect(e.tick, e.checksum);
+                fresh.userInputQueue.addAll(e.commands);
+                fresh._tick(e.nowMs);
+                if (detector.getDesync() != null) break;
+            }
+        } finally {
+            fresh.setDesyncDetector(null);
+        }
+        return detector.getDesync();
+    }
+}
@@ -0,0 +1,54 @@
+package game;
+
+import classes.State;
+import img.Img;
+import piece.Piece;
+
+import java.util.List;
+
+/**
+ * Resolves the sprite and pixel position of every piece in one pass, for drawing. Each piece's
+ * animation time is measured from its physics start, i.e. from when it entered its current
+ * state, and the frame itself comes from grafix.Graphics.frameAt.
+ */
+public final class FrameResolver {
+    private FrameResolver() {}
+
+    /**
+     * Resolve the live pieces; their position is interpolated to nowMs from their physics Motion.
+     *
+     * @param pieces Pieces to draw
+     * @param nowMs Current game time in milliseconds
+     * @param sprites Output: sprite of pieces.get(i) at index i (length >= pieces.size())
+     * @param posPix Output: x at 2 * i, y at 2 * i + 1 (length >= 2 * pieces.size())
+     * @return Number of pieces resolved
+     */
+    public static int resolve(List<Piece> pieces, long nowMs, Img[] sprites, int[] posPix) {
+        int n = pieces.size();
+        for (int i = 0; i < n; i++) {
+            State st = pieces.get(i).state;
+            sprites[i] = st.graphics.frameAt(nowMs - st.physics.getStartMs());
+            int[] pos = st.physics.getPosPixAt(nowMs);
+            posPix[2 * i] = pos[0];
+            posPix[2 * i + 1] = pos[1];
+        }
+        return n;
+    }
+
+    /**
+     * Same as resolve(List, ...) for the pieces of a published snapshot, so a render thread
+     * never reads the live pieces.
+     */
+    public static int resolve(FrameSnapshot snap, long nowMs, Img[] sprites, int[] posPix) {
+        List<FrameSnapshot.PieceView> views = snap.getPieces();
+        int n = views.size();
+        for (int i = 0; i < n; i++) {
+            FrameSnapshot.PieceView v = views.get(i);
+            sprites[i] = v.graphics.frameAt(nowMs - v.startMs);
+            int[] pos = snap.posPixAt(v, nowMs);
+            posPix[2 * i] = pos[0];
+            posPix[2 * i + 1] = pos[1];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,224 @@
+package game;
+
+import board.Board;
+import board.OccupancyGrid;
+import classes.Moves;
+import classes.Pair;
+import grafix.Graphics;
+import physics.IdlePhysics.MovePhysics;
+import physics.Motion;
+import physics.Physics;
+import piece.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable picture of a game at the end of one tick: every live piece with its state, motion
+ * and readiness, cell occupancy and attacked cells. The game loop publishes one per tick through
+ * a volatile field (Game.snapshot()); the renderer, the network encoder and bots read that
+ * instead of the live pieces, which only the game thread may touch.
+ *
+ * Snapshots are never recycled, so a reader may keep one for as long as it likes. To keep a tick
+ * cheap, views of pieces that did not change are shared with the previous snapshot, and so are
+ * the rows of the cell index and of the attack counts that did not change: the cell and attack
+ * tables are arrays of rows, and a tick copies only the rows it has to (copy on write).
+ */
+public final class FrameSnapshot {
+
+    /** One live piece as it was at the end of the tick. */
+    public static final class PieceView {
+        public final Piece piece;       // identity only, its fields belong to the game thread
+        public final int slot;          // see Game.slotOf
+        public final String id;
+        public final int player;        // 1 = white, 2 = black
+        public final String stateName;
+        public final Graphics graphics;
+        public final Moves moves;       // moves allowed in the state, null if it cannot move
+        public final Motion motion;
+        public final long startMs;      // when the current state started
+        public final Pair startCell;
+        public final Pair endCell;
+        public final Pair cell;         // cell the piece is counted on
+        public final boolean moving;
+        public final long readyAtMs;    // see ReadinessIndex.readyAt
+
+        PieceView(Piece piece, int slot, Pair cell, long readyAtMs) {
+            Physics ph = piece.state.physics;
+            this.piece = piece;
+            this.slot = slot;
+            this.id = piece.id;
+            this.player = OccupancyGrid.playerOf(piece);
+            this.stateName = piece.state.name;
+            this.graphics = piece.state.graphics;
+            this.moves = piece.state.moves;
+            this.motion = ph.getMotion();
+            this.startMs = ph.getStartMs();
+            this.startCell = ph.getStartCell();
+            this.endCell = ph.getEndCell();
+            this.cell = cell;
+            this.moving = ph instanceof MovePhysics;
+            this.readyAtMs = readyAtMs;
+        }
+
+        // Still describes the piece exactly? Then the next snapshot can reuse this view
+        boolean matches(Piece p, Pair cell, long readyAtMs) {
+            Physics ph = p.state.physics;
+            return piece == p && Objects.equals(stateName, p.state.name) && graphics == p.state.graphics
+                    && startMs == ph.getStartMs() && readyAtMs == this.readyAtMs && this.cell.equals(cell)
+                    && Objects.equals(startCell, ph.getStartCell()) && Objects.equals(endCell, ph.getEndCell())
+                    && motion.equals(ph.getMotion()) && moving == (ph instanceof MovePhysics);
+        }
+    }
+
+    private final long seq;
+    private final long timeMs;
+    private final Board board;
+    private final List<PieceView> pieces;
+    private final PieceView[] bySlot;
+    private final int[][] cells;        // [(player - 1) * rows + row][col] -> slot + 1, 0 = empty
+    private final int[][] attackers;    // [(side - 1) * rows + row][col], see ThreatMap.copyRows
+    private final long threatsSeq;      // ThreatMap.getSeq() the attack counts were copied at
+    private final int rows, cols;
+
+    private FrameSnapshot(long seq, long timeMs, Board board, List<PieceView> pieces, PieceView[] bySlot,
+                          int[][] cells, int[][] attackers, long threatsSeq) {
+        this.seq = seq;
+        this.timeMs = timeMs;
+        this.board = board;
+        this.pieces = pieces;
+        this.bySlot = bySlot;
+        this.cells = cells;
+        this.attackers = attackers;
+        this.threatsSeq = threatsSeq;
+        this.rows = board.getHCells();
+        this.cols = board.getWCells();
+    }
+
+    /**
+     * Capture the live state of a game. Must run on the game thread.
+     *
+     * Work is proportional to the number of pieces plus the board rows that changed: only rows
+     * a piece entered or left are rebuilt in the cell index, and only rows the threat map
+     * published new counts for are copied.
+     *
+     * @param previous Last snapshot of the same game, whose unchanged parts are reused (may be null)
+     */
+    public static FrameSnapshot capture(Game game, long nowMs, FrameSnapshot previous) {
+        Board board = game.board;
+        int rows = board.getHCells(), cols = board.getWCells();
+        PieceView[] bySlot = new PieceView[game.slotCount()];
+        List<PieceView> views = new ArrayList<>(game.pieces.size());
+        boolean[] dirtyRows = null; // [(player - 1) * rows + row] of the cell index, null = none
+        int kept = 0;
+
+        for (Piece p : game.pieces) {
+            int slot = game.slotOf(p);
+            if (slot < 0) continue; // not part of the game at creation
+            Pair cell = p.currentCell();
+            long readyAt = game.readiness.readyAt(p);
+            PieceView old = previous != null ? previous.bySlot[slot] : null;
+            PieceView v = old != null && old.matches(p, cell, readyAt) ? old : new PieceView(p, slot, cell, readyAt);
+            views.add(v);
+            bySlot[slot] = v;
+            if (old != null) kept++;
+            if (old == null || !old.cell.equals(cell)) {
+                if (dirtyRows == null) dirtyRows = new boolean[2 * rows];
+                markRow(dirtyRows, v, rows);
+                if (old != null) markRow(dirtyRows, old, rows);
+            }
+        }
+        // Pieces of the previous snapshot that are gone (captured) leave their row
+        if (previous != null && kept < previous.pieces.size()) {
+            for (PieceView old : previous.pieces) {
+                if (bySlot[old.slot] != null) continue;
+                if (dirtyRows == null) dirtyRows = new boolean[2 * rows];
+                markRow(dirtyRows, old, rows);
+            }
+        }
+
+        int[][] cells = previous == null || dirtyRows != null
+                ? indexCells(views, previous, dirtyRows, rows, cols) : previous.cells;
+
+        long threatsSeq = game.threats.getSeq();
+        int[][] attackers = previous != null && previous.threatsSeq == threatsSeq ? previous.attackers
+                : game.threats.copyRows(previous != null ? previous.attackers : null,
+                                        previous != null ? previous.threatsSeq : 0);
+
+        return new FrameSnapshot(previous != null ? previous.seq + 1 : 0, nowMs, board,
+                Collections.unmodifiableList(views), bySlot, cells, attackers, threatsSeq);
+    }
+
+    private static void markRow(boolean[] dirtyRows, PieceView v, int rows) {
+        if (v.cell.r >= 0 && v.cell.r < rows) dirtyRows[(v.player - 1) * rows + v.cell.r] = true;
+    }
+
+    // Cell index sharing the previous one's rows, except the dirty rows, which are rebuilt
+    private static int[][] indexCells(List<PieceView> views, FrameSnapshot previous, boolean[] dirtyRows,
+                                      int rows, int cols) {
+        int[][] cells;
+        if (previous != null) {
+            cells = previous.cells.clone();
+        } else {
+            cells = new int[2 * rows][];
+            Arrays.fill(cells, new int[cols]); // rows without pieces share one empty row
+        }
+        if (dirtyRows == null) return cells;
+        for (int r = 0; r < cells.length; r++) if (dirtyRows[r]) cells[r] = new int[cols];
+        for (PieceView v : views) {
+            int r = (v.player - 1) * rows + v.cell.r;
+            if (v.cell.r >= 0 && v.cell.r < rows && v.cell.c >= 0 && v.cell.c < cols && dirtyRows[r]) {
+                cells[r][v.cell.c] = v.slot + 1;
+            }
+        }
+        return cells;
+    }
+
+    // Number of snapshots published before this one
+    public long getSeq() { return seq; }
+
+    // Game time of the tick that produced this snapshot
+    public long getTimeMs() { return timeMs; }
+
+    public Board getBoard() { return board; }
+
+    // Live pieces in game order (the order they are drawn in)
+    public List<PieceView> getPieces() { return pieces; }
+
+    // View of the piece in a slot, or null if it was captured (or the slot is out of range)
+    public PieceView bySlot(int slot) {
+        return slot >= 0 && slot < bySlot.length ? bySlot[slot] : null;
+    }
+
+    // View of the live piece with the given id, or null
+    public PieceView byId(String id) {
+        for (PieceView v : pieces) if (v.id.equals(id)) return v;
+        return null;
+    }
+
+    // Piece of the given player (1 = white, 2 = black) at (row, col), or null
+    public PieceView pieceAt(int row, int col, int player) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols || player < 1 || player > 2) return null;
+        int slot = cells[(player - 1) * rows + row][col] - 1;
+        return slot >= 0 ? bySlot[slot] : null;
+    }
+
+    // Number of pieces of a side attacking (row, col)
+    public int attackers(int side, int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols || side < 1 || side > 2) return 0;
+        return attackers[(side - 1) * rows + row][col];
+    }
+
+    public boolean isAttacked(int side, int row, int col) {
+        return attackers(side, row, col) > 0;
+    }
+
+    // Pixel position of a piece at nowMs, interpolated along its motion
+    public int[] posPixAt(PieceView v, long nowMs) {
+        double[] posM = v.motion.posMAt(nowMs);
+        return board.mToPix(posM[0], posM[1]);
+    }
+}
@@ -1,11 +1,21 @@
 package game;
 
 import board.Board;
+import board.OccupancyGrid;
+import board.SpatialGrid;
+import board.ThreatMap;
 import classes.Command;
 import classes.Pair;
+import classes.State;
+import img.Blitter;
+import img.Img;
 import keyBoard.KeyboardProcessor;
 import keyBoard.KeyboardProducer;
+import physics.Physics;
 import piece.Piece;
+import piece.PieceStore;
+import piece.ReadinessIndex;
+import trace.LatencyTracer;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -13,12 +23,22 @@ import java.util.*;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
 
 public class Game extends Container {
 
     // Custom exception to indicate the board setup is invalid
     public static class InvalidBoard extends RuntimeException {}
 
+    /**
+     * The game after a tick, to go back to it (see saveState): the live pieces in order, the state
+     * each was in and its physics. Everything else a tick uses is derived from these. desync is
+     * where the attached DesyncDetector was, null if none was attached.
+     */
+    public record SavedState(long tickMs, Piece[] pieces, State[] states, Physics.Saved[] physics,
+                             DesyncDetector.Mark desync) {}
+
     // List of all pieces (game units) in the game
     public final List<Piece> pieces;
 
@@ -43,10 +63,41 @@ public class Game extends Container {
     // Map from piece ID (string) to piece.Piece object, for quick lookup
     public final Map<String, Piece> pieceById = new HashMap<>();
 
+    // Stable slot numbers: the index of each piece in the initial piece list.
+    // Games built from the same layout agree on them, so they are used as compact piece ids on the wire.
+    private final Piece[] slots;
+    private final Map<Piece, Integer> slotOf = new IdentityHashMap<>();
+
     // Fields to store selected pieces by two players (IDs of selected pieces)
     public String selected_id_1 = null;
     public String selected_id_2 = null;
 
+    // Live, lock-free view of cell occupancy, republished after every tick (read by keyboard input)
+    public final OccupancyGrid occupancy;
+
+    // Per-side attacked-cell counts, updated incrementally after every tick (bots, danger highlighting)
+    public final ThreatMap threats;
+
+    // When each piece can act next, per side and ordered by time (bots, UI, server)
+    public final ReadinessIndex readiness;
+
+    // Per-tick piece data in parallel arrays, refreshed by _resolve_collisions
+    public final PieceStore store;
+
+    // Pieces per cell, re-bucketed only for pieces the store saw change; collisions are looked
+    // for in its dirty chunks only
+    public final SpatialGrid grid;
+
+    // Collision scratch: captured slots
+    private final boolean[] capturedSlot;
+
+    // Region-parallel tick phases, null for sequential ticks (see setParallelism)
+    private ParallelTicker parallel;
+
+    // Collisions between ticks, along the moves (see SweptCollisions); time of the last tick, -1 before the first
+    private final SweptCollisions swept;
+    private long lastTickMs = -1;
+
     // Keyboard input processors for two players
     public KeyboardProcessor kp1;
     public KeyboardProcessor kp2;
@@ -58,6 +109,25 @@ public class Game extends Container {
     // Keyboard input producers for two players (threads generating commands)
     private KeyboardProducer kbProd1, kbProd2;
 
+    // Optional input-to-frame latency tracer (null = tracing disabled)
+    private LatencyTracer tracer;
+
+    // Optional per-tick state checksums, compared with a peer or a replay (null = off)
+    private DesyncDetector desync;
+
+    // Optional observer run on the game thread after every tick, e.g. a spectator hub
+    private volatile LongConsumer tickListener;
+
+    // Real time between simulation ticks in ns, 0 = tick continuously
+    private volatile long tickIntervalNs;
+
+    // State of the game after the last tick, published for other threads (see FrameSnapshot)
+    private volatile FrameSnapshot snapshot;
+
+    // Sprites and pixel positions resolved for the current frame (render side only)
+    private Img[] drawSprites = new Img[0];
+    private int[] drawPos = new int[0];
+
     // Constructor to initialize the game with pieces and a board
     public Game(List<Piece> pieces, Board board) {
         if (!validate(pieces)) throw new InvalidBoard(); // Validate board setup
@@ -65,7 +135,20 @@ public class Game extends Container {
         this.board = board;
         this.startNs = System.nanoTime(); // Record game start time
         for (Piece p : pieces) pieceById.put(p.id, p); // Map pieces by their IDs
+        this.slots = pieces.toArray(new Piece[0]);
+        for (int i = 0; i < slots.length; i++) slotOf.put(slots[i], i);
         this.curr_board = board.cloneBoard(); // Clone the board for drawing
+        this.occupancy = new OccupancyGrid(board, this.pieces);
+        this.occupancy.publish(this.pieces);
+        this.threats = new ThreatMap(board, this.pieces);
+        this.threats.update(this.pieces);
+        this.readiness = new ReadinessIndex(this.pieces);
+        this.readiness.update(this.pieces);
+        this.store = new PieceStore(board, this.pieces);
+        this.grid = new SpatialGrid(board.getHCells(), board.getWCells(), slots.length);
+        this.capturedSlot = new boolean[slots.length];
+        this.swept = new SweptCollisions(store, grid, board);
+        publishSnapshot(0);
     }
 
     // Validate the initial pieces setup:
@@ -88,6 +171,21 @@ public class Game extends Container {
         return wKing && bKing; // Valid only if both kings present
     }
 
+    // Slot of a piece (see 'slots'), or -1 if the piece does not belong to this game
+    public int slotOf(Piece p) {
+        Integer slot = slotOf.get(p);
+        return slot == null ? -1 : slot;
+    }
+
+    // Piece created in the given slot (it may have been captured since), or null if out of range
+    public Piece pieceAtSlot(int slot) {
+        return slot >= 0 && slot < slots.length ? slots[slot] : null;
+    }
+
+    public int slotCount() {
+        return slots.length;
+    }
+
     public Board clone_board() {
         return this.board.cloneBoard();
     }
@@ -102,6 +200,109 @@ public class Game extends Container {
         this.timeFactor = factor;
     }
 
+    // Run the simulation at most once every intervalMs of real time (0 = as fast as possible).
+    // Rendering interpolates moving pieces between ticks, so a low tick rate still looks smooth.
+    public void setTickIntervalMs(long intervalMs) {
+        this.tickIntervalNs = intervalMs * 1_000_000;
+    }
+
+    /**
+     * Run piece updates and collision resolution of every tick on this many threads, split by
+     * board region (see ParallelTicker); 1 ticks sequentially. Results are the same either way,
+     * so this only pays off on big boards. Call between ticks, from the game thread.
+     */
+    public void setParallelism(int threads) {
+        setParallelism(threads, ParallelTicker.DEFAULT_REGION_CHUNKS);
+    }
+
+    // Same, with regions of regionChunks x regionChunks SpatialGrid chunks
+    public void setParallelism(int threads, int regionChunks) {
+        if (parallel != null) parallel.shutdown();
+        parallel = threads > 1 ? new ParallelTicker(this, threads, regionChunks) : null;
+    }
+
+    // Enable (or disable with null) input latency tracing, including already running keyboard processors
+    public void setLatencyTracer(LatencyTracer tracer) {
+        this.tracer = tracer;
+        if (kp1 != null) kp1.setTracer(tracer);
+        if (kp2 != null) kp2.setTracer(tracer);
+    }
+
+    public LatencyTracer getLatencyTracer() {
+        return tracer;
+    }
+
+    /**
+     * Checksum the state after every tick and record it with the tick's commands (see
+     * DesyncDetector); null turns it off. Call between ticks, from the game thread.
+     */
+    public void setDesyncDetector(DesyncDetector desync) {
+        this.desync = desync;
+    }
+
+    public DesyncDetector getDesyncDetector() {
+        return desync;
+    }
+
+    // Observe every completed tick with its game time (null removes the listener)
+    public void setTickListener(LongConsumer tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    // Latest published snapshot; safe to read from any thread, never null
+    public FrameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // Capture the current state and make it the snapshot other threads see. Game thread only
+    // (or whichever thread mutates the pieces, e.g. a network mirror's apply thread).
+    public void publishSnapshot(long nowMs) {
+        snapshot = FrameSnapshot.capture(this, nowMs, snapshot);
+    }
+
+    /* ---------------- rollback --------------- */
+
+    // The state after the last tick. Game thread only, between ticks.
+    public SavedState saveState() {
+        int n = pieces.size();
+        Piece[] live = pieces.toArray(new Piece[0]);
+        State[] states = new State[n];
+        Physics.Saved[] physics = new Physics.Saved[n];
+        for (int i = 0; i < n; i++) {
+            states[i] = live[i].state;
+            physics[i] = states[i].physics.save();
+        }
+        return new SavedState(lastTickMs, live, states, physics, desync != null ? desync.mark() : null);
+    }
+
+    /**
+     * Go back to a state saved from this game, including pieces captured since; the next tick
+     * continues from it exactly as the tick after the save did. Input still queued is kept. An
+     * attached DesyncDetector forgets the ticks since the save, so they are recorded again.
+     * Game thread only, between ticks.
+     */
+    public void restoreState(SavedState saved) {
+        pieces.clear();
+        for (int i = 0; i < saved.pieces().length; i++) {
+            Piece p = saved.pieces()[i];
+            p.state = saved.states()[i];
+            p.state.physics.restore(saved.physics()[i]);
+            pieces.add(p);
+        }
+        lastTickMs = saved.tickMs();
+        if (desync != null && saved.desync() != null) desync.rewind(saved.desync());
+
+        // Derived state: columns, grid and the moves the swept pass starts from, as after that tick
+        store.invalidate();
+        syncGrid();
+        grid.clearDirty();
+        swept.record();
+        occupancy.publish();
+        threats.update(pieces);
+        readiness.update(pieces);
+        publishSnapshot(Math.max(0, lastTickMs));
+    }
+
     /* ---------------- win detection --------------- */
 
     // Check if the game is won: win when fewer than 2 kings remain on board
@@ -122,21 +323,16 @@ public class Game extends Container {
         // this._draw(); // Draw initial state
         // this._show(); // Show initial board
 
+        long nextTickNs = System.nanoTime();
         while (!_is_win()) {
-            long now = game_time_ms();
-
-            // Update each piece with current time
-            for (Piece p : new ArrayList<>(pieces)) {
-                p.update(now);
-            }
-
-            // Update the mapping of cells to pieces
-            _update_cell2piece_map();
-
-            // Process all pending user input commands
-            while (!userInputQueue.isEmpty()) {
-                Command cmd = userInputQueue.poll();
-                _process_input(cmd);
+            _tick(game_time_ms());
+
+            long interval = tickIntervalNs;
+            if (interval > 0) {
+                nextTickNs += interval;
+                long wait = nextTickNs - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                else nextTickNs = System.nanoTime(); // fell behind: don't try to catch up
             }
 
             // grafix.Graphics update (commented out here)
@@ -145,9 +341,6 @@ public class Game extends Container {
             // this._show();
             // }
 
-            // Handle collisions and piece captures on the board
-            _resolve_collisions();
-
             // Stop if number of iterations reached
             if (numIterations > 0 && ++counter >= numIterations) {
                 break;
@@ -155,6 +348,48 @@ public class Game extends Container {
         }
     }
 
+    // One iteration of the game loop at the given game time
+    public void _tick(long now) {
+        // Update each piece with current time
+        if (parallel != null) {
+            parallel.updatePieces(now);
+        } else {
+            for (Piece p : new ArrayList<>(pieces)) {
+                p.update(now);
+            }
+        }
+
+        // Update the mapping of cells to pieces
+        _update_cell2piece_map();
+
+        // Process all pending user input commands
+        while (!userInputQueue.isEmpty()) {
+            Command cmd = userInputQueue.poll();
+            _process_input(cmd);
+        }
+
+        // Pieces that met between the previous tick and this one, at the time they did
+        if (lastTickMs >= 0 && now > lastTickMs) {
+            store.refresh(pieces);
+            if (swept.resolve(lastTickMs, now, capturedSlot) > 0) removeCaptured();
+        }
+
+        // Handle collisions and piece captures on the board
+        _resolve_collisions();
+        swept.record();
+        lastTickMs = now;
+
+        // Let input threads see where pieces are now (cells changed since syncGrid), and what they threaten
+        occupancy.publish();
+        threats.update(pieces);
+        readiness.update(pieces);
+        publishSnapshot(now);
+        if (desync != null) desync.record(now);
+
+        LongConsumer listener = tickListener;
+        if (listener != null) listener.accept(now);
+    }
+
     // Updates the 'pos' map from board cells to pieces occupying those cells
     public void _update_cell2piece_map() {
         pos.clear();
@@ -164,38 +399,94 @@ public class Game extends Container {
     }
 
      public void _process_input(Command cmd) {
+         if (tracer != null) tracer.dequeued(cmd);
+         if (desync != null) desync.command(cmd);
          Piece mover = pieceById.get(cmd.pieceId);
-         if (mover == null) return;
+         if (mover == null) {
+             if (tracer != null) tracer.handled(cmd, false);
+             return;
+         }
+         State before = mover.state;
          mover.onCommand(cmd, pos);
+         // A command is accepted when the state machine moved to another state
+         if (tracer != null) tracer.handled(cmd, mover.state != before);
      }
 
 
     // Resolve collisions: if multiple pieces occupy the same cell,
     // only the "winner" (most recent mover) remains, others removed if capturable
     public void _resolve_collisions() {
-        Map<Pair, List<Piece>> occupied = new HashMap<>();
-        for (Piece p : pieces) {
-            occupied.computeIfAbsent(p.currentCell(), k -> new ArrayList<>()).add(p);
+        syncGrid();
+
+        // Nothing can have changed in chunks no piece entered or changed in
+        int removed = 0;
+        if (parallel != null) {
+            removed = parallel.resolveDirtyChunks();
+        } else {
+            for (int k = 0, chunks = grid.dirtyCount(); k < chunks; k++) removed += resolveChunk(grid.dirtyChunk(k));
+        }
+        grid.clearDirty();
+        if (removed > 0) removeCaptured();
+    }
+
+    // Re-bucket only the pieces whose columns changed (all of them the first time)
+    private void syncGrid() {
+        store.refresh(pieces);
+        for (int i = 0, n = store.changedCount(); i < n; i++) {
+            int s = store.changedSlot(i);
+            int d = store.indexOf(s);
+            if (d < 0) grid.remove(s);
+            else if (!grid.move(s, store.cellAt(d))) grid.touch(s); // same cell, new state or start time
+            occupancy.move(s, d < 0 ? -1 : store.cellAt(d));
+            if (parallel != null) parallel.handOff(s, d < 0 ? -1 : store.cellAt(d));
         }
-        for (Map.Entry<Pair, List<Piece>> entry : occupied.entrySet()) {
-            List<Piece> plist = entry.getValue();
-            if (plist.size() < 2) continue; // No collision if less than 2 pieces
-
-            // Determine the winner based on physics start time (most recent)
-            Piece winner = plist.stream()
-                    .max(Comparator.comparingLong(p -> p.state.physics.getStartMs()))
-                    .orElse(null);
-            if (winner == null || !winner.state.canCapture()) continue;
-
-            // Remove all other capturable pieces on the cell except the winner
-            for (Piece p : new ArrayList<>(plist)) {
-                if (p == winner) continue;
-                if (p.state.canBeCaptured()) pieces.remove(p);
+        store.clearChanged();
+    }
+
+    // Mark the captures on the cells of one chunk; returns how many. Only reads the store and the
+    // grid and writes the captured flags of pieces in this chunk, so chunks can run in parallel.
+    int resolveChunk(int chunk) {
+        int removed = 0;
+        for (int c = 0, cells = grid.chunkCells(); c < cells; c++) {
+            int head = grid.firstInChunk(chunk, c);
+            if (head < 0 || grid.nextOnCell(head) < 0) continue; // No collision if less than 2 pieces
+
+            // Determine the winner based on physics start time (most recent); on a tie the piece
+            // that comes first in 'pieces', i.e. the lower slot, wins
+            int winner = head;
+            for (int s = grid.nextOnCell(head); s >= 0; s = grid.nextOnCell(s)) {
+                long d = store.startMsAt(store.indexOf(s)) - store.startMsAt(store.indexOf(winner));
+                if (d > 0 || (d == 0 && s < winner)) winner = s;
+            }
+            if ((store.flagsAt(store.indexOf(winner)) & PieceStore.CAN_CAPTURE) == 0) continue;
+
+            // Mark all other capturable pieces on the cell except the winner
+            for (int s = head; s >= 0; s = grid.nextOnCell(s)) {
+                if (s != winner && (store.flagsAt(store.indexOf(s)) & PieceStore.CAPTURABLE) != 0) {
+                    capturedSlot[s] = true;
+                    removed++;
+                }
             }
         }
+        return removed;
     }
 
-    /* ---------------- keyboard helpers ---------------- */
+    // Drop the captured pieces in one pass (swap-remove in the store, order kept in 'pieces')
+    private void removeCaptured() {
+        pieces.removeIf(p -> {
+            int slot = store.slotOf(p);
+            return slot >= 0 && capturedSlot[slot];
+        });
+        for (int s = 0; s < capturedSlot.length; s++) {
+            if (capturedSlot[s]) {
+                store.remove(s);
+                grid.remove(s);
+                occupancy.move(s, -1);
+                if (parallel != null) parallel.handOff(s, -1);
+                capturedSlot[s] = false;
+            }
+        }
+    }
 
     public void startUserInputThread() {
         Map<String, String> p1Map = Map.of(
@@ -206,10 +497,14 @@ public class Game extends Container {
                 "w", "up", "s", "down", "a", "left", "d", "right",
                 "f", "select", "g", "jump"
         );
-        Map<Integer, Piece>[][] boardState = createBoardState();
+        kp1 = new KeyboardProcessor(board.getHCells(), board.getWCells(), p1Map, userInputQueue, occupancy);
+        kp2 = new KeyboardProcessor(board.getHCells(), board.getWCells(), p2Map, userInputQueue, occupancy);
 
-        kp1 = new KeyboardProcessor(board.getHCells(), board.getWCells(), p1Map, userInputQueue, boardState);
-        kp2 = new KeyboardProcessor(board.getHCells(), board.getWCells(), p2Map, userInputQueue, boardState);
+        // Commands must carry game time, not wall-clock time
+        kp1.setClock(this::game_time_ms);
+        kp2.setClock(this::game_time_ms);
+        kp1.setTracer(tracer);
+        kp2.setTracer(tracer);
 
         kp1.setCursor(1, 0, board.getWCells() - 1);
         kp2.setCursor(2, board.getHCells() - 1, 0);
@@ -292,11 +587,18 @@ public class Game extends Container {
 
     // Draw current game state on the cloned board
     public void _draw() {
-        curr_board.getImg();
-
-        for (Piece p : pieces) {
-            p.drawOnBoard(curr_board, game_time_ms());
+        // Start from the empty board, so pieces that moved leave no trail
+        board.drawBackground(curr_board.getImg());
+
+        // Resolve every sprite first, then draw; only the published snapshot is read, never the live pieces
+        FrameSnapshot snap = snapshot;
+        int n = snap.getPieces().size();
+        if (drawSprites.length < n) {
+            drawSprites = new Img[n];
+            drawPos = new int[2 * n];
         }
+        n = FrameResolver.resolve(snap, game_time_ms(), drawSprites, drawPos);
+        Blitter.drawAll(curr_board.getImg(), drawSprites, drawPos, n);
 
         // drawCursors();
     }
@@ -334,27 +636,4 @@ public class Game extends Container {
         return curr_board.getImg().get();
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<Integer, Piece>[][] createBoardState() {
-        int rows = board.getHCells();
-        int cols = board.getWCells();
-        Map<Integer, Piece>[][] boardState = new Map[rows][cols];
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                boardState[r][c] = new HashMap<>();
-            }
-        }
-
-        // מלא את המצב עם הכלים על הלוח
-        for (Piece p : pieces) {
-            Pair cell = p.currentCell();
-            int x = cell.r;
-            int y = cell.c;
-
-            int player = (p.id.charAt(1) == 'W') ? 1 : 2;
-            boardState[x][y].put(player, p);
-        }
-        return boardState;
-    }
-
 }
@@ -1,14 +1,15 @@
 package game;
 
-import img.Img;
 import board.Board;
+import board.BoardFactory;
 import classes.Pair;
-import img.ImgFactory;
 import piece.Piece;
 import piece.PieceFactory;
 
+import java.io.IOException;
 import java.nio.file.*;
 import java.awt.Dimension;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 public class GameFactory {
@@ -18,20 +19,66 @@ public class GameFactory {
         return createGame(Path.of(piecesRootStr));
     }
 
-    // Constant cell size in pixels (width and height)
-    final static int CELL_PX = 64;
+    // Cell size in pixels (width and height); -Dchess.cellPx=16 keeps the image of a large board small
+    final static int CELL_PX = Integer.getInteger("chess.cellPx", 64);
+
+    // -Dchess.fixedPoint=true: deterministic integer physics (see Board.setFixedPoint)
+    final static boolean FIXED_POINT = Boolean.getBoolean("chess.fixedPoint");
 
     // Main method to create a Game given a directory path containing resources
     public static Game createGame(Path piecesRoot) {
+        return createGame(piecesRoot, CELL_PX);
+    }
+
+    // Same, with cells of cellPx pixels
+    public static Game createGame(Path piecesRoot, int cellPx) {
+        PieceFactory pFactory = loadLibrary(piecesRoot, cellPx);
+
+        // Stream the CSV file that defines the initial board layout (piece codes per cell)
+        List<Piece> pieces = new ArrayList<>();
+        try {
+            BoardLayout.read(piecesRoot.resolve("board.csv"),
+                    (row, col, code) -> pieces.add(pFactory.createPiece(code, new Pair(row, col))));
+        } catch (Exception e) {
+            // If reading/parsing CSV fails, throw a runtime exception
+            throw new RuntimeException("Failed to parse board.csv", e);
+        }
+
+        // Return a new Game initialized with all created pieces and the board
+        return new Game(pieces, pFactory.getBoard());
+    }
+
+    /**
+     * Load the board image and every piece type of a pieces directory, for createGame(PieceFactory, List)
+     * (and PieceLibraryWatcher, which keeps it up to date while the files are edited).
+     */
+    public static PieceFactory loadLibrary(Path piecesRoot) {
+        return loadLibrary(piecesRoot, CELL_PX);
+    }
 
-        Path boardPng = piecesRoot.resolve("board.png");
-        if (!Files.exists(boardPng)) {
-            throw new RuntimeException("File not found: " + boardPng.toAbsolutePath());
+    /**
+     * As loadLibrary(Path), with cells of cellPx pixels. The board is as large as board.csv; its
+     * background repeats cell.png (one cell) if the directory has one, otherwise board.png (8x8 cells).
+     */
+    public static PieceFactory loadLibrary(Path piecesRoot, int cellPx) {
+        Dimension cells;
+        try {
+            cells = BoardLayout.size(piecesRoot.resolve("board.csv"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read board.csv", e);
         }
-        Dimension boardSize = new Dimension(CELL_PX * 8, CELL_PX * 8);
-        ImgFactory imgFactory = new ImgFactory();
-        Img boardImg = imgFactory.create(boardPng.toString(), boardSize, false);
-        Board board = new Board(CELL_PX, CELL_PX, 8, 8, boardImg);
+
+        Path texture = piecesRoot.resolve("cell.png");
+        int textureCells = 1;
+        if (!Files.exists(texture)) {
+            texture = piecesRoot.resolve("board.png");
+            textureCells = BoardFactory.DEFAULT_IMAGE_CELLS;
+        }
+        if (!Files.exists(texture)) {
+            throw new RuntimeException("File not found: " + texture.toAbsolutePath());
+        }
+        Board board = BoardFactory.tiled(texture, textureCells, cells.width, cells.height, cellPx);
+        board.setFixedPoint(FIXED_POINT);
 
         // Create a piece.PieceFactory with the board (used to create pieces from resources)
         PieceFactory pFactory = new PieceFactory(board);
@@ -41,30 +88,32 @@ public class GameFactory {
         } catch (Exception e) {
             throw new RuntimeException("Failed to build piece library", e);
         }
+        return pFactory;
+    }
 
-        // Read the CSV file that defines the initial board layout (piece codes per cell)
-        Path csvPath = piecesRoot.resolve("board.csv");
-        List<Piece> pieces = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(csvPath);
-            for (int row = 0; row < lines.size(); row++) {
-                // Split each line by commas to get the codes for each column
-                String[] tokens = lines.get(row).strip().split(",");
-                for (int col = 0; col < tokens.length; col++) {
-                    String code = tokens[col].trim();
-                    if (code.isEmpty()) continue;
-
-                    // Create a piece object for this code at (row, col)
-                    Piece piece = pFactory.createPiece(code, new Pair(row, col));
-                    pieces.add(piece);
-                }
-            }
-        } catch (Exception e) {
-            // If reading/parsing CSV fails, throw a runtime exception
-            throw new RuntimeException("Failed to parse board.csv", e);
-        }
+    // Lines of board.csv in a pieces directory: comma-separated piece codes per cell, empty for none.
+    // Fine for ordinary boards; createGame(Path) streams the file instead (see BoardLayout)
+    public static List<String> readLayout(Path piecesRoot) throws IOException {
+        return Files.readAllLines(piecesRoot.resolve("board.csv"));
+    }
 
-        // Return a new Game initialized with all created pieces and the board
-        return new Game(pieces, board);
+    /**
+     * Create a game from a piece library that is already loaded, e.g. to play many games without
+     * reading any file again. Only the pieces are new (their state machines are cloned from the
+     * templates); sprites, moves and the board are shared with every other game of the library.
+     * Safe to call from several threads with the same library.
+     *
+     * @param library A PieceFactory after generateLibrary; its board becomes the game's board
+     * @param layout  board.csv lines (see readLayout)
+     */
+    public static Game createGame(PieceFactory library, List<String> layout) {
+        return new Game(createPieces(library, layout), library.getBoard());
+    }
+
+    private static List<Piece> createPieces(PieceFactory library, List<String> layout) {
+        List<Piece> pieces = new ArrayList<>();
+        // Create a piece object for each code at its (row, col)
+        BoardLayout.read(layout, (row, col, code) -> pieces.add(library.createPiece(code, new Pair(row, col))));
+        return pieces;
     }
 }
@@ -0,0 +1,196 @@
+package game;
+
+import board.SpatialGrid;
+import piece.PieceStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel tick mode for big boards (see Game.setParallelism). The board is split into square
+ * regions of SpatialGrid chunks, and the two phases of a tick that touch every piece run one task
+ * per region on a fork-join pool:
+ *
+ *  1. piece updates: every piece belongs to the region of the cell it was on at the end of the
+ *     previous tick and only touches its own state machine;
+ *  2. collision resolution: the dirty chunks of each region are searched for captures, which
+ *     only mark the captured slots.
+ *
+ * Everything in between stays on the game thread, in the same order as a sequential tick: user
+ * input, re-bucketing the pieces that changed (a piece that crossed into another region is
+ * handed off to that region's list here, before the next phase starts) and removing captured
+ * pieces, in slot order. No task writes anything another task reads, so the result is identical
+ * to Game._tick without this mode.
+ */
+public class ParallelTicker {
+    // Regions are this many chunks wide and high by default
+    public static final int DEFAULT_REGION_CHUNKS = 4;
+
+    private final Game game;
+    private final PieceStore store;
+    private final SpatialGrid grid;
+    private final ForkJoinPool pool;
+
+    private final int regionChunks;
+    private final int regionCols;
+
+    // Live slots of each region, unordered; -1 / position within it by slot
+    private final int[][] regionSlots;
+    private final int[] regionSize;
+    private final int[] regionOf;
+    private final int[] posInRegion;
+
+    // Dirty chunks of the current tick, grouped by region (counting sort into one array)
+    private final int[] dirtyStart;
+    private int[] dirtyByRegion = new int[0];
+
+    public ParallelTicker(Game game, int threads) {
+        this(game, threads, DEFAULT_REGION_CHUNKS);
+    }
+
+    public ParallelTicker(Game game, int threads, int regionChunks) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        if (regionChunks < 1) throw new IllegalArgumentException("regionChunks must be >= 1");
+        this.game = game;
+        this.store = game.store;
+        this.grid = game.grid;
+        this.pool = new ForkJoinPool(threads);
+        this.regionChunks = regionChunks;
+        this.regionCols = (grid.chunkCols() + regionChunks - 1) / regionChunks;
+        int regions = regionCols * ((grid.chunkRows() + regionChunks - 1) / regionChunks);
+        regionSlots = new int[regions][];
+        regionSize = new int[regions];
+        dirtyStart = new int[regions + 1];
+
+        int slots = store.slotCount();
+        regionOf = new int[slots];
+        posInRegion = new int[slots];
+        Arrays.fill(regionOf, -1);
+        for (int i = 0; i < store.size(); i++) handOff(store.slotAt(i), store.cellAt(i));
+    }
+
+    public int getRegionCount() {
+        return regionSlots.length;
+    }
+
+    // Stop the pool's threads; the game falls back to sequential ticks (see Game.setParallelism)
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    // Region of a cell; pieces off the board go with region 0
+    private int regionOfCell(int cell) {
+        return cell < 0 ? 0 : regionOfChunk(grid.chunkOf(cell));
+    }
+
+    private int regionOfChunk(int chunk) {
+        int cr = chunk / grid.chunkCols(), cc = chunk % grid.chunkCols();
+        return (cr / regionChunks) * regionCols + cc / regionChunks;
+    }
+
+    /**
+     * Move a slot to the list of the region its cell is in, or drop it when the piece was removed
+     * (cell -1 and not alive). Called by the game thread between phases.
+     */
+    void handOff(int slot, int cell) {
+        int to = store.isAlive(slot) ? regionOfCell(cell) : -1;
+        int from = regionOf[slot];
+        if (from == to) return;
+        if (from >= 0) {
+            // Swap-remove from the old region
+            int pos = posInRegion[slot];
+            int last = regionSlots[from][--regionSize[from]];
+            regionSlots[from][pos] = last;
+            posInRegion[last] = pos;
+        }
+        if (to >= 0) {
+            int[] list = regionSlots[to];
+            if (list == null) list = regionSlots[to] = new int[8];
+            else if (regionSize[to] == list.length) list = regionSlots[to] = Arrays.copyOf(list, list.length * 2);
+            posInRegion[slot] = regionSize[to];
+            list[regionSize[to]++] = slot;
+        }
+        regionOf[slot] = to;
+    }
+
+    /** Phase 1: update every live piece, one task per region. */
+    void updatePieces(long now) {
+        // Learn about pieces taken out of the game between ticks, which must not be updated. The
+        // changes stay recorded for the game's own grid update after the phase.
+        store.refresh(game.pieces);
+        for (int i = 0, n = store.changedCount(); i < n; i++) {
+            int s = store.changedSlot(i);
+            int d = store.indexOf(s);
+            handOff(s, d < 0 ? -1 : store.cellAt(d));
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int r = 0; r < regionSlots.length; r++) {
+            if (regionSize[r] == 0) continue;
+            int region = r;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    int[] list = regionSlots[region];
+                    for (int i = 0, n = regionSize[region]; i < n; i++) store.pieceAtSlot(list[i]).update(now);
+                }
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Phase 2: look for captures in the dirty chunks of the grid, one task per region.
+     *
+     * @return The number of captured slots marked
+     */
+    int resolveDirtyChunks() {
+        int regions = regionSlots.length, dirty = grid.dirtyCount();
+        if (dirtyByRegion.length < dirty) dirtyByRegion = new int[Math.max(dirty, 2 * dirtyByRegion.length)];
+        Arrays.fill(dirtyStart, 0);
+        for (int k = 0; k < dirty; k++) dirtyStart[regionOfChunk(grid.dirtyChunk(k)) + 1]++;
+        for (int r = 0; r < regions; r++) dirtyStart[r + 1] += dirtyStart[r];
+        int[] fill = Arrays.copyOf(dirtyStart, regions);
+        for (int k = 0; k < dirty; k++) {
+            int chunk = grid.dirtyChunk(k);
+            dirtyByRegion[fill[regionOfChunk(chunk)]++] = chunk;
+        }
+
+        List<RecursiveTask<Integer>> tasks = new ArrayList<>();
+        for (int r = 0; r < regions; r++) {
+            int from = dirtyStart[r], to = dirtyStart[r + 1];
+            if (from == to) continue;
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Integer compute() {
+                    int removed = 0;
+                    for (int k = from; k < to; k++) removed += game.resolveChunk(dirtyByRegion[k]);
+                    return removed;
+                }
+            });
+        }
+        invokeAll(tasks);
+        int removed = 0;
+        for (RecursiveTask<Integer> t : tasks) removed += t.join();
+        return removed;
+    }
+
+    private <T extends ForkJoinTask<?>> void invokeAll(List<T> tasks) {
+        if (tasks.isEmpty()) return;
+        if (tasks.size() == 1) {
+            tasks.get(0).invoke(); // not worth a hop to the pool
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package game;
+
+import physics.Physics;
+import piece.Piece;
+import piece.PieceStore;
+
+/**
+ * Cheap 64-bit fingerprint of the simulation state after a tick: the alive set, and for every
+ * live piece its state, its position and the start time its timers count from. Pieces are
+ * visited in slot order and only values the simulation computes itself are hashed (String
+ * hashes are fixed by the language), so two games that are in the same state agree on it on
+ * any JVM. Positions are hashed bit for bit; boards in fixed-point mode hash the integer
+ * positions (see Board.setFixedPoint).
+ *
+ * Game thread only, between ticks.
+ */
+public final class StateChecksum {
+    private StateChecksum() {}
+
+    /** Checksum of the current state of a game. */
+    public static long of(Game game) {
+        PieceStore store = game.store;
+        boolean fixed = game.board.isFixedPoint();
+        long h = 0x2545F4914F6CDD1DL;
+        for (int s = 0, n = game.slotCount(); s < n; s++) {
+            if (!store.isAlive(s)) continue;
+            Piece p = game.pieceAtSlot(s);
+            Physics ph = p.state.physics;
+            h = mix(h, s);
+            h = mix(h, p.state.name.hashCode());
+            h = mix(h, ph.getStartMs());
+            if (fixed) {
+                h = mix(h, ph.getPosXFx());
+                h = mix(h, ph.getPosYFx());
+            } else {
+                double[] posM = ph.getPosM();
+                h = mix(h, Double.doubleToLongBits(posM[0]));
+                h = mix(h, Double.doubleToLongBits(posM[1]));
+            }
+        }
+        return h;
+    }
+
+    // Running checksum: this tick's state chained to everything before it
+    public static long roll(long previous, long nowMs, long state) {
+        return mix(mix(previous, nowMs), state);
+    }
+
+    private static long mix(long h, long v) {
+        h = (h ^ v) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /** Readable state of a game, one line per live piece, for desync reports. */
+    public static String dump(Game game) {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0, n = game.slotCount(); s < n; s++) {
+            if (!game.store.isAlive(s)) continue;
+            Piece p = game.pieceAtSlot(s);
+            Physics ph = p.state.physics;
+            double[] posM = ph.getPosM();
+            sb.append(s).append(' ').append(p.id)
+              .append(" state=").append(p.state.name)
+              .append(" startMs=").append(ph.getStartMs())
+              .append(" cell=").append(p.currentCell())
+              .append(" posM=(").append(posM[0]).append(',').append(posM[1]).append(')');
+            if (game.board.isFixedPoint()) {
+                sb.append(" posFx=(").append(ph.getPosXFx()).append(',').append(ph.getPosYFx()).append(')');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,301 @@
+package game;
+
+import board.Board;
+import board.SpatialGrid;
+import physics.Motion;
+import physics.Physics;
+import piece.PieceStore;
+
+import java.util.Arrays;
+
+/**
+ * Continuous collision detection between ticks. _resolve_collisions only sees where pieces are
+ * at tick times, so a fast move or a coarse tick lets two pieces pass through each other without
+ * ever being sampled on the same cell. This follows every moving piece along its Motion segments
+ * between the previous tick and this one, finds the exact times at which it shares a cell with
+ * another piece, and resolves those meetings in time order with the usual rule: the latest start
+ * time wins, and captures the others if it can. A piece captured at some time takes no part in
+ * later meetings.
+ *
+ * Meetings at the tick time itself are left to _resolve_collisions, so at a fine tick rate the
+ * outcome is the same as before.
+ *
+ * Game thread only.
+ */
+class SweptCollisions {
+    private final PieceStore store;
+    private final SpatialGrid grid;
+    private final Board board;
+    private final double cellWM, cellHM;
+
+    // By slot: motion and capture flags of a piece that was moving at the previous tick
+    private final Motion[] prevMotion;
+    private final long[] prevStartMs;
+    private final byte[] prevFlags;
+    private final boolean[] isMover;
+    private int[] movers = new int[16];
+    private int moverCount;
+
+    // Spans: a piece on a cell from enter (inclusive) to exit (exclusive), in game ms
+    private int spanCount;
+    private int[] spanSlot = new int[64], spanCell = new int[64], spanFlags = new int[64];
+    private double[] spanEnter = new double[64], spanExit = new double[64];
+    private long[] spanStartMs = new long[64];
+
+    // Crossings of cell borders along one segment, as fractions of it
+    private double[] cuts = new double[8];
+    private int cutCount;
+
+    // Spans of each cell a mover visits (plus the pieces resting there): members[groupFrom[g]..groupTo[g])
+    private int groupCount;
+    private int[] groupFrom = new int[16], groupTo = new int[16];
+    private int[] members = new int[64];
+    private long[] keys = new long[64];
+
+    // Meetings: a time and the group of the cell
+    private int eventCount;
+    private double[] eventTime = new double[16];
+    private int[] eventGroup = new int[16];
+
+    SweptCollisions(PieceStore store, SpatialGrid grid, Board board) {
+        this.store = store;
+        this.grid = grid;
+        this.board = board;
+        this.cellWM = board.cellToM(0, 1)[0];
+        this.cellHM = board.cellToM(1, 0)[1];
+        int slots = store.slotCount();
+        prevMotion = new Motion[slots];
+        prevStartMs = new long[slots];
+        prevFlags = new byte[slots];
+        isMover = new boolean[slots];
+    }
+
+    /**
+     * Remember the motion of every piece that is moving now, for the next resolve. Called at the
+     * end of each tick, after the store was refreshed.
+     */
+    void record() {
+        for (int i = 0; i < moverCount; i++) prevMotion[movers[i]] = null;
+        moverCount = 0;
+        for (int i = 0, n = store.size(); i < n; i++) {
+            if ((store.flagsAt(i) & PieceStore.MOVING) == 0) continue;
+            int s = store.slotAt(i);
+            Physics ph = store.pieceAt(i).state.physics;
+            prevMotion[s] = ph.getMotion();
+            prevStartMs[s] = ph.getStartMs();
+            prevFlags[s] = (byte) store.flagsAt(i);
+            addMover(s);
+        }
+    }
+
+    /**
+     * Find the pieces that met on a cell strictly between fromMs and toMs and mark the ones
+     * captured there (see Game.resolveChunk for the flags).
+     *
+     * @return The number of slots marked
+     */
+    int resolve(long fromMs, long toMs, boolean[] captured) {
+        // Movers: pieces moving at the previous tick and pieces moving now
+        int prevMovers = moverCount;
+        for (int i = 0; i < prevMovers; i++) isMover[movers[i]] = true;
+        for (int i = 0, n = store.size(); i < n; i++) {
+            if ((store.flagsAt(i) & PieceStore.MOVING) != 0 && !isMover[store.slotAt(i)]) {
+                isMover[store.slotAt(i)] = true;
+                addMover(store.slotAt(i));
+            }
+        }
+
+        // Cells each mover passes over, and when
+        spanCount = 0;
+        for (int i = 0; i < moverCount; i++) {
+            int s = movers[i];
+            int d = store.indexOf(s);
+            if (d < 0) continue; // taken out of the game
+            Physics ph = store.pieceAtSlot(s).state.physics;
+            Motion cur = ph.getMotion();
+            Motion prev = prevMotion[s];
+            if (prev == null || prev == cur) {
+                addPath(s, cur, fromMs, toMs, ph.getStartMs(), store.flagsAt(d));
+            } else {
+                // The previous move until the current state started, then the current one
+                double at = Math.max(fromMs, Math.min(toMs, ph.getStartMs()));
+                addPath(s, prev, fromMs, at, prevStartMs[s], prevFlags[s]);
+                addPath(s, cur, at, toMs, ph.getStartMs(), store.flagsAt(d));
+            }
+        }
+
+        int removed = 0;
+        if (spanCount > 0) removed = resolveSpans(fromMs, toMs, captured);
+
+        // Movers that stopped are no longer needed; the others are recorded again
+        for (int i = 0; i < moverCount; i++) isMover[movers[i]] = false;
+        return removed;
+    }
+
+    private void addMover(int s) {
+        if (moverCount == movers.length) movers = Arrays.copyOf(movers, 2 * moverCount);
+        movers[moverCount++] = s;
+    }
+
+    // Spans of a piece following m between times a and b
+    private void addPath(int s, Motion m, double a, double b, long startMs, int flags) {
+        if (b <= a) return;
+        double moveFrom = Math.max(a, m.startMs()), moveTo = Math.min(b, m.endMs());
+        boolean still = m.fromXM() == m.toXM() && m.fromYM() == m.toYM();
+        if (still || moveTo <= moveFrom) {
+            // Not moving in [a, b): on one cell all along
+            double[] p = m.posMAt((long) a);
+            addSpan(s, cell(p[0], p[1]), a, b, startMs, flags);
+            return;
+        }
+        if (moveFrom > a) addSpan(s, cell(m.fromXM(), m.fromYM()), a, moveFrom, startMs, flags);
+
+        // Cells change where x or y crosses the middle between two cell centres
+        double len = m.endMs() - m.startMs();
+        double ua = (moveFrom - m.startMs()) / len, ub = (moveTo - m.startMs()) / len;
+        cutCount = 0;
+        addCrossings(m.fromXM() / cellWM, m.toXM() / cellWM, ua, ub);
+        addCrossings(m.fromYM() / cellHM, m.toYM() / cellHM, ua, ub);
+        Arrays.sort(cuts, 0, cutCount);
+
+        double u = ua;
+        for (int k = 0; k <= cutCount; k++) {
+            double next = k < cutCount ? cuts[k] : ub;
+            if (next > u) {
+                double mid = (u + next) / 2;
+                int c = cell(m.fromXM() + (m.toXM() - m.fromXM()) * mid, m.fromYM() + (m.toYM() - m.fromYM()) * mid);
+                addSpan(s, c, m.startMs() + u * len, k < cutCount ? m.startMs() + next * len : moveTo, startMs, flags);
+                u = next;
+            }
+        }
+        if (moveTo < b) addSpan(s, cell(m.toXM(), m.toYM()), moveTo, b, startMs, flags);
+    }
+
+    // Fractions u in (ua, ub) at which from + (to - from) * u crosses k + 0.5 (in cells)
+    private void addCrossings(double from, double to, double ua, double ub) {
+        if (from == to) return;
+        double lo = Math.min(from, to), hi = Math.max(from, to);
+        for (double b = Math.floor(lo + 0.5) + 0.5; b <= hi; b++) {
+            double u = (b - from) / (to - from);
+            if (u <= ua || u >= ub) continue;
+            if (cutCount == cuts.length) cuts = Arrays.copyOf(cuts, 2 * cutCount);
+            cuts[cutCount++] = u;
+        }
+    }
+
+    // Cell (row * cols + col) of a position, -1 off the board
+    private int cell(double xM, double yM) {
+        int r = board.mToRow(yM), c = board.mToCol(xM);
+        if (r < 0 || r >= board.getHCells() || c < 0 || c >= board.getWCells()) return -1;
+        return r * board.getWCells() + c;
+    }
+
+    private void addSpan(int s, int cell, double enter, double exit, long startMs, int flags) {
+        if (cell < 0 || exit <= enter) return;
+        if (spanCount == spanSlot.length) {
+            int n = 2 * spanCount;
+            spanSlot = Arrays.copyOf(spanSlot, n);
+            spanCell = Arrays.copyOf(spanCell, n);
+            spanFlags = Arrays.copyOf(spanFlags, n);
+            spanEnter = Arrays.copyOf(spanEnter, n);
+            spanExit = Arrays.copyOf(spanExit, n);
+            spanStartMs = Arrays.copyOf(spanStartMs, n);
+        }
+        spanSlot[spanCount] = s;
+        spanCell[spanCount] = cell;
+        spanEnter[spanCount] = enter;
+        spanExit[spanCount] = exit;
+        spanStartMs[spanCount] = startMs;
+        spanFlags[spanCount] = flags;
+        spanCount++;
+    }
+
+    private int resolveSpans(long fromMs, long toMs, boolean[] captured) {
+        // Group the spans by cell, adding the pieces that stood on it all along
+        int moving = spanCount;
+        if (keys.length < moving) keys = new long[Math.max(moving, 2 * keys.length)];
+        for (int i = 0; i < moving; i++) keys[i] = ((long) spanCell[i] << 32) | i;
+        Arrays.sort(keys, 0, moving);
+        groupCount = 0;
+        int m = 0;
+        for (int i = 0; i < moving; ) {
+            int cell = (int) (keys[i] >>> 32);
+            int from = m;
+            for (; i < moving && (int) (keys[i] >>> 32) == cell; i++) m = addMember(m, (int) keys[i]);
+            for (int s = grid.firstOnCell(cell); s >= 0; s = grid.nextOnCell(s)) {
+                int d = store.indexOf(s);
+                if (isMover[s] || d < 0) continue;
+                addSpan(s, cell, fromMs, toMs, store.startMsAt(d), store.flagsAt(d));
+                m = addMember(m, spanCount - 1);
+            }
+            if (groupCount == groupFrom.length) {
+                groupFrom = Arrays.copyOf(groupFrom, 2 * groupCount);
+                groupTo = Arrays.copyOf(groupTo, 2 * groupCount);
+            }
+            groupFrom[groupCount] = from;
+            groupTo[groupCount++] = m;
+        }
+
+        // Every time two pieces start sharing a cell between the ticks
+        eventCount = 0;
+        for (int g = 0; g < groupCount; g++) {
+            for (int a = groupFrom[g]; a < groupTo[g]; a++) {
+                for (int b = a + 1; b < groupTo[g]; b++) {
+                    int i = members[a], j = members[b];
+                    if (spanSlot[i] == spanSlot[j]) continue;
+                    double t = Math.max(spanEnter[i], spanEnter[j]);
+                    if (t < Math.min(spanExit[i], spanExit[j]) && t > fromMs && t < toMs) addEvent(t, g);
+                }
+            }
+        }
+        if (eventCount == 0) return 0;
+
+        Integer[] order = new Integer[eventCount];
+        for (int e = 0; e < eventCount; e++) order[e] = e;
+        Arrays.sort(order, (x, y) -> eventTime[x] != eventTime[y]
+                ? Double.compare(eventTime[x], eventTime[y]) : Integer.compare(eventGroup[x], eventGroup[y]));
+
+        // Resolve them in time order, as _resolve_collisions would have had it sampled that moment
+        int removed = 0;
+        for (int e : order) {
+            double t = eventTime[e];
+            int g = eventGroup[e];
+            int winner = -1, present = 0;
+            for (int a = groupFrom[g]; a < groupTo[g]; a++) {
+                int i = members[a];
+                if (captured[spanSlot[i]] || spanEnter[i] > t || spanExit[i] <= t) continue;
+                present++;
+                if (winner < 0 || spanStartMs[i] > spanStartMs[winner]
+                        || (spanStartMs[i] == spanStartMs[winner] && spanSlot[i] < spanSlot[winner])) {
+                    winner = i;
+                }
+            }
+            if (present < 2 || (spanFlags[winner] & PieceStore.CAN_CAPTURE) == 0) continue;
+            for (int a = groupFrom[g]; a < groupTo[g]; a++) {
+                int i = members[a];
+                int s = spanSlot[i];
+                if (s == spanSlot[winner] || captured[s] || spanEnter[i] > t || spanExit[i] <= t) continue;
+                if ((spanFlags[i] & PieceStore.CAPTURABLE) != 0) {
+                    captured[s] = true;
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private int addMember(int m, int span) {
+        if (m == members.length) members = Arrays.copyOf(members, 2 * m);
+        members[m] = span;
+        return m + 1;
+    }
+
+    private void addEvent(double t, int g) {
+        if (eventCount == eventTime.length) {
+            eventTime = Arrays.copyOf(eventTime, 2 * eventCount);
+            eventGroup = Arrays.copyOf(eventGroup, 2 * eventCount);
+        }
+        eventTime[eventCount] = t;
+        eventGroup[eventCount++] = g;
+    }
+}
@@ -3,6 +3,7 @@ package grafix;
 import classes.Command;
 import img.BuffImg;
 import img.Img;
+import img.SpriteFormat;
 
 import java.awt.Dimension;
 import java.nio.file.Path;
@@ -18,6 +19,8 @@ public class Graphics {
     private final double fps;
     // Duration of each frame in milliseconds (1000 ms divided by fps)
     private final double frameDurationMs;
+    // Storage format the frames were converted to
+    private final SpriteFormat format;
     // Timestamp in milliseconds when the animation started/reset
     private long startMs;
     // Index of the current frame in the frames list
@@ -33,9 +36,19 @@ public class Graphics {
      * @param fps Frames per second (animation speed)
      */
     public Graphics(Path spritesFolder, Dimension cellSize, boolean loop, double fps) {
+        this(spritesFolder, cellSize, loop, fps, SpriteFormat.DEFAULT);
+    }
+
+    /**
+     * Same as above, storing every frame in the given format (see img.SpriteFormat).
+     *
+     * @param format Storage format of the frames, e.g. RLE for sprites on a transparent background
+     */
+    public Graphics(Path spritesFolder, Dimension cellSize, boolean loop, double fps, SpriteFormat format) {
         this.loop = loop;
         this.fps = fps;
         this.frameDurationMs = 1000.0 / fps;
+        this.format = format;
 
         // Load PNG files in alphabetical order from spritesFolder
         // Use Java streams to list and filter files ending with ".png"
@@ -43,7 +56,7 @@ public class Graphics {
         try (java.util.stream.Stream<java.nio.file.Path> paths = java.nio.file.Files.list(spritesFolder)) {
             paths.filter(p -> p.toString().endsWith(".png"))
                     .sorted()
-                    .forEach(p -> frames.add(new BuffImg().read(p.toString(), cellSize, true, null)));
+                    .forEach(p -> frames.add(format.convert(new BuffImg().read(p.toString(), cellSize, true, null))));
         } catch (java.io.IOException e) {
             // If folder reading or loading any image fails, throw a runtime exception
             throw new RuntimeException("Failed listing sprites folder: " + spritesFolder, e);
@@ -74,16 +87,29 @@ public class Graphics {
      * @param nowMs Current time in milliseconds used to calculate frame progression
      */
     public void update(long nowMs) {
-        long elapsed = nowMs - startMs;                   // elapsed time since animation started
-        int framesPassed = (int) (elapsed / frameDurationMs);  // how many frames should have passed
-
-        if (loop) {
-            // Loop animation by cycling through frames
-            curFrame = framesPassed % frames.size();
-        } else {
-            // Clamp to last frame if animation should not loop
-            curFrame = Math.min(framesPassed, frames.size() - 1);
-        }
+        curFrame = frameIndexAt(nowMs - startMs);
+    }
+
+    /**
+     * Index of the frame shown after elapsedMs of animation. Pure function of the elapsed time,
+     * fps and loop, so one Graphics can be shared by every piece in the same state and read from
+     * any thread without synchronization.
+     *
+     * @param elapsedMs Time since the piece entered the state (negative values show the first frame)
+     */
+    public int frameIndexAt(long elapsedMs) {
+        int n = frames.size();
+        if (n == 0) throw new IllegalStateException("No frames loaded for animation.");
+        if (elapsedMs <= 0) return 0;
+        long framesPassed = (long) (elapsedMs / frameDurationMs);
+        return (int) (loop ? framesPassed % n : Math.min(framesPassed, n - 1));
+    }
+
+    /**
+     * Frame image shown after elapsedMs of animation (see frameIndexAt).
+     */
+    public Img frameAt(long elapsedMs) {
+        return frames.get(frameIndexAt(elapsedMs));
     }
 
     /**
@@ -99,6 +125,16 @@ public class Graphics {
     // Accessor to get frames per second (fps) for tests or info
     public double getFps() { return fps; }
 
+    // Accessor to get the storage format of the frames
+    public SpriteFormat getFormat() { return format; }
+
+    // Pixel memory held by all frames, in bytes
+    public long getSpriteBytes() {
+        long total = 0;
+        for (Img f : frames) total += SpriteFormat.bytesOf(f);
+        return total;
+    }
+
     // Accessor to get all loaded frames (useful for testing)
     public List<Img> getFrames() { return frames; }
 
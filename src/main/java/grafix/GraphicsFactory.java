@@ -2,6 +2,7 @@ package grafix;
 
 import java.awt.Dimension;
 import java.nio.file.Path;
+import img.SpriteFormat;
 import org.json.JSONObject;
 
 public class GraphicsFactory {
@@ -22,7 +23,10 @@ public class GraphicsFactory {
         // Read optional double "frames_per_sec" from the config; default to 6.0 FPS if missing.
         double fps = cfg.optDouble("frames_per_sec", 6.0);
 
+        // Read optional "sprite_format"; see img.SpriteFormat for the values and the default.
+        SpriteFormat format = SpriteFormat.parse(cfg.optString("sprite_format", null));
+
         // Create and return a grafix.Graphics instance with given parameters.
-        return new Graphics(spritesDir, cellSize, loop, fps);
+        return new Graphics(spritesDir, cellSize, loop, fps, format);
     }
 }
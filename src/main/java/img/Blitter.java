@@ -0,0 +1,250 @@
+package img;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Software SrcOver blitter working directly on the pixel arrays of images, with clipping.
+ *
+ * Sources: INT_RGB, INT_ARGB, INT_ARGB_PRE and 8-bit BYTE_INDEXED.
+ * Destinations: INT_RGB, INT_ARGB and INT_ARGB_PRE.
+ * Other combinations return false from blit so the caller can fall back to Java2D.
+ *
+ * Each source/destination pair has its own row loop on premultiplied ARGB, two colour channels
+ * per multiply, so the JIT sees short counted loops without calls. Premultiplied sources
+ * (SpriteFormat.ARGB_PRE, converted once at load) are the cheapest translucent case: one
+ * multiply of the destination per pixel. Note that touching the pixel array of the destination
+ * makes Java2D stop caching it in video memory, which is the right trade for images that are
+ * redrawn every frame anyway.
+ */
+public final class Blitter {
+
+    // Pseudo image type for indexed sources whose palette has no transparency
+    private static final int OPAQUE_INDEXED = -1;
+
+    private Blitter() {}
+
+    /** True if blit handles src onto dst without falling back. */
+    public static boolean canBlit(BufferedImage src, BufferedImage dst) {
+        return isSupportedSource(src) && isSupportedTarget(dst);
+    }
+
+    /**
+     * Draw src onto dst with its top-left corner at (x, y), clipped to dst.
+     *
+     * @return false (and nothing drawn) if the image types are not supported
+     */
+    public static boolean blit(BufferedImage src, BufferedImage dst, int x, int y) {
+        if (!canBlit(src, dst)) return false;
+        Target t = new Target(dst);
+        blitInto(src, t, x, y);
+        return true;
+    }
+
+    /**
+     * Draw many sprites onto one target, e.g. the frames resolved by game.FrameResolver.resolve.
+     * Sprites are drawn in order (later ones on top) and clipped to the target. Sprites blit does
+     * not handle (RLE, other image types) are drawn with their own drawOn.
+     *
+     * @param target Destination image
+     * @param sprites Sprites to draw, the first n are used
+     * @param posPix x of sprite i at 2 * i, y at 2 * i + 1
+     * @param n Number of sprites
+     */
+    public static void drawAll(Img target, Img[] sprites, int[] posPix, int n) {
+        BufferedImage dst = target.get();
+        if (dst == null) throw new IllegalStateException("Target image not loaded.");
+        Target t = isSupportedTarget(dst) ? new Target(dst) : null;
+        for (int i = 0; i < n; i++) {
+            Img s = sprites[i];
+            BufferedImage src = s instanceof BuffImg ? s.get() : null;
+            if (t != null && src != null && isSupportedSource(src)) {
+                blitInto(src, t, posPix[2 * i], posPix[2 * i + 1]);
+            } else {
+                s.drawOn(target, posPix[2 * i], posPix[2 * i + 1]);
+            }
+        }
+    }
+
+    /* -------------- implementation -------------- */
+
+    // Pixel array of a destination and how to address it
+    private static final class Target {
+        final int[] data;
+        final int stride, offset, width, height, type;
+
+        Target(BufferedImage dst) {
+            WritableRaster r = dst.getRaster();
+            this.data = ((DataBufferInt) r.getDataBuffer()).getData();
+            this.stride = ((SinglePixelPackedSampleModel) r.getSampleModel()).getScanlineStride();
+            this.offset = -r.getSampleModelTranslateY() * stride - r.getSampleModelTranslateX();
+            this.width = dst.getWidth();
+            this.height = dst.getHeight();
+            this.type = dst.getType();
+        }
+    }
+
+    private static boolean isSupportedTarget(BufferedImage dst) {
+        int t = dst.getType();
+        return (t == BufferedImage.TYPE_INT_RGB || t == BufferedImage.TYPE_INT_ARGB || t == BufferedImage.TYPE_INT_ARGB_PRE)
+                && dst.getRaster().getDataBuffer() instanceof DataBufferInt;
+    }
+
+    private static boolean isSupportedSource(BufferedImage src) {
+        int t = src.getType();
+        if (t == BufferedImage.TYPE_INT_RGB || t == BufferedImage.TYPE_INT_ARGB || t == BufferedImage.TYPE_INT_ARGB_PRE) {
+            return src.getRaster().getDataBuffer() instanceof DataBufferInt;
+        }
+        return t == BufferedImage.TYPE_BYTE_INDEXED && src.getRaster().getSampleModel() instanceof PixelInterleavedSampleModel;
+    }
+
+    private static void blitInto(BufferedImage src, Target t, int x, int y) {
+        // Clip the source rectangle to the target
+        int sx0 = Math.max(0, -x), sy0 = Math.max(0, -y);
+        int sx1 = Math.min(src.getWidth(), t.width - x), sy1 = Math.min(src.getHeight(), t.height - y);
+        int w = sx1 - sx0;
+        if (w <= 0 || sy1 <= sy0) return;
+
+        WritableRaster sr = src.getRaster();
+        int type = src.getType();
+        int sStride, sOffset;
+        int[] srcInts = null;
+        byte[] srcBytes = null;
+        int[] palette = null;
+        if (type == BufferedImage.TYPE_BYTE_INDEXED) {
+            srcBytes = ((DataBufferByte) sr.getDataBuffer()).getData();
+            PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel) sr.getSampleModel();
+            sStride = sm.getScanlineStride();
+            sOffset = sm.getBandOffsets()[0];
+            IndexColorModel icm = (IndexColorModel) src.getColorModel();
+            palette = premultipliedPalette(icm);
+            if (icm.getTransparency() == IndexColorModel.OPAQUE) type = OPAQUE_INDEXED;
+        } else {
+            srcInts = ((DataBufferInt) sr.getDataBuffer()).getData();
+            sStride = ((SinglePixelPackedSampleModel) sr.getSampleModel()).getScanlineStride();
+            sOffset = 0;
+        }
+        sOffset += -sr.getSampleModelTranslateY() * sStride - sr.getSampleModelTranslateX();
+
+        // ARGB destinations may hold translucent pixels, which need a division; others add up directly
+        boolean straight = t.type == BufferedImage.TYPE_INT_ARGB;
+        int alphaOr = t.type == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+        int[] dst = t.data;
+        for (int sy = sy0; sy < sy1; sy++) {
+            int s = sOffset + sy * sStride + sx0;
+            int d = t.offset + (y + sy) * t.stride + x + sx0;
+            switch (type) {
+                case BufferedImage.TYPE_INT_RGB:
+                    if (alphaOr != 0) System.arraycopy(srcInts, s, dst, d, w); // alpha byte unused
+                    else for (int i = 0; i < w; i++) dst[d + i] = 0xFF000000 | srcInts[s + i];
+                    break;
+                case OPAQUE_INDEXED:
+                    for (int i = 0; i < w; i++) dst[d + i] = palette[srcBytes[s + i] & 0xFF];
+                    break;
+                case BufferedImage.TYPE_INT_ARGB_PRE:
+                    if (straight) preOnArgb(srcInts, s, dst, d, w);
+                    else preOnPre(srcInts, s, dst, d, w, alphaOr);
+                    break;
+                case BufferedImage.TYPE_INT_ARGB:
+                    if (straight) argbOnArgb(srcInts, s, dst, d, w);
+                    else argbOnPre(srcInts, s, dst, d, w, alphaOr);
+                    break;
+                default:
+                    if (straight) indexedOnArgb(srcBytes, palette, s, dst, d, w);
+                    else indexedOnPre(srcBytes, palette, s, dst, d, w, alphaOr);
+            }
+        }
+    }
+
+    /*
+     * Row loops. "Pre" destinations are INT_ARGB_PRE and INT_RGB (alphaOr forces the alpha of the
+     * latter): out = src + dst * (1 - srcAlpha) per channel, with src premultiplied.
+     */
+
+    private static void preOnPre(int[] src, int s, int[] dst, int d, int w, int alphaOr) {
+        for (int i = 0; i < w; i++) {
+            int p = src[s + i];
+            dst[d + i] = (p + scale(dst[d + i], 255 - (p >>> 24))) | alphaOr;
+        }
+    }
+
+    private static void argbOnPre(int[] src, int s, int[] dst, int d, int w, int alphaOr) {
+        for (int i = 0; i < w; i++) {
+            int p = src[s + i];
+            int a = p >>> 24;
+            if (a == 0xFF) dst[d + i] = p;
+            else if (a != 0) dst[d + i] = ((a << 24) + scale(p & 0xFFFFFF, a) + scale(dst[d + i], 255 - a)) | alphaOr;
+        }
+    }
+
+    private static void indexedOnPre(byte[] src, int[] palette, int s, int[] dst, int d, int w, int alphaOr) {
+        for (int i = 0; i < w; i++) {
+            int p = palette[src[s + i] & 0xFF];
+            int a = p >>> 24;
+            if (a == 0xFF) dst[d + i] = p;
+            else if (a != 0) dst[d + i] = (p + scale(dst[d + i], 255 - a)) | alphaOr;
+        }
+    }
+
+    private static void preOnArgb(int[] src, int s, int[] dst, int d, int w) {
+        for (int i = 0; i < w; i++) dst[d + i] = overArgb(src[s + i], dst[d + i]);
+    }
+
+    private static void argbOnArgb(int[] src, int s, int[] dst, int d, int w) {
+        for (int i = 0; i < w; i++) dst[d + i] = overArgb(premultiply(src[s + i]), dst[d + i]);
+    }
+
+    private static void indexedOnArgb(byte[] src, int[] palette, int s, int[] dst, int d, int w) {
+        for (int i = 0; i < w; i++) dst[d + i] = overArgb(palette[src[s + i] & 0xFF], dst[d + i]);
+    }
+
+    // Premultiplied source over a non-premultiplied ARGB pixel; only translucent destinations divide
+    private static int overArgb(int s, int q) {
+        int sa = s >>> 24;
+        if (sa == 0xFF) return s;
+        int da = q >>> 24;
+        int ia = 255 - sa;
+        if (da == 0xFF) return s + scale(q, ia);
+        if (sa == 0) return q;
+        int dw = div255(da * ia);      // destination weight
+        int a = sa + dw;
+        int r = ((((s >> 16) & 0xFF) * 255 + ((q >> 16) & 0xFF) * dw) + a / 2) / a;
+        int g = ((((s >> 8) & 0xFF) * 255 + ((q >> 8) & 0xFF) * dw) + a / 2) / a;
+        int b = (((s & 0xFF) * 255 + (q & 0xFF) * dw) + a / 2) / a;
+        return (a << 24) | (Math.min(r, 255) << 16) | (Math.min(g, 255) << 8) | Math.min(b, 255);
+    }
+
+    private static int premultiply(int p) {
+        int a = p >>> 24;
+        return (a << 24) | scale(p & 0xFFFFFF, a);
+    }
+
+    // All four channels of p times f / 255 (rounded), two channels per multiply
+    private static int scale(int p, int f) {
+        int rb = (p & 0xFF00FF) * f + 0x800080;
+        rb = ((rb + ((rb >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+        int ag = ((p >>> 8) & 0xFF00FF) * f + 0x800080;
+        ag = (ag + ((ag >>> 8) & 0xFF00FF)) & 0xFF00FF00;
+        return ag | rb;
+    }
+
+    private static int[] premultipliedPalette(IndexColorModel icm) {
+        int[] pal = new int[256];
+        icm.getRGBs(pal);
+        if (icm.getTransparency() != IndexColorModel.OPAQUE) {
+            for (int i = 0; i < icm.getMapSize(); i++) pal[i] = premultiply(pal[i]);
+        }
+        return pal;
+    }
+
+    // x / 255 rounded, for 0 <= x <= 255 * 255
+    private static int div255(int x) {
+        x += 128;
+        return (x + (x >> 8)) >> 8;
+    }
+}
@@ -89,13 +89,14 @@ public class BuffImg implements Img {
 
     @Override
     public void drawOn(Img other, int x, int y) {
-        // Draws this image onto another image at position (x, y)
+        // Draws this image onto another image at position (x, y), clipped to its bounds
         if (img == null || other.get() == null)
             throw new IllegalStateException("Both images must be loaded.");
 
         BufferedImage dstImg = other.get();
-        if (x + img.getWidth() > dstImg.getWidth() || y + img.getHeight() > dstImg.getHeight())
-            throw new IllegalArgumentException("Patch exceeds destination bounds.");
+
+        // Fast path: write straight into the pixel arrays when Blitter supports both image types
+        if (Blitter.blit(img, dstImg, x, y)) return;
 
         Graphics2D g = dstImg.createGraphics();
         g.setComposite(AlphaComposite.SrcOver); // Enables transparency handling
@@ -0,0 +1,215 @@
+package img;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Read-only sprite that stores only its non-transparent pixels, as horizontal runs per row.
+ *
+ * Runs are split where a pixel switches between fully opaque and translucent, so opaque runs are
+ * copied with System.arraycopy and only translucent ones are blended. Fully transparent pixels
+ * are neither stored nor visited. Drawing onto an INT_ARGB or INT_RGB image writes its pixel
+ * array directly, clipped to its bounds; other destinations go through Java2D.
+ */
+public class RleImg implements Img {
+    private final int width, height;
+    private final int[] rowStart;   // first run of each row; rowStart[height] = number of runs
+    private final int[] runX;       // column of the first pixel of each run
+    private final int[] runLen;
+    private final int[] runOffset;  // index of the run's first pixel in pixels
+    private final boolean[] runOpaque;
+    private final int[] pixels;     // non-premultiplied ARGB
+    private volatile BufferedImage decoded; // built by the first get()
+
+    private RleImg(int width, int height, int[] rowStart, int[] runX, int[] runLen, int[] runOffset,
+                   boolean[] runOpaque, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        this.rowStart = rowStart;
+        this.runX = runX;
+        this.runLen = runLen;
+        this.runOffset = runOffset;
+        this.runOpaque = runOpaque;
+        this.pixels = pixels;
+    }
+
+    /** Encode an image; the source is not kept. */
+    public static RleImg encode(BufferedImage src) {
+        int w = src.getWidth(), h = src.getHeight();
+        int[] argb = src.getRGB(0, 0, w, h, null, 0, w);
+
+        // First pass: count runs and stored pixels
+        int runs = 0, stored = 0;
+        for (int y = 0; y < h; y++) {
+            int cls = 0; // 0 transparent, 1 translucent, 2 opaque
+            for (int x = 0; x < w; x++) {
+                int c = alphaClass(argb[y * w + x]);
+                if (c != 0) {
+                    stored++;
+                    if (c != cls) runs++;
+                }
+                cls = c;
+            }
+        }
+
+        int[] rowStart = new int[h + 1];
+        int[] runX = new int[runs], runLen = new int[runs], runOffset = new int[runs];
+        boolean[] runOpaque = new boolean[runs];
+        int[] pixels = new int[stored];
+        int r = -1, p = 0;
+        for (int y = 0; y < h; y++) {
+            rowStart[y] = r + 1;
+            int cls = 0;
+            for (int x = 0; x < w; x++) {
+                int px = argb[y * w + x];
+                int c = alphaClass(px);
+                if (c != 0) {
+                    if (c != cls) {
+                        r++;
+                        runX[r] = x;
+                        runOffset[r] = p;
+                        runOpaque[r] = c == 2;
+                    }
+                    runLen[r]++;
+                    pixels[p++] = px;
+                }
+                cls = c;
+            }
+        }
+        rowStart[h] = runs;
+        return new RleImg(w, h, rowStart, runX, runLen, runOffset, runOpaque, pixels);
+    }
+
+    private static int alphaClass(int argb) {
+        int a = argb >>> 24;
+        return a == 0 ? 0 : a == 255 ? 2 : 1;
+    }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    // Stored pixel and run data in bytes
+    public long getByteSize() {
+        return 4L * (pixels.length + rowStart.length + 3L * runX.length) + runOpaque.length;
+    }
+
+    /* -------------- loading -------------- */
+
+    @Override
+    public Img read(String path) {
+        throw new IllegalStateException("RLE sprites are encoded from a loaded image, see SpriteFormat.");
+    }
+
+    @Override
+    public Img read(String path, Dimension targetSize, boolean keepAspect, Object interpolation) {
+        return read(path);
+    }
+
+    /* -------------- drawing -------------- */
+
+    @Override
+    public void drawOn(Img other, int x, int y) {
+        BufferedImage dstImg = other.get();
+        if (dstImg == null) throw new IllegalStateException("Both images must be loaded.");
+
+        int type = dstImg.getType();
+        WritableRaster raster = dstImg.getRaster();
+        if ((type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB) || raster.getParent() != null) {
+            // Unusual destination: let Java2D composite a decoded copy
+            Graphics2D g = dstImg.createGraphics();
+            g.setComposite(AlphaComposite.SrcOver);
+            g.drawImage(get(), x, y, null);
+            g.dispose();
+            return;
+        }
+
+        int[] dst = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        boolean dstAlpha = type == BufferedImage.TYPE_INT_ARGB;
+        // Clip rows, then runs, to the destination
+        int row0 = Math.max(0, -y), row1 = Math.min(height, dstImg.getHeight() - y);
+        int minX = -x, maxX = dstImg.getWidth() - x;
+        for (int row = row0; row < row1; row++) {
+            int line = (y + row) * stride + x;
+            for (int r = rowStart[row], end = rowStart[row + 1]; r < end; r++) {
+                int x0 = Math.max(runX[r], minX), x1 = Math.min(runX[r] + runLen[r], maxX);
+                if (x1 <= x0) continue;
+                int d = line + x0, s = runOffset[r] + x0 - runX[r], n = x1 - x0;
+                if (runOpaque[r]) {
+                    System.arraycopy(pixels, s, dst, d, n);
+                } else if (dstAlpha) {
+                    for (int i = 0; i < n; i++) dst[d + i] = blendArgb(pixels[s + i], dst[d + i]);
+                } else {
+                    for (int i = 0; i < n; i++) dst[d + i] = blendRgb(pixels[s + i], dst[d + i]);
+                }
+            }
+        }
+    }
+
+    // Source-over of non-premultiplied ARGB onto non-premultiplied ARGB
+    private static int blendArgb(int src, int dst) {
+        int sa = src >>> 24, da = dst >>> 24;
+        int dw = da * (255 - sa) / 255;     // destination weight
+        int oa = sa + dw;
+        if (oa == 0) return 0;
+        int r = (((src >> 16) & 0xFF) * sa + ((dst >> 16) & 0xFF) * dw) / oa;
+        int g = (((src >> 8) & 0xFF) * sa + ((dst >> 8) & 0xFF) * dw) / oa;
+        int b = ((src & 0xFF) * sa + (dst & 0xFF) * dw) / oa;
+        return (oa << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    // Source-over onto an opaque RGB pixel
+    private static int blendRgb(int src, int dst) {
+        int sa = src >>> 24, ia = 255 - sa;
+        int r = (((src >> 16) & 0xFF) * sa + ((dst >> 16) & 0xFF) * ia + 127) / 255;
+        int g = (((src >> 8) & 0xFF) * sa + ((dst >> 8) & 0xFF) * ia + 127) / 255;
+        int b = ((src & 0xFF) * sa + (dst & 0xFF) * ia + 127) / 255;
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    @Override
+    public void putText(String txt, int x, int y, float fontSize, Color color, int thickness) {
+        throw new IllegalStateException("RLE sprites are read-only.");
+    }
+
+    @Override
+    public void drawRect(int x1, int y1, int x2, int y2, Color color) {
+        throw new IllegalStateException("RLE sprites are read-only.");
+    }
+
+    /* -------------- display -------------- */
+
+    @Override
+    public void show() {
+        new BuffImg(get()).show();
+    }
+
+    /* -------------- access -------------- */
+
+    /**
+     * Decoded copy of the sprite, for the Java2D fallback and tests. It is built on the first call
+     * and kept, so sprites that are only ever drawn onto INT destinations stay compact. Callers
+     * must not modify it.
+     */
+    @Override
+    public BufferedImage get() {
+        BufferedImage out = decoded;
+        if (out == null) decoded = out = decode();
+        return out;
+    }
+
+    private BufferedImage decode() {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] data = ((DataBufferInt) out.getRaster().getDataBuffer()).getData();
+        for (int row = 0; row < height; row++) {
+            for (int r = rowStart[row], end = rowStart[row + 1]; r < end; r++) {
+                System.arraycopy(pixels, runOffset[r], data, row * width + runX[r], runLen[r]);
+            }
+        }
+        return out;
+    }
+}
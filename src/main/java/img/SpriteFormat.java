@@ -0,0 +1,127 @@
+package img;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory storage format of a sprite frame, chosen per state with the graphics config key
+ * "sprite_format" (argb, argb_pre, indexed, rle or auto). States without the key, and Graphics
+ * built without a format, use DEFAULT (AUTO).
+ *
+ * ARGB        As loaded: 4 bytes/pixel ARGB, or RGB for sprites without alpha.
+ * ARGB_PRE    4 bytes/pixel, premultiplied: Java2D composites it without a per-pixel multiply.
+ * INDEXED     1 byte/pixel with a palette; only for sprites with at most 256 distinct colours,
+ *             others are stored as ARGB_PRE.
+ * RLE         Only non-transparent pixels, as runs per row (see RleImg); drawing skips the
+ *             transparent background instead of blending it.
+ * AUTO        INDEXED when the palette fits, RLE when at least half the pixels are transparent,
+ *             ARGB_PRE otherwise.
+ */
+public enum SpriteFormat {
+    ARGB, ARGB_PRE, INDEXED, RLE, AUTO;
+
+    /** Format used when none is configured. */
+    public static final SpriteFormat DEFAULT = AUTO;
+
+    private static final int MAX_PALETTE = 256;
+
+    /** Parse a config value (case-insensitive); null or empty means DEFAULT. */
+    public static SpriteFormat parse(String name) {
+        if (name == null || name.isEmpty()) return DEFAULT;
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sprite_format: " + name);
+        }
+    }
+
+    /** Convert a loaded sprite to this format. The source image is not modified. */
+    public Img convert(Img src) {
+        BufferedImage bi = src.get();
+        if (bi == null) throw new IllegalStateException("Image not loaded.");
+        switch (this) {
+            case ARGB:
+                return src;
+            case ARGB_PRE:
+                return new BuffImg(copy(bi, BufferedImage.TYPE_INT_ARGB_PRE));
+            case INDEXED: {
+                BufferedImage indexed = toIndexed(bi);
+                return new BuffImg(indexed != null ? indexed : copy(bi, BufferedImage.TYPE_INT_ARGB_PRE));
+            }
+            case RLE:
+                return RleImg.encode(bi);
+            default: {
+                BufferedImage indexed = toIndexed(bi);
+                if (indexed != null) return new BuffImg(indexed);
+                if (transparentPixels(bi) * 2 >= (long) bi.getWidth() * bi.getHeight()) return RleImg.encode(bi);
+                return new BuffImg(copy(bi, BufferedImage.TYPE_INT_ARGB_PRE));
+            }
+        }
+    }
+
+    /** Approximate pixel memory of a sprite in bytes (image data only, no object headers). */
+    public static long bytesOf(Img img) {
+        if (img instanceof RleImg rle) return rle.getByteSize();
+        BufferedImage bi = img.get();
+        if (bi == null) return 0;
+        DataBuffer data = bi.getRaster().getDataBuffer();
+        long bytes = (long) data.getSize() * data.getNumBanks() * DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+        if (bi.getColorModel() instanceof IndexColorModel icm) bytes += 4L * icm.getMapSize();
+        return bytes;
+    }
+
+    private static BufferedImage copy(BufferedImage src, int type) {
+        BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), type);
+        Graphics2D g = dst.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(src, 0, 0, null);
+        g.dispose();
+        return dst;
+    }
+
+    // Exact palette image, or null if the sprite has more than 256 distinct colours
+    private static BufferedImage toIndexed(BufferedImage src) {
+        int w = src.getWidth(), h = src.getHeight();
+        int[] argb = src.getRGB(0, 0, w, h, null, 0, w);
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int px : argb) {
+            // Fully transparent pixels all share one entry, whatever their colour bits
+            int key = (px >>> 24) == 0 ? 0 : px;
+            if (!index.containsKey(key)) {
+                if (index.size() == MAX_PALETTE) return null;
+                index.put(key, index.size());
+            }
+        }
+        int n = Math.max(index.size(), 2); // IndexColorModel needs at least one bit
+        byte[] r = new byte[n], g = new byte[n], b = new byte[n], a = new byte[n];
+        for (Map.Entry<Integer, Integer> e : index.entrySet()) {
+            int px = e.getKey(), i = e.getValue();
+            a[i] = (byte) (px >>> 24);
+            r[i] = (byte) (px >>> 16);
+            g[i] = (byte) (px >>> 8);
+            b[i] = (byte) px;
+        }
+        IndexColorModel icm = new IndexColorModel(8, n, r, g, b, a);
+        BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED, icm);
+        byte[] data = ((DataBufferByte) dst.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < argb.length; i++) {
+            int px = argb[i];
+            data[i] = (byte) (int) index.get((px >>> 24) == 0 ? 0 : px);
+        }
+        return dst;
+    }
+
+    private static long transparentPixels(BufferedImage src) {
+        if (!src.getColorModel().hasAlpha()) return 0;
+        int w = src.getWidth(), h = src.getHeight();
+        long n = 0;
+        for (int px : src.getRGB(0, 0, w, h, null, 0, w)) if ((px >>> 24) == 0) n++;
+        return n;
+    }
+}
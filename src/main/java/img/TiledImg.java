@@ -0,0 +1,107 @@
+package img;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * Read-only background of width x height pixels that repeats one tile, cut off at the right and
+ * bottom edges. Only the tile is kept: drawOn paints the repeats straight into the destination,
+ * so a large board costs one image (the frame it is drawn into) instead of two.
+ */
+public class TiledImg implements Img {
+    private final BufferedImage tile;
+    private final int width, height;
+
+    public TiledImg(BufferedImage tile, int width, int height) {
+        this.tile = tile;
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    /** A new image of the full size with the background painted in, in the tile's image type. */
+    public BufferedImage render() {
+        BufferedImage out = new BufferedImage(width, height, tile.getType());
+        drawOn(new BuffImg(out), 0, 0);
+        return out;
+    }
+
+    /* -------------- loading -------------- */
+
+    @Override
+    public Img read(String path) {
+        throw new IllegalStateException("Tiled backgrounds are built from a loaded tile, see BoardFactory.tiled.");
+    }
+
+    @Override
+    public Img read(String path, Dimension targetSize, boolean keepAspect, Object interpolation) {
+        return read(path);
+    }
+
+    /* -------------- drawing -------------- */
+
+    /**
+     * Paint the background with its top-left corner at (x, y), clipped to other. Pixels are
+     * replaced, not blended, so this also clears whatever was drawn there before.
+     */
+    @Override
+    public void drawOn(Img other, int x, int y) {
+        BufferedImage dstImg = other.get();
+        if (dstImg == null) throw new IllegalStateException("Both images must be loaded.");
+        int x1 = Math.min(x + width, dstImg.getWidth()), y1 = Math.min(y + height, dstImg.getHeight());
+        int tw = tile.getWidth(), th = tile.getHeight();
+
+        WritableRaster dst = dstImg.getRaster();
+        if (dstImg.getType() == tile.getType() && dstImg.getType() != BufferedImage.TYPE_CUSTOM) {
+            // Same layout: copy tile rows raster to raster
+            Raster src = tile.getRaster();
+            for (int ty = y; ty < y1; ty += th) {
+                for (int tx = x; tx < x1; tx += tw) {
+                    int sx = Math.max(0, -tx), sy = Math.max(0, -ty);
+                    int w = Math.min(tw, x1 - tx) - sx, h = Math.min(th, y1 - ty) - sy;
+                    if (w <= 0 || h <= 0) continue;
+                    dst.setRect(tx + sx, ty + sy, src.createChild(sx, sy, w, h, 0, 0, null));
+                }
+            }
+            return;
+        }
+
+        Graphics2D g = dstImg.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.clipRect(x, y, x1 - x, y1 - y);
+        for (int ty = y; ty < y1; ty += th) {
+            for (int tx = x; tx < x1; tx += tw) g.drawImage(tile, tx, ty, null);
+        }
+        g.dispose();
+    }
+
+    @Override
+    public void putText(String txt, int x, int y, float fontSize, Color color, int thickness) {
+        throw new IllegalStateException("Tiled backgrounds are read-only.");
+    }
+
+    @Override
+    public void drawRect(int x1, int y1, int x2, int y2, Color color) {
+        throw new IllegalStateException("Tiled backgrounds are read-only.");
+    }
+
+    /* -------------- display -------------- */
+
+    @Override
+    public void show() {
+        new BuffImg(render()).show();
+    }
+
+    /* -------------- access -------------- */
+
+    /** The tile, not the whole background (see render); callers must not modify it. */
+    @Override
+    public BufferedImage get() {
+        return tile;
+    }
+}
@@ -1,12 +1,15 @@
 package keyBoard;
 
+import board.OccupancyGrid;
 import classes.Command;
 import classes.Pair;
 import enums.EState;
 import piece.Piece;
+import trace.LatencyTracer;
 
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.function.LongSupplier;
 
 public class KeyboardProcessor {
     private final int rows, cols;
@@ -17,8 +20,16 @@ public class KeyboardProcessor {
     private int cursorX1 = 0, cursorY1 = 0;
     private int cursorX2 = 0, cursorY2 = 0;
 
+    // Either a live occupancy view published by the game loop, or a fixed per-cell map (tests)
+    private final OccupancyGrid occupancy;
     private final Map<Integer, Piece>[][] boardState;
 
+    // Clock used to timestamp commands; the game installs its own game_time_ms() clock
+    private LongSupplier clockMs = System::currentTimeMillis;
+
+    // Optional latency tracer (null = tracing disabled)
+    private LatencyTracer tracer;
+
     public KeyboardProcessor(int rows, int cols, Map<String, String> keyMap,
                              BlockingQueue<Command> queue,
                              Map<Integer, Piece>[][] boardState) {
@@ -26,9 +37,29 @@ public class KeyboardProcessor {
         this.cols = cols;
         this.keyMap = keyMap;
         this.queue = queue;
+        this.occupancy = null;
         this.boardState = boardState;
     }
 
+    public KeyboardProcessor(int rows, int cols, Map<String, String> keyMap,
+                             BlockingQueue<Command> queue,
+                             OccupancyGrid occupancy) {
+        this.rows = rows;
+        this.cols = cols;
+        this.keyMap = keyMap;
+        this.queue = queue;
+        this.occupancy = occupancy;
+        this.boardState = null;
+    }
+
+    public void setClock(LongSupplier clockMs) {
+        this.clockMs = clockMs;
+    }
+
+    public void setTracer(LatencyTracer tracer) {
+        this.tracer = tracer;
+    }
+
     public synchronized int[] getCursor(int player) {
         return (player == 1) ? new int[]{cursorX1, cursorY1} : new int[]{cursorX2, cursorY2};
     }
@@ -93,8 +124,10 @@ public class KeyboardProcessor {
                 if (selectedId != null) {
                     List<Object> params = new ArrayList<>();
                     params.add(new Pair(x, y));
-                    Command cmd = new Command(System.currentTimeMillis(), selectedId, EState.JUMP, params);
+                    Command cmd = new Command(clockMs.getAsLong(), selectedId, EState.JUMP, params);
+                    if (tracer != null) tracer.created(cmd);
                     try {
+                        if (tracer != null) tracer.enqueued(cmd);
                         queue.put(cmd);
                         System.out.printf("Player %d issued a JUMP command for %s to [%d,%d]%n", player, selectedId, x, y);
                     } catch (InterruptedException e) {
@@ -110,12 +143,16 @@ public class KeyboardProcessor {
 
     }
 
+    // Accepts both "W..." ids and game ids carrying the side as second letter (e.g. "PW_(6,0)")
     private boolean belongsToPlayer(String pieceId, int player) {
-        return pieceId != null && ((player == 1 && pieceId.startsWith("W")) || (player == 2 && pieceId.startsWith("B")));
+        if (pieceId == null || pieceId.isEmpty()) return false;
+        char side = player == 1 ? 'W' : 'B';
+        return pieceId.charAt(0) == side || (pieceId.length() > 1 && pieceId.charAt(1) == side);
     }
 
     // IMPORTANT CHANGE HERE: Add 'player' parameter
     private Piece getPieceAt(int x, int y, int player) {
+        if (occupancy != null) return occupancy.pieceAt(x, y, player);
         if (x >= 0 && x < rows && y >= 0 && y < cols && boardState[x][y] != null) {
             // Retrieve the piece specifically for the given player at this cell
             return boardState[x][y].getOrDefault(player, null);
@@ -0,0 +1,71 @@
+package net;
+
+import game.FrameSnapshot;
+import game.Game;
+
+/**
+ * Encodes each tick of one game once and fans the shared frames out to any number of
+ * connections. Players and spectators of a match, or the subscribers of a SpectatorHub, all
+ * read the same pooled buffers; nothing is encoded or copied per receiver.
+ */
+final class Broadcaster {
+    // Spectators overflowing their backlog this many times in a row are disconnected
+    static final int MAX_RESYNCS = 3;
+
+    // Where queued connections are handed to for writing, and where hopeless ones go
+    interface Sink {
+        void requestWrite(Connection c);
+
+        void requestDrop(Connection c);
+
+        void wakeup();
+    }
+
+    private final StateEncoder encoder;
+    private final FramePool deltaPool;
+    private final FramePool keyframePool;
+
+    Broadcaster(Game game, int keyframeInterval) {
+        this.encoder = new StateEncoder(game, keyframeInterval);
+        this.deltaPool = new FramePool(encoder.maxDeltaBytes());
+        this.keyframePool = new FramePool(encoder.maxKeyframeBytes());
+    }
+
+    // Encode a published snapshot of the game; calls must follow the game's ticks in order
+    void broadcast(FrameSnapshot snap, boolean over, Iterable<Connection> targets, Sink sink) {
+        // The delta is encoded every tick, even without receivers, so the baseline stays current
+        SharedFrame delta = deltaPool.acquire(encoder.maxDeltaBytes());
+        encoder.encodeDelta(delta.buffer(), snap, over);
+        delta.seal();
+
+        // One pass over the targets: a connection may join from the selector thread at any time,
+        // so whether a keyframe is needed is only known per connection, and it is encoded the
+        // first time one is
+        boolean everyone = encoder.isKeyframeDue();
+        SharedFrame key = null;
+        boolean any = false;
+        for (Connection c : targets) {
+            if (c.closed) continue;
+            if (everyone || c.needsKeyframe) {
+                if (key == null) {
+                    key = keyframePool.acquire(encoder.maxKeyframeBytes());
+                    encoder.encodeKeyframe(key.buffer(), over);
+                    key.seal();
+                }
+                c.enqueue(key, true);
+            } else {
+                c.enqueue(delta, false);
+            }
+            // Players are only ever resynced; a spectator that never catches up is cut off
+            if (c.player == 0 && c.getResyncs() > MAX_RESYNCS) {
+                sink.requestDrop(c);
+            } else {
+                sink.requestWrite(c);
+            }
+            any = true;
+        }
+        delta.release();
+        if (key != null) key.release();
+        if (any) sink.wakeup();
+    }
+}
@@ -0,0 +1,145 @@
+package net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server side of one player or spectator socket. Owns no thread: reads and writes happen on a
+ * selector thread, while ticks only append shared frames to the outbound queue.
+ */
+final class Connection {
+    // Backlog (in ticks) after which a connection is considered slow and resynced from a keyframe
+    static final int MAX_QUEUED_FRAMES = 16;
+
+    // Frames handed to the socket in one gathering write
+    static final int MAX_GATHER = 8;
+
+    final SocketChannel channel;
+    SelectionKey key;
+
+    // Small direct buffer holding partially received client frames
+    final ByteBuffer in = ByteBuffer.allocateDirect(Protocol.MAX_CLIENT_FRAME * 2);
+
+    // Control replies (WELCOME, REJECT) – written before any queued frame
+    final Queue<ByteBuffer> control = new ConcurrentLinkedQueue<>();
+    // Shared frames waiting to be written (appended by ticks, drained by the selector thread)
+    private final Queue<SharedFrame> frames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Batch being written: frames [first, count) of held, with their views
+    private final SharedFrame[] held = new SharedFrame[MAX_GATHER];
+    private final ByteBuffer[] views = new ByteBuffer[MAX_GATHER];
+    private int first, count;
+
+    volatile Match match;
+    volatile int player;
+    volatile boolean closed;
+
+    // JOIN received, waiting for its new match's game to be built (selector thread only)
+    boolean joining;
+
+    // Deltas are useless until this connection has a keyframe (new joiner or dropped frames)
+    volatile boolean needsKeyframe = true;
+
+    // Backlog overflows since the socket last drained completely
+    private final AtomicInteger resyncs = new AtomicInteger();
+
+    Connection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Called from a match tick. When the socket falls too far behind, queued frames are dropped
+     * and the connection waits for a keyframe before it accepts deltas again.
+     */
+    void enqueue(SharedFrame frame, boolean keyframe) {
+        if (closed) return;
+        if (keyframe) {
+            needsKeyframe = false;
+        } else if (needsKeyframe) {
+            return;
+        }
+        if (queued.get() >= MAX_QUEUED_FRAMES) {
+            resyncs.incrementAndGet();
+            dropQueued();
+            if (!keyframe) {
+                needsKeyframe = true;
+                return;
+            }
+        }
+        queued.incrementAndGet();
+        frames.add(frame.retain());
+    }
+
+    private void dropQueued() {
+        SharedFrame f;
+        while ((f = frames.poll()) != null) {
+            queued.decrementAndGet();
+            f.release();
+        }
+    }
+
+    // Resyncs in a row without ever catching up; spectators past a limit get disconnected
+    int getResyncs() { return resyncs.get(); }
+
+    boolean hasPendingOutput() {
+        return count > first || !control.isEmpty() || !frames.isEmpty();
+    }
+
+    /**
+     * Write as much as the socket accepts. Queued frames go out in batches through one gathering
+     * write over their shared buffers.
+     *
+     * @return true when everything queued has been written
+     */
+    boolean flush() throws IOException {
+        ByteBuffer c;
+        while ((c = control.peek()) != null) {
+            channel.write(c);
+            if (c.hasRemaining()) return false;
+            control.poll();
+        }
+        while (true) {
+            if (first == count) {
+                first = count = 0;
+                SharedFrame f;
+                while (count < MAX_GATHER && (f = frames.poll()) != null) {
+                    queued.decrementAndGet();
+                    held[count] = f;
+                    views[count++] = f.view();
+                }
+                if (count == 0) {
+                    resyncs.set(0);
+                    return true;
+                }
+            }
+            channel.write(views, first, count - first);
+            while (first < count && !views[first].hasRemaining()) {
+                held[first].release();
+                held[first] = null;
+                views[first++] = null;
+            }
+            if (first < count) return false;
+        }
+    }
+
+    void close() {
+        closed = true;
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        dropQueued();
+        for (; first < count; first++) {
+            held[first].release();
+            held[first] = null;
+            views[first] = null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of direct frame buffers, so encoding a tick does not allocate once the pool is warm.
+ */
+public final class FramePool {
+    private final Queue<SharedFrame> free = new ConcurrentLinkedQueue<>();
+    private final int defaultBytes;
+
+    public FramePool(int defaultBytes) {
+        this.defaultBytes = defaultBytes;
+    }
+
+    // A cleared frame of at least minBytes capacity; seal it once encoded
+    public SharedFrame acquire(int minBytes) {
+        SharedFrame f;
+        while ((f = free.poll()) != null) {
+            if (f.capacity() >= minBytes) return f;
+            // too small for this game: drop it and let the GC reclaim it
+        }
+        return new SharedFrame(this, ByteBuffer.allocateDirect(Math.max(minBytes, defaultBytes)));
+    }
+
+    void recycle(SharedFrame f) {
+        free.offer(f);
+    }
+}
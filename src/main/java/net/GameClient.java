@@ -0,0 +1,208 @@
+package net;
+
+import classes.Command;
+import game.Game;
+import game.GameFactory;
+import piece.Piece;
+import ui.GameWindow;
+
+import javax.swing.SwingUtilities;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Client for GameServer. It keeps a local mirror Game (built from the same piece resources as the
+ * server) in sync with the server's KEYFRAME and DELTA frames, and forwards the commands produced by the local
+ * keyboard processors instead of executing them locally.
+ */
+public class GameClient implements Closeable {
+    private final Game mirror;
+    private final SocketChannel channel;
+    private final Consumer<Runnable> applyOn;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(Protocol.MAX_CLIENT_FRAME);
+    private final CountDownLatch answered = new CountDownLatch(1);
+    private final StateDecoder decoder;
+
+    private volatile int player;
+    private volatile boolean welcomed;
+    private volatile boolean gameOver;
+    private volatile String rejectReason;
+    private volatile Runnable onUpdate = () -> {};
+    private Thread reader, forwarder;
+
+    /**
+     * @param mirror  local copy of the game, built from the same layout as the server's
+     * @param applyOn executor for state updates, e.g. SwingUtilities::invokeLater when a window shows the mirror
+     */
+    public GameClient(Game mirror, InetSocketAddress server, Consumer<Runnable> applyOn) throws IOException {
+        this.mirror = mirror;
+        this.applyOn = applyOn;
+        this.decoder = new StateDecoder(mirror);
+        this.channel = SocketChannel.open(server);
+        channel.socket().setTcpNoDelay(true);
+        reader = new Thread(this::readLoop, "game-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public void join(int matchId, int player) throws IOException {
+        synchronized (out) {
+            out.clear();
+            Protocol.writeJoin(out, matchId, player);
+            writeOut();
+        }
+    }
+
+    // Wait for the server to accept the join (player 0 = spectator); false on timeout or rejection
+    public boolean awaitWelcome(long timeoutMs) throws InterruptedException {
+        return answered.await(timeoutMs, TimeUnit.MILLISECONDS) && welcomed;
+    }
+
+    public String getRejectReason() { return rejectReason; }
+    public int getPlayer() { return player; }
+    public boolean isGameOver() { return gameOver; }
+    public Game getMirror() { return mirror; }
+
+    // Runs (on the apply executor) after each applied state frame
+    public void setOnUpdate(Runnable onUpdate) {
+        this.onUpdate = onUpdate;
+    }
+
+    // Send one command; only the piece, type and cells travel, the server stamps its own time
+    public void send(Command cmd) throws IOException {
+        Piece piece = mirror.pieceById.get(cmd.pieceId);
+        int slot = mirror.slotOf(piece);
+        if (slot < 0) return;
+        synchronized (out) {
+            out.clear();
+            Protocol.writeCommand(out, slot, cmd.type, cmd.params);
+            writeOut();
+        }
+    }
+
+    // Forward everything the local keyboard processors put on the mirror's input queue
+    public void forwardLocalInput() {
+        forwarder = new Thread(() -> {
+            try {
+                while (channel.isOpen()) {
+                    send(mirror.userInputQueue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.out.printf("Connection lost: %s%n", e.getMessage());
+            }
+        }, "game-client-forwarder");
+        forwarder.setDaemon(true);
+        forwarder.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (forwarder != null) forwarder.interrupt();
+        channel.close();
+    }
+
+    private void writeOut() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                int len;
+                while ((len = Protocol.completeFrameLength(in)) >= 0) {
+                    int start = in.position();
+                    ByteBuffer payload = ByteBuffer.allocate(len - Protocol.HEADER_BYTES);
+                    payload.put(in.duplicate().position(start + Protocol.HEADER_BYTES).limit(start + len)).flip();
+                    handle(in.get(start + 4), payload);
+                    in.position(start + len);
+                }
+                if (in.position() == 0 && in.limit() == in.capacity()) {
+                    // a single frame larger than the buffer: grow it
+                    ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+                    bigger.put(in);
+                    in = bigger;
+                } else {
+                    in.compact();
+                }
+            }
+        } catch (IOException e) {
+            if (channel.isOpen()) System.out.printf("Connection lost: %s%n", e.getMessage());
+        } finally {
+            answered.countDown();
+        }
+    }
+
+    private void handle(byte type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.WELCOME -> {
+                payload.getInt();
+                player = payload.get();
+                welcomed = true;
+                answered.countDown();
+            }
+            case Protocol.REJECT -> {
+                byte[] reason = new byte[payload.get() & 0xFF];
+                payload.get(reason);
+                rejectReason = new String(reason);
+                answered.countDown();
+            }
+            case Protocol.KEYFRAME, Protocol.DELTA -> applyOn.accept(() -> applyState(type, payload));
+            default -> { /* unknown frames are ignored for forward compatibility */ }
+        }
+    }
+
+    private void applyState(byte type, ByteBuffer payload) {
+        if (!decoder.apply(type, payload)) return; // waiting for a keyframe
+        gameOver = decoder.isGameOver();
+        // Advance positions locally so moves in flight show where they are now
+        long now = mirror.game_time_ms();
+        for (Piece p : mirror.pieces) p.state.physics.update(now);
+        mirror.occupancy.publish(mirror.pieces);
+        mirror.threats.update(mirror.pieces);
+        mirror.readiness.update(mirror.pieces);
+        mirror.publishSnapshot(now);
+        onUpdate.run();
+    }
+
+    /**
+     * Play a remote match: GameClient host port matchId player(1|2)
+     */
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7777;
+        int matchId = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int player = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        URI uri = GameClient.class.getClassLoader().getResource("pieces").toURI();
+        Path piecesPath = Paths.get(uri);
+        Game mirror = GameFactory.createGame(piecesPath);
+        mirror.startUserInputThread();
+
+        GameClient client = new GameClient(mirror, new InetSocketAddress(host, port), SwingUtilities::invokeLater);
+        client.join(matchId, player);
+        if (!client.awaitWelcome(5000)) {
+            System.out.println("Join failed: " + client.getRejectReason());
+            client.close();
+            return;
+        }
+        client.forwardLocalInput();
+        SwingUtilities.invokeLater(() -> {
+            GameWindow window = new GameWindow(mirror, player);
+            client.setOnUpdate(window::repaint);
+        });
+    }
+}
@@ -0,0 +1,372 @@
+package net;
+
+import board.OccupancyGrid;
+import classes.Command;
+import game.Game;
+import game.GameFactory;
+import piece.Piece;
+import piece.PieceFactory;
+import piece.PieceLibraryWatcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking multiplayer server hosting any number of matches in one process.
+ *
+ * A single selector thread accepts clients and performs all socket I/O; matches are ticked on a
+ * small shared scheduler. Clients JOIN a match id as player 1 (white) or 2 (black) and then send
+ * COMMAND frames, which land on that match's Game.userInputQueue; joining as player 0 spectates.
+ * After every tick the match pushes one shared DELTA (or KEYFRAME) frame to all of its clients.
+ *
+ * A match exists while it has clients: the first JOIN of a new id has its game built on a
+ * separate thread (the selector thread never waits for it), and the match is dropped when its
+ * last client leaves, whether or not the game is over.
+ */
+public class GameServer implements Closeable {
+    private final Supplier<Game> gameFactory;
+    private final long tickMs;
+    private final ScheduledExecutorService tickPool;
+
+    private final Map<Integer, Match> matches = new ConcurrentHashMap<>();
+    private final Queue<Connection> wantWrite = new ConcurrentLinkedQueue<>();
+    private final Queue<Connection> wantDrop = new ConcurrentLinkedQueue<>();
+
+    // Games being built for new match ids, with the joins waiting for them (selector thread only)
+    private record PendingJoin(Connection c, int player) {}
+    private record Built(int matchId, Game game) {}
+    private final ExecutorService builder;
+    private final Map<Integer, List<PendingJoin>> building = new HashMap<>();
+    private final Queue<Built> built = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread ioThread;
+    private volatile boolean running;
+
+    /**
+     * @param gameFactory creates a fresh game for every new match id
+     * @param tickMs      simulation tick period of every match
+     * @param tickThreads threads shared by all matches for ticking
+     */
+    public GameServer(Supplier<Game> gameFactory, long tickMs, int tickThreads) {
+        this.gameFactory = gameFactory;
+        this.tickMs = tickMs;
+        this.tickPool = Executors.newScheduledThreadPool(tickThreads, r -> {
+            Thread t = new Thread(r, "match-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        this.builder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "match-builder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Bind (port 0 picks a free port) and start the selector thread
+    public void start(InetSocketAddress bindAddress) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(bindAddress);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        ioThread = new Thread(this::ioLoop, "game-server-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Game hosted under the given match id, or null
+    public Game getGame(int matchId) {
+        Match m = matches.get(matchId);
+        return m == null ? null : m.game;
+    }
+
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) selector.wakeup();
+        try {
+            if (ioThread != null) ioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Match m : matches.values()) m.stop();
+        builder.shutdownNow();
+        tickPool.shutdownNow();
+        if (serverChannel != null) serverChannel.close();
+        if (selector != null) {
+            for (SelectionKey k : selector.keys()) {
+                if (k.attachment() instanceof Connection) ((Connection) k.attachment()).close();
+            }
+            selector.close();
+        }
+    }
+
+    /* ---------------- called from match ticks ---------------- */
+
+    void requestWrite(Connection c) {
+        wantWrite.add(c);
+    }
+
+    void requestDrop(Connection c) {
+        wantDrop.add(c);
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    /* ---------------- selector thread ---------------- */
+
+    private void ioLoop() {
+        try {
+            while (running) {
+                selector.select();
+                startBuiltMatches();
+                registerPendingWrites();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) write(c);
+                    } catch (IOException | RuntimeException e) {
+                        disconnect(c);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) System.out.printf("Game server stopped: %s%n", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = serverChannel.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            Connection c = new Connection(ch);
+            c.key = ch.register(selector, SelectionKey.OP_READ, c);
+        }
+    }
+
+    private void registerPendingWrites() {
+        Connection c;
+        while ((c = wantDrop.poll()) != null) disconnect(c);
+        while ((c = wantWrite.poll()) != null) {
+            if (c.closed || !c.key.isValid()) continue;
+            try {
+                write(c);
+            } catch (IOException e) {
+                disconnect(c);
+            }
+        }
+    }
+
+    // Try to flush right away; keep OP_WRITE interest only while the socket is backed up
+    private void write(Connection c) throws IOException {
+        boolean done = c.flush();
+        int ops = c.key.interestOps();
+        c.key.interestOps(done ? ops & ~SelectionKey.OP_WRITE : ops | SelectionKey.OP_WRITE);
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            disconnect(c);
+            return;
+        }
+        c.in.flip();
+        int len;
+        while ((len = Protocol.completeFrameLength(c.in)) >= 0) {
+            if (len > Protocol.MAX_CLIENT_FRAME) throw new IOException("Frame too large");
+            int start = c.in.position();
+            byte type = c.in.get(start + 4);
+            ByteBuffer payload = c.in.duplicate();
+            payload.position(start + Protocol.HEADER_BYTES).limit(start + len);
+            handle(c, type, payload);
+            c.in.position(start + len);
+        }
+        if (c.in.remaining() > Protocol.MAX_CLIENT_FRAME) throw new IOException("Frame too large");
+        c.in.compact();
+    }
+
+    private void handle(Connection c, byte type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case Protocol.JOIN -> join(c, payload.getInt(), payload.get());
+            case Protocol.COMMAND -> {
+                Match m = c.match;
+                if (m == null || m.isOver()) return;
+                Command cmd = Protocol.readCommand(payload, m.game, m.game.game_time_ms());
+                if (cmd == null) return;
+                // Players may only command their own pieces
+                Piece piece = m.game.pieceById.get(cmd.pieceId);
+                if (OccupancyGrid.playerOf(piece) != c.player) return;
+                m.game.userInputQueue.offer(cmd);
+            }
+            default -> throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    private void join(Connection c, int matchId, int player) throws IOException {
+        if (c.match != null || c.joining || player < 0 || player > 2) {
+            reply(c, "bad join");
+            return;
+        }
+        Match m = matches.get(matchId);
+        if (m != null) {
+            seat(c, m, player);
+            return;
+        }
+
+        // New match: build its game off the selector thread, seat everyone who asked when it is ready
+        c.joining = true;
+        List<PendingJoin> waiting = building.get(matchId);
+        if (waiting != null) {
+            waiting.add(new PendingJoin(c, player));
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(new PendingJoin(c, player));
+        building.put(matchId, waiting);
+        builder.execute(() -> {
+            Game game = null;
+            try {
+                game = gameFactory.get();
+            } catch (RuntimeException e) {
+                System.out.printf("Match %d could not be created: %s%n", matchId, e);
+            }
+            built.add(new Built(matchId, game));
+            selector.wakeup();
+        });
+    }
+
+    // Start the matches whose games are ready and seat the joins still waiting for them
+    private void startBuiltMatches() {
+        Built b;
+        while ((b = built.poll()) != null) {
+            List<PendingJoin> waiting = building.remove(b.matchId());
+            List<PendingJoin> open = new ArrayList<>();
+            for (PendingJoin j : waiting) {
+                j.c().joining = false;
+                if (!j.c().closed) open.add(j);
+            }
+            if (open.isEmpty()) continue; // everyone left while it was built: no match
+            Match m = null;
+            if (b.game() != null) {
+                m = new Match(b.matchId(), b.game(), this);
+                m.start(tickPool, tickMs);
+                matches.put(m.id, m);
+            }
+            for (PendingJoin j : open) {
+                try {
+                    if (m == null) reply(j.c(), "match unavailable");
+                    else seat(j.c(), m, j.player());
+                } catch (IOException e) {
+                    disconnect(j.c());
+                }
+            }
+            if (m != null && m.clients.isEmpty()) removeMatch(m);
+        }
+    }
+
+    private void seat(Connection c, Match m, int player) throws IOException {
+        synchronized (m) {
+            if (m.isSeatTaken(player)) {
+                reply(c, "seat taken");
+                return;
+            }
+            c.match = m;
+            c.player = player;
+            ByteBuffer welcome = ByteBuffer.allocate(16);
+            Protocol.writeWelcome(welcome, m.id, player, m.game.slotCount());
+            c.control.add(welcome.flip());
+            m.clients.add(c);
+        }
+        write(c);
+    }
+
+    private void reply(Connection c, String reason) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Protocol.HEADER_BYTES + 1 + 255);
+        Protocol.writeReject(buf, reason);
+        c.control.add(buf.flip());
+        write(c);
+    }
+
+    private void disconnect(Connection c) {
+        c.close();
+        Match m = c.match;
+        if (m == null) return;
+        m.clients.remove(c);
+        // Nobody left to play or watch: stop ticking it, over or not
+        if (m.clients.isEmpty()) removeMatch(m);
+    }
+
+    private void removeMatch(Match m) {
+        m.stop();
+        matches.remove(m.id, m);
+    }
+
+    /**
+     * Host matches from the bundled piece resources: GameServer [port] [tickMs] [tickThreads]
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        long tickMs = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        URI uri = GameServer.class.getClassLoader().getResource("pieces").toURI();
+        Path piecesPath = Paths.get(uri);
+        // Pieces are loaded once; every match clones them
+        PieceFactory library = GameFactory.loadLibrary(piecesPath);
+        List<String> layout = GameFactory.readLayout(piecesPath);
+
+        // Run with -Dchess.watchPieces=true to pick up edited piece definitions in new matches
+        if (Boolean.getBoolean("chess.watchPieces")) {
+            new PieceLibraryWatcher(library, piecesPath);
+            System.out.printf("Watching %s for piece changes%n", piecesPath);
+        }
+
+        GameServer server = new GameServer(() -> GameFactory.createGame(library, layout), tickMs, threads);
+        server.start(new InetSocketAddress(port));
+        System.out.printf("Game server listening on port %d%n", server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,70 @@
+package net;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process RollbackSession transport for two clients on one machine, with artificial latency:
+ * an input sent at time t arrives at t + latencyMs, plus up to jitterMs more, by the given clock.
+ * Inputs still arrive in the order they were sent, as over a TCP connection. For tests and for
+ * trying out how play feels at a given ping.
+ */
+public class LoopbackTransport implements RollbackSession.Transport {
+    private record InFlight(long arriveAtMs, RollbackSession.Input input) {}
+
+    private final LongSupplier clock;
+    private final long latencyMs, jitterMs;
+    private final Random rnd;
+    private LoopbackTransport peer;
+
+    // Inputs on their way to this end, in arrival order
+    private final ArrayDeque<InFlight> inbox = new ArrayDeque<>();
+
+    private LoopbackTransport(LongSupplier clock, long latencyMs, long jitterMs, Random rnd) {
+        this.clock = clock;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.rnd = rnd;
+    }
+
+    /**
+     * Two connected ends.
+     *
+     * @param clock Time in ms that decides when inputs arrive, e.g. the game clock of a test
+     * @param seed  Seed of the jitter, so a run can be repeated
+     */
+    public static LoopbackTransport[] pair(LongSupplier clock, long latencyMs, long jitterMs, long seed) {
+        if (latencyMs < 0 || jitterMs < 0) throw new IllegalArgumentException("latency and jitter must be >= 0");
+        Random rnd = new Random(seed);
+        LoopbackTransport a = new LoopbackTransport(clock, latencyMs, jitterMs, rnd);
+        LoopbackTransport b = new LoopbackTransport(clock, latencyMs, jitterMs, rnd);
+        a.peer = b;
+        b.peer = a;
+        return new LoopbackTransport[]{a, b};
+    }
+
+    @Override
+    public void send(RollbackSession.Input input) {
+        long delay;
+        synchronized (rnd) {
+            delay = latencyMs + (jitterMs > 0 ? (long) (rnd.nextDouble() * (jitterMs + 1)) : 0);
+        }
+        peer.deliver(clock.getAsLong() + delay, input);
+    }
+
+    private synchronized void deliver(long arriveAtMs, RollbackSession.Input input) {
+        InFlight last = inbox.peekLast();
+        // Never overtake an earlier input
+        if (last != null && last.arriveAtMs() > arriveAtMs) arriveAtMs = last.arriveAtMs();
+        inbox.addLast(new InFlight(arriveAtMs, input));
+    }
+
+    @Override
+    public synchronized RollbackSession.Input poll() {
+        InFlight next = inbox.peekFirst();
+        if (next == null || next.arriveAtMs() > clock.getAsLong()) return null;
+        inbox.removeFirst();
+        return next.input();
+    }
+}
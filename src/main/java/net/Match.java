@@ -0,0 +1,82 @@
+package net;
+
+import game.Game;
+import piece.Piece;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One hosted game. It is ticked at a fixed rate on the server's shared tick pool and,
+ * after every tick, encodes one DELTA frame (and, when needed, one KEYFRAME) that all its
+ * players and spectators share.
+ */
+final class Match implements Broadcaster.Sink {
+    final int id;
+    final Game game;
+    final List<Connection> clients = new CopyOnWriteArrayList<>();
+
+    private final GameServer server;
+    private final Broadcaster broadcaster;
+    private ScheduledFuture<?> ticker;
+    private volatile boolean over;
+
+    Match(int id, Game game, GameServer server) {
+        this.id = id;
+        this.game = game;
+        this.server = server;
+        this.broadcaster = new Broadcaster(game, StateEncoder.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    void start(ScheduledExecutorService tickPool, long tickMs) {
+        long startMs = game.game_time_ms();
+        for (Piece p : game.pieces) p.reset(startMs);
+        ticker = tickPool.scheduleAtFixedRate(this::tick, 0, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (ticker != null) ticker.cancel(false);
+    }
+
+    boolean isOver() { return over; }
+
+    // Player seat taken by a live connection? Spectator seats (0) never are
+    boolean isSeatTaken(int player) {
+        if (player == 0) return false;
+        for (Connection c : clients) {
+            if (c.player == player && !c.closed) return true;
+        }
+        return false;
+    }
+
+    private void tick() {
+        try {
+            long now = game.game_time_ms();
+            game._tick(now);
+            over = game._is_win();
+            broadcaster.broadcast(game.snapshot(), over, clients, this);
+        } catch (RuntimeException e) {
+            System.out.printf("Match %d stopped: %s%n", id, e);
+            over = true;
+        }
+        if (over) stop();
+    }
+
+    @Override
+    public void requestWrite(Connection c) {
+        server.requestWrite(c);
+    }
+
+    @Override
+    public void requestDrop(Connection c) {
+        server.requestDrop(c);
+    }
+
+    @Override
+    public void wakeup() {
+        server.wakeup();
+    }
+}
@@ -0,0 +1,141 @@
+package net;
+
+import classes.Command;
+import classes.Pair;
+import classes.State;
+import enums.EState;
+import game.Game;
+import physics.IdlePhysics.MovePhysics;
+import piece.Piece;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary framing shared by GameServer and GameClient.
+ *
+ * Every frame is [u32 payload length][u8 type][payload], big-endian.
+ * Pieces are referred to by their Game slot, which both ends derive from the same board layout.
+ */
+public final class Protocol {
+    // client -> server
+    public static final byte JOIN = 1;      // u32 matchId, u8 player (1 = white, 2 = black)
+    public static final byte COMMAND = 2;   // u8 EState ordinal, u16 slot, u8 n, n x (i16 row, i16 col)
+
+    // server -> client
+    public static final byte WELCOME = 10;  // u32 matchId, u8 player, u16 slot count
+    public static final byte KEYFRAME = 11; // full state, see StateEncoder
+    public static final byte REJECT = 12;   // u8 reason length, reason bytes
+    public static final byte DELTA = 13;    // changes since the previous tick, see StateEncoder
+
+    public static final int HEADER_BYTES = 5;
+
+    // Largest frame a client may send; anything bigger is a protocol error
+    public static final int MAX_CLIENT_FRAME = 256;
+
+    // KEYFRAME / DELTA flags
+    public static final int FLAG_GAME_OVER = 1;
+
+    private static final EState[] STATES = EState.values();
+
+    private Protocol() {}
+
+    /* ---------------- framing ---------------- */
+
+    // Reserve a header at the current position; finish with endFrame once the payload is written
+    public static int beginFrame(ByteBuffer buf, byte type) {
+        int start = buf.position();
+        buf.putInt(0);
+        buf.put(type);
+        return start;
+    }
+
+    public static void endFrame(ByteBuffer buf, int start) {
+        buf.putInt(start, buf.position() - start - HEADER_BYTES);
+    }
+
+    // Length of the complete frame at the buffer position, or -1 if more bytes are needed
+    public static int completeFrameLength(ByteBuffer buf) {
+        if (buf.remaining() < HEADER_BYTES) return -1;
+        int len = buf.getInt(buf.position());
+        if (len < 0) throw new IllegalStateException("Negative frame length");
+        return buf.remaining() >= HEADER_BYTES + len ? HEADER_BYTES + len : -1;
+    }
+
+    /* ---------------- client messages ---------------- */
+
+    public static void writeJoin(ByteBuffer buf, int matchId, int player) {
+        int start = beginFrame(buf, JOIN);
+        buf.putInt(matchId);
+        buf.put((byte) player);
+        endFrame(buf, start);
+    }
+
+    public static void writeCommand(ByteBuffer buf, int slot, EState type, List<Object> params) {
+        int start = beginFrame(buf, COMMAND);
+        buf.put((byte) type.ordinal());
+        buf.putShort((short) slot);
+        buf.put((byte) params.size());
+        for (Object o : params) {
+            Pair cell = (Pair) o;
+            buf.putShort((short) cell.r);
+            buf.putShort((short) cell.c);
+        }
+        endFrame(buf, start);
+    }
+
+    /**
+     * Decodes a COMMAND payload into a game command stamped with the receiver's game time.
+     *
+     * @return the command, or null if the payload is malformed or the slot is unknown
+     */
+    public static Command readCommand(ByteBuffer payload, Game game, long nowMs) {
+        if (payload.remaining() < 4) return null;
+        int ordinal = payload.get() & 0xFF;
+        if (ordinal >= STATES.length) return null;
+        EState type = STATES[ordinal];
+        int slot = payload.getShort() & 0xFFFF;
+        int n = payload.get() & 0xFF;
+        if (payload.remaining() != n * 4) return null;
+        Piece piece = game.pieceAtSlot(slot);
+        List<Object> params = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            params.add(new Pair(payload.getShort(), payload.getShort()));
+        }
+        return piece == null ? null : new Command(nowMs, piece.id, type, params);
+    }
+
+    /* ---------------- server messages ---------------- */
+
+    public static void writeWelcome(ByteBuffer buf, int matchId, int player, int slots) {
+        int start = beginFrame(buf, WELCOME);
+        buf.putInt(matchId);
+        buf.put((byte) player);
+        buf.putShort((short) slots);
+        endFrame(buf, start);
+    }
+
+    public static void writeReject(ByteBuffer buf, String reason) {
+        byte[] bytes = reason.getBytes(StandardCharsets.UTF_8);
+        int start = beginFrame(buf, REJECT);
+        buf.put((byte) Math.min(255, bytes.length));
+        buf.put(bytes, 0, Math.min(255, bytes.length));
+        endFrame(buf, start);
+    }
+
+    // Force a piece into the given state unless it is already there with the same timing
+    static void applyPieceState(Piece p, String stateName, Pair start, Pair end, long startMs) {
+        State target = p.state.findState(stateName);
+        if (target == null) return;
+        if (target == p.state && target.physics.getStartMs() == startMs
+                && start.equals(target.physics.getStartCell()) && end.equals(target.physics.getEndCell())) {
+            return;
+        }
+        boolean moving = target.physics instanceof MovePhysics;
+        target.reset(new Command(startMs, p.id, moving ? EState.MOVE : EState.IDLE,
+                moving ? List.of(start, end) : List.of(start)));
+        p.state = target;
+    }
+}
@@ -0,0 +1,190 @@
+package net;
+
+import classes.Command;
+import game.Game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rollback netcode for two peers that both run the whole game: each side simulates ahead on its
+ * own input and a prediction of the other side's, so neither waits for the network, and corrects
+ * itself when the real input turns out to differ.
+ *
+ * Time is counted in frames of tickMs; frame f is the tick at game time f * tickMs, and its input
+ * is the commands both players issued for it, applied white's first. Every frame each side sends
+ * its own input, possibly none, to the other. The other side's input is predicted to be no command,
+ * since commands are one-off moves that cannot be repeated like a held key. When a frame's remote
+ * input arrives after the frame was simulated with a wrong guess, the game goes back to the state
+ * saved after the frame before it (see Game.saveState) and plays the frames since again with the
+ * real input, all before the next frame.
+ *
+ * The prediction window is bounded: a side never runs more than maxRollbackFrames frames past the
+ * last frame it has the other's input for. That bounds the frames re-simulated in one go and the
+ * states kept. At the limit advanceFrame waits (returns false) until input arrives, so the peers
+ * cannot drift apart when the network stalls.
+ *
+ * Game thread only.
+ */
+public class RollbackSession {
+    // Frames a side may predict ahead by default: 240 ms at 20 ms ticks
+    public static final int DEFAULT_MAX_ROLLBACK_FRAMES = 12;
+
+    /** The commands one player issued for one frame, possibly none. Sent every frame, in frame order. */
+    public record Input(int player, long frame, List<Command> commands) {}
+
+    /** Delivers the inputs of one side to the other, in order (see LoopbackTransport). */
+    public interface Transport {
+        void send(Input input);
+
+        // Next input that has arrived, or null
+        Input poll();
+    }
+
+    private final Game game;
+    private final int player;
+    private final long tickMs;
+    private final Transport transport;
+    private final int maxRollbackFrames;
+
+    // Next frame to simulate, and the last frame whose remote input has arrived
+    private long frame;
+    private long confirmedRemote = -1;
+
+    // Inputs of frames that may still be simulated (again), by frame
+    private final Map<Long, List<Command>> localInputs = new HashMap<>();
+    private final Map<Long, List<Command>> remoteInputs = new HashMap<>();
+
+    // Commands issued since the last frame; they go into the next one
+    private final List<Command> pendingLocal = new ArrayList<>();
+
+    // State after frame f at (f + 1) % length, with the frame it belongs to; frame -1 is the start
+    private final Game.SavedState[] saves;
+    private final long[] saveFrame;
+
+    // First frame simulated with a wrong prediction, Long.MAX_VALUE if none
+    private long rollbackFrom = Long.MAX_VALUE;
+
+    private long rollbacks, resimulatedFrames, stalls;
+
+    public RollbackSession(Game game, int player, long tickMs, Transport transport) {
+        this(game, player, tickMs, transport, DEFAULT_MAX_ROLLBACK_FRAMES);
+    }
+
+    /**
+     * @param game              A new game, not ticked yet; the other side starts from the same layout.
+     *                          Attach its DesyncDetector, if any, before creating the session
+     * @param player            1 = white, 2 = black
+     * @param maxRollbackFrames How many frames to predict at most, and so re-simulate in one go
+     */
+    public RollbackSession(Game game, int player, long tickMs, Transport transport, int maxRollbackFrames) {
+        if (player != 1 && player != 2) throw new IllegalArgumentException("player must be 1 or 2: " + player);
+        if (tickMs <= 0) throw new IllegalArgumentException("tickMs must be positive: " + tickMs);
+        if (maxRollbackFrames < 1) throw new IllegalArgumentException("maxRollbackFrames must be >= 1");
+        this.game = game;
+        this.player = player;
+        this.tickMs = tickMs;
+        this.transport = transport;
+        this.maxRollbackFrames = maxRollbackFrames;
+        this.saves = new Game.SavedState[maxRollbackFrames + 2];
+        this.saveFrame = new long[saves.length];
+        save(-1);
+    }
+
+    // A command of the local player; it is applied in the next frame simulated, at that frame's time
+    public void addLocalInput(Command cmd) {
+        pendingLocal.add(cmd);
+    }
+
+    /**
+     * Take in the remote input that has arrived and, if a frame already simulated was predicted
+     * wrongly, go back and simulate again up to the present. advanceFrame does this first.
+     */
+    public void receive() {
+        for (Input in; (in = transport.poll()) != null; ) {
+            if (in.frame() != confirmedRemote + 1) {
+                throw new IllegalStateException("Input for frame " + in.frame() + ", expected " + (confirmedRemote + 1));
+            }
+            confirmedRemote = in.frame();
+            remoteInputs.put(in.frame(), in.commands());
+            // Nothing was predicted for it: only frames that had commands were simulated wrongly
+            if (in.frame() < frame && !in.commands().isEmpty()) rollbackFrom = Math.min(rollbackFrom, in.frame());
+        }
+        if (rollbackFrom != Long.MAX_VALUE) {
+            rollback(rollbackFrom);
+            rollbackFrom = Long.MAX_VALUE;
+        }
+
+        // Frames simulated with the remote input are final: they are never simulated again
+        long done = Math.min(confirmedRemote, frame - 1);
+        localInputs.keySet().removeIf(f -> f <= done);
+        remoteInputs.keySet().removeIf(f -> f <= done);
+    }
+
+    /**
+     * Simulate the next frame with the local input issued since the last one.
+     *
+     * @return false if the frame was not simulated because the remote input is too far behind
+     *         (call again next frame)
+     */
+    public boolean advanceFrame() {
+        receive();
+        if (frame - confirmedRemote > maxRollbackFrames) {
+            stalls++;
+            return false;
+        }
+        List<Command> mine = new ArrayList<>(pendingLocal.size());
+        for (Command cmd : pendingLocal) mine.add(new Command(frame * tickMs, cmd.pieceId, cmd.type, cmd.params));
+        pendingLocal.clear();
+        localInputs.put(frame, mine);
+        transport.send(new Input(player, frame, mine));
+        simulate(frame);
+        frame++;
+        return true;
+    }
+
+    private void rollback(long from) {
+        int i = (int) (from % saves.length);
+        if (saves[i] == null || saveFrame[i] != from - 1) {
+            throw new IllegalStateException("No saved state for frame " + (from - 1));
+        }
+        game.restoreState(saves[i]);
+        rollbacks++;
+        for (long f = from; f < frame; f++) {
+            simulate(f);
+            resimulatedFrames++;
+        }
+    }
+
+    private void simulate(long f) {
+        // Both sides queue white's commands first, so they apply the same input in the same order
+        List<Command> white = player == 1 ? localInputs.get(f) : remoteInputs.get(f);
+        List<Command> black = player == 1 ? remoteInputs.get(f) : localInputs.get(f);
+        if (white != null) game.userInputQueue.addAll(white);
+        if (black != null) game.userInputQueue.addAll(black);
+        game._tick(f * tickMs);
+        save(f);
+    }
+
+    private void save(long f) {
+        int i = (int) ((f + 1) % saves.length);
+        saves[i] = game.saveState();
+        saveFrame[i] = f;
+    }
+
+    /* ---------------- queries ---------------- */
+
+    // Next frame to simulate
+    public long frame() { return frame; }
+
+    // Last frame whose remote input has arrived; the state up to it is the same on both sides
+    public long confirmedFrame() { return confirmedRemote; }
+
+    public long gameTimeMs() { return frame * tickMs; }
+
+    public long getRollbacks() { return rollbacks; }
+    public long getResimulatedFrames() { return resimulatedFrames; }
+    public long getStalls() { return stalls; }
+}
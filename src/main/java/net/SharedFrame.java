@@ -0,0 +1,51 @@
+package net;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference-counted, encoded frame in a direct buffer.
+ * It is written once by the encoder and then only read, through independent views, by every
+ * connection it was queued on. The last release hands the buffer back to its pool.
+ */
+public final class SharedFrame {
+    private final FramePool pool;
+    private final ByteBuffer data;
+    private final AtomicInteger refs = new AtomicInteger();
+
+    SharedFrame(FramePool pool, ByteBuffer data) {
+        this.pool = pool;
+        this.data = data;
+    }
+
+    // Buffer to encode into; only valid between FramePool.acquire and seal
+    public ByteBuffer buffer() { return data; }
+
+    public int capacity() { return data.capacity(); }
+
+    // Finish encoding; the encoder holds the first reference
+    public SharedFrame seal() {
+        data.flip();
+        refs.set(1);
+        return this;
+    }
+
+    public SharedFrame retain() {
+        refs.incrementAndGet();
+        return this;
+    }
+
+    public void release() {
+        if (refs.decrementAndGet() == 0) {
+            data.clear();
+            pool.recycle(this);
+        }
+    }
+
+    // Independent read cursor over the encoded bytes (no copy)
+    public ByteBuffer view() {
+        return data.duplicate();
+    }
+
+    public int length() { return data.limit(); }
+}
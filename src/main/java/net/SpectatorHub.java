@@ -0,0 +1,194 @@
+package net;
+
+import game.Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-only fan-out of one running game to any number of watchers.
+ *
+ * Hook it to the game loop with game.setTickListener(hub::publish). Each published tick is
+ * encoded once into pooled KEYFRAME / DELTA frames that every spectator socket writes from its
+ * own view of the same buffer. Watchers connect with a plain socket (GameClient works without
+ * joining), get a WELCOME for player 0 and then the frame stream. A watcher that falls behind is
+ * resynced from a keyframe; one that keeps falling behind is disconnected.
+ */
+public class SpectatorHub implements Closeable {
+    private final Game game;
+    private final long minIntervalMs;
+    private final Broadcaster broadcaster;
+    private final List<Connection> spectators = new CopyOnWriteArrayList<>();
+    private final Queue<Connection> wantWrite = new ConcurrentLinkedQueue<>();
+    private final Queue<Connection> wantDrop = new ConcurrentLinkedQueue<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Broadcaster.Sink sink = new Broadcaster.Sink() {
+        @Override
+        public void requestWrite(Connection c) {
+            wantWrite.add(c);
+        }
+
+        @Override
+        public void requestDrop(Connection c) {
+            wantDrop.add(c);
+        }
+
+        @Override
+        public void wakeup() {
+            selector.wakeup();
+        }
+    };
+
+    private long nextPublishMs;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread ioThread;
+    private volatile boolean running;
+
+    /**
+     * @param game          the game to broadcast; publish must be called on its game thread
+     * @param minIntervalMs ticks closer together than this are folded into the next publish
+     */
+    public SpectatorHub(Game game, long minIntervalMs) {
+        this.game = game;
+        this.minIntervalMs = minIntervalMs;
+        this.broadcaster = new Broadcaster(game, StateEncoder.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    // Bind (port 0 picks a free port) and start the selector thread
+    public void start(InetSocketAddress bindAddress) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(bindAddress);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        ioThread = new Thread(this::ioLoop, "spectator-hub-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    // Spectators disconnected for being too slow
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Broadcast the game as of this tick. Runs on the game thread; encoding happens once no matter
+     * how many spectators are connected, and socket writes happen on the hub's own thread.
+     */
+    public void publish(long nowMs) {
+        if (nowMs < nextPublishMs || selector == null) return;
+        nextPublishMs = nowMs + minIntervalMs;
+        broadcaster.broadcast(game.snapshot(), game._is_win(), spectators, sink);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) selector.wakeup();
+        try {
+            if (ioThread != null) ioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Connection c : spectators) c.close();
+        spectators.clear();
+        if (serverChannel != null) serverChannel.close();
+        if (selector != null) selector.close();
+    }
+
+    /* ---------------- selector thread ---------------- */
+
+    private void ioLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Connection c;
+                while ((c = wantDrop.poll()) != null) {
+                    if (!c.closed) dropped.incrementAndGet();
+                    disconnect(c);
+                }
+                while ((c = wantWrite.poll()) != null) {
+                    if (!c.closed) write(c);
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    c = (Connection) key.attachment();
+                    if (key.isReadable()) read(c);
+                    if (key.isValid() && key.isWritable()) write(c);
+                }
+            }
+        } catch (IOException e) {
+            if (running) System.out.printf("Spectator hub stopped: %s%n", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = serverChannel.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            Connection c = new Connection(ch);
+            c.key = ch.register(selector, SelectionKey.OP_READ, c);
+            ByteBuffer welcome = ByteBuffer.allocate(16);
+            Protocol.writeWelcome(welcome, 0, 0, game.slotCount());
+            c.control.add(welcome.flip());
+            spectators.add(c);
+            write(c);
+        }
+    }
+
+    // Spectators have nothing to say; input is discarded and only end-of-stream matters
+    private void read(Connection c) {
+        try {
+            c.in.clear();
+            if (c.channel.read(c.in) < 0) disconnect(c);
+        } catch (IOException e) {
+            disconnect(c);
+        }
+    }
+
+    // Try to flush right away; keep OP_WRITE interest only while the socket is backed up
+    private void write(Connection c) {
+        try {
+            boolean done = c.flush();
+            int ops = c.key.interestOps();
+            c.key.interestOps(done ? ops & ~SelectionKey.OP_WRITE : ops | SelectionKey.OP_WRITE);
+        } catch (IOException | RuntimeException e) {
+            disconnect(c);
+        }
+    }
+
+    private void disconnect(Connection c) {
+        c.close();
+        spectators.remove(c);
+    }
+}
@@ -0,0 +1,126 @@
+package net;
+
+import classes.Pair;
+import game.Game;
+import piece.Piece;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client-side counterpart of StateEncoder: applies KEYFRAME and DELTA frames to a mirror game.
+ * Frames must be applied in order from a single thread. After a gap in the tick sequence, deltas
+ * are ignored until the next keyframe.
+ */
+public final class StateDecoder {
+    private final Game mirror;
+
+    private String[] names = new String[0];
+    private long tick = -1;
+    private boolean synced;
+    private boolean gameOver;
+    private long serverMs;
+
+    // Smallest (local - server) time difference seen; the least delayed frame is the best estimate
+    private long offsetMs = Long.MAX_VALUE;
+
+    public StateDecoder(Game mirror) {
+        this.mirror = mirror;
+    }
+
+    public boolean isSynced() { return synced; }
+    public boolean isGameOver() { return gameOver; }
+    public long getTick() { return tick; }
+    public long getOffsetMs() { return offsetMs; }
+
+    /**
+     * Apply one frame payload.
+     *
+     * @return false if the frame was skipped because the decoder is waiting for a keyframe
+     */
+    public boolean apply(byte type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.KEYFRAME -> applyKeyframe(payload);
+            case Protocol.DELTA -> {
+                long t = VarInt.getUnsigned(payload);
+                if (!synced || t != tick + 1) {
+                    synced = false;
+                    return false;
+                }
+                tick = t;
+                serverMs += VarInt.getSigned(payload);
+                applyDelta(payload);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void syncClock() {
+        offsetMs = Math.min(offsetMs, mirror.game_time_ms() - serverMs);
+    }
+
+    private void applyKeyframe(ByteBuffer in) {
+        tick = VarInt.getUnsigned(in);
+        serverMs = VarInt.getUnsigned(in);
+        gameOver = (in.get() & Protocol.FLAG_GAME_OVER) != 0;
+        syncClock();
+
+        String[] table = new String[VarInt.getUnsignedInt(in)];
+        for (int i = 0; i < table.length; i++) {
+            byte[] b = new byte[VarInt.getUnsignedInt(in)];
+            in.get(b);
+            table[i] = new String(b, StandardCharsets.US_ASCII);
+        }
+        names = table;
+
+        boolean[] alive = new boolean[mirror.slotCount()];
+        int live = VarInt.getUnsignedInt(in);
+        int slot = -1;
+        for (int i = 0; i < live; i++) {
+            slot += VarInt.getUnsignedInt(in) + 1;
+            int st = VarInt.getUnsignedInt(in);
+            Pair start = getCell(in), end = getCell(in);
+            long startMs = serverMs - VarInt.getSigned(in) + offsetMs;
+            Piece p = mirror.pieceAtSlot(slot);
+            if (p == null) continue;
+            alive[slot] = true;
+            Protocol.applyPieceState(p, names[st], start, end, startMs);
+        }
+        // Rebuild the live list in slot order (also restores pieces a lost delta wrongly removed)
+        mirror.pieces.clear();
+        for (int s = 0; s < alive.length; s++) {
+            if (alive[s]) mirror.pieces.add(mirror.pieceAtSlot(s));
+        }
+        synced = true;
+    }
+
+    private void applyDelta(ByteBuffer in) {
+        gameOver = (in.get() & Protocol.FLAG_GAME_OVER) != 0;
+        syncClock();
+        int events = VarInt.getUnsignedInt(in);
+        for (int i = 0; i < events; i++) {
+            long head = VarInt.getUnsigned(in);
+            int kind = (int) (head & 3);
+            Piece p = mirror.pieceAtSlot((int) (head >>> 2));
+            if (kind == StateEncoder.EV_CAPTURE) {
+                if (p != null) mirror.pieces.remove(p);
+                continue;
+            }
+            int st = VarInt.getUnsignedInt(in);
+            Pair start = getCell(in);
+            Pair end = kind == StateEncoder.EV_MOVE ? getCell(in) : start;
+            long startMs = serverMs - VarInt.getSigned(in) + offsetMs;
+            if (p == null || st >= names.length) continue;
+            Protocol.applyPieceState(p, names[st], start, end, startMs);
+        }
+    }
+
+    private static Pair getCell(ByteBuffer in) {
+        int r = (int) VarInt.getSigned(in);
+        int c = (int) VarInt.getSigned(in);
+        return new Pair(r, c);
+    }
+}
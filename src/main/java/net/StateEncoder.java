@@ -0,0 +1,225 @@
+package net;
+
+import classes.Pair;
+import classes.State;
+import game.FrameSnapshot;
+import game.Game;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Server-side state sync encoder for one game.
+ *
+ * Instead of positions, it sends what changed since the previous tick: a piece started moving
+ * (start cell, end cell and start time, so receivers interpolate on their own), a piece entered
+ * another state, or a piece was captured. Numbers are varints and times are sent as offsets from
+ * the frame time. Keyframes carrying the full state and the state-name table are produced
+ * periodically and for receivers that lost track (new joiners, dropped frames).
+ *
+ * KEYFRAME payload: tick, server time, flags, name table, live piece count, then per piece
+ *                   slot gap, state index, start row/col, end row/col, age of startMs (signed)
+ * DELTA payload:    tick, server time step, flags, event count (padded varint), then per event
+ *                   (slot << 2 | kind) followed by the kind's fields
+ */
+public final class StateEncoder {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+    // Event kinds in DELTA frames
+    public static final int EV_MOVE = 0;     // state, start r/c, end r/c, age
+    public static final int EV_STATE = 1;    // state, cell r/c, age
+    public static final int EV_CAPTURE = 2;  // (no fields)
+
+    private final Game game;
+    private final int keyframeInterval;
+
+    // State name table; indices are what DELTA frames carry
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIdx = new HashMap<>();
+
+    // Baseline: what receivers know after the last encoded tick, per slot
+    private final int slots;
+    private final boolean[] alive;
+    private final boolean[] aliveNow;
+    private final int[] stateOf;
+    private final int[] startCell;
+    private final int[] endCell;
+    private final long[] startMs;
+
+    private long tick = -1;
+    private long lastTimeMs;
+    private boolean namesGrew;
+
+    public StateEncoder(Game game, int keyframeInterval) {
+        if (keyframeInterval < 1) throw new IllegalArgumentException("keyframeInterval must be >= 1: " + keyframeInterval);
+        this.game = game;
+        this.keyframeInterval = keyframeInterval;
+        this.slots = game.slotCount();
+        this.alive = new boolean[slots];
+        this.aliveNow = new boolean[slots];
+        this.stateOf = new int[slots];
+        this.startCell = new int[slots];
+        this.endCell = new int[slots];
+        this.startMs = new long[slots];
+
+        // Every state reachable from every piece, in a stable order
+        TreeSet<String> all = new TreeSet<>();
+        for (int s = 0; s < slots; s++) collectNames(game.pieceAtSlot(s).state, all);
+        for (String n : all) nameIndex(n);
+    }
+
+    public long getTick() { return tick; }
+
+    /**
+     * Should the tick just encoded go out as a keyframe to every receiver?
+     * True periodically, and when a state name was added to the table since the last keyframe.
+     */
+    public boolean isKeyframeDue() {
+        return tick % keyframeInterval == 0 || namesGrew;
+    }
+
+    public int maxDeltaBytes() {
+        return Protocol.HEADER_BYTES + 4 * VarInt.MAX_BYTES + slots * (VarInt.MAX_BYTES * 4 + 6 * 5);
+    }
+
+    public int maxKeyframeBytes() {
+        int table = 0;
+        for (String n : names) table += VarInt.MAX_BYTES + n.length();
+        return Protocol.HEADER_BYTES + 5 * VarInt.MAX_BYTES + table + slots * (VarInt.MAX_BYTES * 3 + 5 * 5);
+    }
+
+    /**
+     * Advance one tick: diff the game against the baseline, write the DELTA frame and make the
+     * current state the new baseline. Must run on the game's tick thread.
+     */
+    public void encodeDelta(ByteBuffer out, long nowMs, boolean gameOver) {
+        encodeDelta(out, FrameSnapshot.capture(game, nowMs, null), gameOver);
+    }
+
+    /**
+     * Same as encodeDelta(ByteBuffer, long, boolean) from a published snapshot (see
+     * Game.snapshot()), so encoding does not have to run on the tick thread.
+     */
+    public void encodeDelta(ByteBuffer out, FrameSnapshot snap, boolean gameOver) {
+        long nowMs = snap.getTimeMs();
+        tick++;
+        int frame = Protocol.beginFrame(out, Protocol.DELTA);
+        VarInt.putUnsigned(out, tick);
+        VarInt.putSigned(out, nowMs - lastTimeMs);
+        out.put((byte) (gameOver ? Protocol.FLAG_GAME_OVER : 0));
+        int countPos = out.position();
+        out.position(countPos + 3); // event count, patched below as a padded 3-byte varint
+        int events = 0;
+
+        Arrays.fill(aliveNow, false);
+        for (FrameSnapshot.PieceView p : snap.getPieces()) {
+            int s = p.slot;
+            aliveNow[s] = true;
+            int st = nameIndex(p.stateName);
+            int sc = pack(p.startCell), ec = pack(p.endCell);
+            long sm = p.startMs;
+            if (alive[s] && st == stateOf[s] && sc == startCell[s] && ec == endCell[s] && sm == startMs[s]) continue;
+
+            boolean moving = p.moving;
+            VarInt.putUnsigned(out, ((long) s << 2) | (moving ? EV_MOVE : EV_STATE));
+            VarInt.putUnsigned(out, st);
+            putCell(out, sc);
+            if (moving) putCell(out, ec);
+            VarInt.putSigned(out, nowMs - sm);
+            events++;
+
+            alive[s] = true;
+            stateOf[s] = st;
+            startCell[s] = sc;
+            endCell[s] = ec;
+            startMs[s] = sm;
+        }
+        for (int s = 0; s < slots; s++) {
+            if (alive[s] && !aliveNow[s]) {
+                VarInt.putUnsigned(out, ((long) s << 2) | EV_CAPTURE);
+                alive[s] = false;
+                events++;
+            }
+        }
+        putPadded3(out, countPos, events);
+        Protocol.endFrame(out, frame);
+        lastTimeMs = nowMs;
+    }
+
+    // Write the current baseline (the state after the last encodeDelta) as a KEYFRAME
+    public void encodeKeyframe(ByteBuffer out, boolean gameOver) {
+        int frame = Protocol.beginFrame(out, Protocol.KEYFRAME);
+        VarInt.putUnsigned(out, tick);
+        VarInt.putUnsigned(out, lastTimeMs);
+        out.put((byte) (gameOver ? Protocol.FLAG_GAME_OVER : 0));
+        VarInt.putUnsigned(out, names.size());
+        for (String n : names) {
+            byte[] b = n.getBytes(StandardCharsets.US_ASCII);
+            VarInt.putUnsigned(out, b.length);
+            out.put(b);
+        }
+        int live = 0;
+        for (int s = 0; s < slots; s++) if (alive[s]) live++;
+        VarInt.putUnsigned(out, live);
+        int prev = -1;
+        for (int s = 0; s < slots; s++) {
+            if (!alive[s]) continue;
+            VarInt.putUnsigned(out, s - prev - 1);
+            prev = s;
+            VarInt.putUnsigned(out, stateOf[s]);
+            putCell(out, startCell[s]);
+            putCell(out, endCell[s]);
+            VarInt.putSigned(out, lastTimeMs - startMs[s]);
+        }
+        Protocol.endFrame(out, frame);
+        namesGrew = false;
+    }
+
+    private int nameIndex(String name) {
+        Integer idx = nameIdx.get(name);
+        if (idx != null) return idx;
+        // A state unknown at construction: receivers learn it from the next keyframe
+        names.add(name);
+        nameIdx.put(name, names.size() - 1);
+        namesGrew = tick >= 0;
+        return names.size() - 1;
+    }
+
+    private static void collectNames(State root, TreeSet<String> out) {
+        ArrayDeque<State> todo = new ArrayDeque<>();
+        Set<State> seen = new HashSet<>();
+        todo.add(root);
+        while (!todo.isEmpty()) {
+            State s = todo.poll();
+            if (!seen.add(s)) continue;
+            if (s.name != null) out.add(s.name);
+            todo.addAll(s.getTransitions().values());
+        }
+    }
+
+    static int pack(Pair cell) {
+        return (cell.r << 16) | (cell.c & 0xFFFF);
+    }
+
+    // LEB128 with redundant continuation bytes, so a count can be patched in after the fact
+    private static void putPadded3(ByteBuffer out, int pos, int value) {
+        if (value >= 1 << 21) throw new IllegalStateException("Too many events in one tick: " + value);
+        out.put(pos, (byte) ((value & 0x7F) | 0x80));
+        out.put(pos + 1, (byte) (((value >> 7) & 0x7F) | 0x80));
+        out.put(pos + 2, (byte) ((value >> 14) & 0x7F));
+    }
+
+    private static void putCell(ByteBuffer out, int packed) {
+        VarInt.putSigned(out, packed >> 16);
+        VarInt.putSigned(out, (short) packed);
+    }
+}
@@ -0,0 +1,45 @@
+package net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 variable-length integers: 7 bits per byte, high bit set on all but the last byte.
+ * Signed values are zig-zag mapped first so small negative numbers stay short.
+ */
+public final class VarInt {
+    private VarInt() {}
+
+    public static void putUnsigned(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    public static long getUnsigned(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("VarInt longer than 10 bytes");
+    }
+
+    public static void putSigned(ByteBuffer buf, long value) {
+        putUnsigned(buf, (value << 1) ^ (value >> 63));
+    }
+
+    public static long getSigned(ByteBuffer buf) {
+        long raw = getUnsigned(buf);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public static int getUnsignedInt(ByteBuffer buf) {
+        return (int) getUnsigned(buf);
+    }
+
+    // Worst-case encoded size of a 64-bit value
+    public static final int MAX_BYTES = 10;
+}
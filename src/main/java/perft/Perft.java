@@ -0,0 +1,299 @@
+package perft;
+
+import board.Board;
+import classes.Moves;
+import classes.Pair;
+import piece.PieceFactory;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft for the piece library: counts every sequence of legal commands from the board.csv
+ * position to a given depth, under the Moves (moves.txt) and State (transitions.csv) rules.
+ *
+ * Search model: sides alternate, white first. A command is a MOVE the piece's current state
+ * allows (never onto a friendly piece) or a JUMP in place. Commands land at once and put the
+ * piece in the state after "done" (its rest); it wakes up after restPlies of its own plies, or on
+ * its next ply when cooldowns are ignored. Capturing a king ends the game.
+ *
+ * Root commands are searched in parallel on a fork-join pool, each on its own copy of the position.
+ */
+public class Perft {
+    private final List<PieceRules> rules = new ArrayList<>();
+    private final int rows, cols;
+    private final int[] startType;   // per piece: index into rules
+    private final int[] startCell;   // per piece: r * cols + c
+
+    private int restPlies = 1;
+    private boolean jumps = true;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param library a PieceFactory after generateLibrary
+     * @param layout  board.csv lines: piece codes per cell, empty for no piece
+     */
+    public Perft(PieceFactory library, List<String> layout) {
+        Map<String, Integer> typeOf = new HashMap<>();
+        List<Integer> types = new ArrayList<>();
+        List<Integer> cells = new ArrayList<>();
+        int width = 0;
+        for (String line : layout) width = Math.max(width, line.strip().split(",", -1).length);
+        this.rows = layout.size();
+        this.cols = width;
+        for (int r = 0; r < rows; r++) {
+            String[] tokens = layout.get(r).strip().split(",", -1);
+            for (int c = 0; c < tokens.length; c++) {
+                String code = tokens[c].trim();
+                if (code.isEmpty()) continue;
+                Integer t = typeOf.get(code);
+                if (t == null) {
+                    if (library.getTemplate(code) == null)
+                        throw new IllegalArgumentException("Unknown piece type " + code);
+                    t = rules.size();
+                    rules.add(new PieceRules(code, library.getTemplate(code)));
+                    typeOf.put(code, t);
+                }
+                types.add(t);
+                cells.add(r * cols + c);
+            }
+        }
+        startType = types.stream().mapToInt(Integer::intValue).toArray();
+        startCell = cells.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Load the library and board.csv from a pieces directory
+    public static Perft load(Path piecesRoot) throws Exception {
+        List<String> layout = Files.readAllLines(piecesRoot.resolve("board.csv"));
+        int width = 0;
+        for (String line : layout) width = Math.max(width, line.strip().split(",", -1).length);
+        // Rules only: no board image is needed
+        PieceFactory library = new PieceFactory(new Board(64, 64, width, layout.size(), null));
+        library.generateLibrary(piecesRoot);
+        return new Perft(library, layout);
+    }
+
+    // Let pieces act again on their next ply instead of sitting out their rest
+    public void setIgnoreCooldowns(boolean ignore) {
+        this.restPlies = ignore ? 0 : 1;
+    }
+
+    // Own plies a piece sits out after acting (0 = cooldowns ignored)
+    public void setRestPlies(int restPlies) {
+        if (restPlies < 0) throw new IllegalArgumentException("restPlies must be >= 0");
+        this.restPlies = restPlies;
+    }
+
+    // Count JUMP commands (in place) as well as moves
+    public void setJumps(boolean jumps) {
+        this.jumps = jumps;
+    }
+
+    public void setParallelism(int threads) {
+        this.parallelism = Math.max(1, threads);
+    }
+
+    public long count(int depth) {
+        if (depth <= 0) return 1;
+        long total = 0;
+        for (long n : searchRoots(depth).values()) total += n;
+        return total;
+    }
+
+    // Node count below each root command, e.g. "PW_(6,4) move (4,4)" -> 600
+    public Map<String, Long> divide(int depth) {
+        if (depth <= 0) throw new IllegalArgumentException("depth must be >= 1");
+        return searchRoots(depth);
+    }
+
+    private Map<String, Long> searchRoots(int depth) {
+        Searcher root = new Searcher(depth);
+        int[] cmds = root.buf[depth];
+        int n = root.generate(0, cmds);
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            int cmd = cmds[k];
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    return new Searcher(depth).play(cmd, depth, 0);
+                }
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                    return null;
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (int k = 0; k < n; k++) out.merge(root.describe(cmds[k]), tasks.get(k).join(), Long::sum);
+        return out;
+    }
+
+    /**
+     * One thread's copy of the position, searched by make / unmake.
+     * A command is (piece << 16) | (destination cell + 1), with destination 0 meaning a jump.
+     */
+    private final class Searcher {
+        final int[] grid = new int[rows * cols];   // cell -> piece + 1, 0 = empty
+        final int[] type = startType;
+        final int[] cell = startCell.clone();
+        final int[] state = new int[startType.length];
+        final int[] restUntil = new int[startType.length];  // ply from which the piece is awake
+        final boolean[] alive = new boolean[startType.length];
+        final int[][] buf;                                  // command buffer per remaining depth
+        final Moves.Occupancy occupied = (r, c) -> grid[r * cols + c] != 0;
+
+        Searcher(int depth) {
+            int maxCommands = 0;
+            for (int i = 0; i < type.length; i++) {
+                grid[cell[i]] = i + 1;
+                state[i] = rules.get(type[i]).initial;
+                alive[i] = true;
+                maxCommands += rules.get(type[i]).maxCommands();
+            }
+            buf = new int[depth + 1][maxCommands];
+        }
+
+        long search(int depth, int ply) {
+            if (depth == 0) return 1;
+            int[] cmds = buf[depth];
+            int n = generate(ply, cmds);
+            if (depth == 1) return n;
+            long nodes = 0;
+            for (int k = 0; k < n; k++) nodes += play(cmds[k], depth, ply);
+            return nodes;
+        }
+
+        // Make the command, count the subtree below it, unmake
+        long play(int cmd, int depth, int ply) {
+            int i = cmd >>> 16, dst = (cmd & 0xFFFF) - 1;
+            PieceRules r = rules.get(type[i]);
+            int oldState = state[i], oldRest = restUntil[i], oldCell = cell[i];
+            int s = effectiveState(i, ply);
+            int captured = -1;
+            if (dst >= 0) {
+                captured = grid[dst] - 1;
+                if (captured >= 0) alive[captured] = false;
+                grid[oldCell] = 0;
+                grid[dst] = i + 1;
+                cell[i] = dst;
+                state[i] = r.afterMove[s];
+            } else {
+                state[i] = r.afterJump[s];
+            }
+            restUntil[i] = ply + 2 * (restPlies + 1);
+
+            boolean over = captured >= 0 && rules.get(type[captured]).king;
+            long nodes = over ? (depth == 1 ? 1 : 0) : search(depth - 1, ply + 1);
+
+            state[i] = oldState;
+            restUntil[i] = oldRest;
+            if (dst >= 0) {
+                cell[i] = oldCell;
+                grid[oldCell] = i + 1;
+                grid[dst] = captured + 1;
+                if (captured >= 0) alive[captured] = true;
+            }
+            return nodes;
+        }
+
+        int effectiveState(int i, int ply) {
+            return restUntil[i] <= ply ? rules.get(type[i]).awake[state[i]] : state[i];
+        }
+
+        int generate(int ply, int[] out) {
+            int side = (ply & 1) == 0 ? 1 : 2;
+            int n = 0;
+            for (int i = 0; i < type.length; i++) {
+                if (!alive[i]) continue;
+                PieceRules r = rules.get(type[i]);
+                if (r.side != side) continue;
+                int s = effectiveState(i, ply);
+                if (r.afterMove[s] >= 0 && r.moves[s] != null) {
+                    int sr = cell[i] / cols, sc = cell[i] % cols;
+                    int[] d = r.deltas[s];
+                    for (int j = 0; j < d.length; j += 2) {
+                        int tr = sr + d[j], tc = sc + d[j + 1];
+                        if (tr < 0 || tr >= rows || tc < 0 || tc >= cols) continue;
+                        int target = grid[tr * cols + tc];
+                        if (target != 0 && rules.get(type[target - 1]).side == side) continue;
+                        if (!r.moves[s].isValid(sr, sc, tr, tc, occupied)) continue;
+                        out[n++] = (i << 16) | (tr * cols + tc + 1);
+                    }
+                }
+                if (jumps && r.afterJump[s] >= 0) out[n++] = i << 16;
+            }
+            return n;
+        }
+
+        String describe(int cmd) {
+            int i = cmd >>> 16, dst = (cmd & 0xFFFF) - 1;
+            String id = rules.get(type[i]).code + "_" + new Pair(cell[i] / cols, cell[i] % cols);
+            return dst < 0 ? id + " jump" : id + " move " + new Pair(dst / cols, dst % cols);
+        }
+    }
+
+    /**
+     * Perft [depth] [--ignore-cooldowns] [--no-jumps] [--threads N] [--divide] [piecesDir]
+     * Prints node counts and nodes per second for every depth up to the given one.
+     */
+    public static void main(String[] args) throws Exception {
+        int depth = 4;
+        boolean ignoreCooldowns = false, noJumps = false, divide = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path piecesRoot = null;
+        for (int a = 0; a < args.length; a++) {
+            switch (args[a]) {
+                case "--ignore-cooldowns" -> ignoreCooldowns = true;
+                case "--no-jumps" -> noJumps = true;
+                case "--divide" -> divide = true;
+                case "--threads" -> threads = Integer.parseInt(args[++a]);
+                default -> {
+                    if (args[a].matches("\\d+")) depth = Integer.parseInt(args[a]);
+                    else piecesRoot = Paths.get(args[a]);
+                }
+            }
+        }
+        if (piecesRoot == null) {
+            URI uri = Perft.class.getClassLoader().getResource("pieces").toURI();
+            piecesRoot = Paths.get(uri);
+        }
+
+        Perft perft = load(piecesRoot);
+        perft.setIgnoreCooldowns(ignoreCooldowns);
+        perft.setJumps(!noJumps);
+        perft.setParallelism(threads);
+        System.out.printf("perft %s, cooldowns %s, jumps %s, %d threads%n", piecesRoot,
+                ignoreCooldowns ? "ignored" : "respected", noJumps ? "off" : "on", threads);
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(d);
+            double sec = (System.nanoTime() - start) / 1e9;
+            System.out.printf("depth %d  nodes %,15d  time %8.3f s  %,.0f nodes/s%n", d, nodes, sec, nodes / Math.max(sec, 1e-9));
+        }
+        if (divide) {
+            perft.divide(depth).forEach((cmd, n) -> System.out.printf("%-28s %,d%n", cmd, n));
+        }
+    }
+}
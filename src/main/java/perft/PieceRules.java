@@ -0,0 +1,108 @@
+package perft;
+
+import classes.Moves;
+import classes.Pair;
+import classes.State;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state machine and moves of one piece type, flattened into arrays indexed by state
+ * so the search does no map lookups.
+ */
+final class PieceRules {
+    // Bound on "done" chains followed when a piece comes out of a cooldown
+    private static final int MAX_DONE_STEPS = 8;
+
+    final String code;
+    final int side;        // 1 = white, 2 = black
+    final boolean king;
+
+    final String[] stateNames;
+    final int initial;
+    final int[] afterMove;  // state -> state once a move has arrived, -1 if the state cannot move
+    final int[] afterJump;  // state -> state once a jump has landed, -1 if the state cannot jump
+    final int[] awake;      // state -> state once its cooldown is over
+    final Moves[] moves;
+    final int[][] deltas;   // state -> dr0, dc0, dr1, dc1, ...
+
+    PieceRules(String code, State template) {
+        this.code = code;
+        this.side = code.length() > 1 && code.charAt(1) == 'B' ? 2 : 1;
+        this.king = code.startsWith("K");
+
+        List<State> states = new ArrayList<>();
+        Map<State, Integer> index = new HashMap<>();
+        Deque<State> todo = new ArrayDeque<>();
+        todo.add(template);
+        while (!todo.isEmpty()) {
+            State s = todo.poll();
+            if (index.containsKey(s)) continue;
+            index.put(s, states.size());
+            states.add(s);
+            todo.addAll(s.getTransitions().values());
+        }
+
+        int n = states.size();
+        stateNames = new String[n];
+        afterMove = new int[n];
+        afterJump = new int[n];
+        awake = new int[n];
+        moves = new Moves[n];
+        deltas = new int[n][];
+        initial = index.get(template);
+        for (int i = 0; i < n; i++) {
+            State s = states.get(i);
+            stateNames[i] = s.name;
+            afterMove[i] = arrive(s, "move", index);
+            afterJump[i] = arrive(s, "jump", index);
+            awake[i] = index.get(wake(s));
+            moves[i] = s.moves;
+            deltas[i] = flatten(s.moves);
+        }
+    }
+
+    int maxCommands() {
+        int max = 0;
+        for (int[] d : deltas) max = Math.max(max, d.length / 2);
+        return max + 1;
+    }
+
+    // Take the event's transition, then the "done" that ends the move or jump itself
+    private static int arrive(State s, String event, Map<State, Integer> index) {
+        State target = s.getTransitions().get(event);
+        if (target == null) return -1;
+        State done = target.getTransitions().get("done");
+        return index.get(done != null ? done : target);
+    }
+
+    // Follow "done" out of states that can neither move nor jump (rests)
+    private static State wake(State s) {
+        for (int i = 0; i < MAX_DONE_STEPS && !canAct(s); i++) {
+            State next = s.getTransitions().get("done");
+            if (next == null) break;
+            s = next;
+        }
+        return s;
+    }
+
+    private static boolean canAct(State s) {
+        return s.getTransitions().containsKey("move") || s.getTransitions().containsKey("jump");
+    }
+
+    private static int[] flatten(Moves m) {
+        if (m == null) return new int[0];
+        int[] out = new int[m.getMoves().size() * 2];
+        int i = 0;
+        for (Pair d : m.getMoves().keySet()) {
+            out[i++] = d.r;
+            out[i++] = d.c;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,55 @@
+package physics;
+
+/**
+ * Integer positions for the deterministic simulation mode (see Board.setFixedPoint): a position
+ * is a long in 1/ONE of a cell, times are whole milliseconds. Only integer arithmetic is used, so
+ * every JVM on every platform computes the same positions and cells, bit for bit, which lockstep
+ * play and replay checks rely on.
+ */
+public final class FixedPoint {
+    private FixedPoint() {}
+
+    public static final int SHIFT = 16;
+    public static final long ONE = 1L << SHIFT;     // one cell
+    public static final long HALF = ONE >> 1;
+
+    public static long ofCell(int cell) {
+        return (long) cell << SHIFT;
+    }
+
+    // Nearest cell, halves rounded up like Math.round
+    public static int toCell(long fx) {
+        return (int) ((fx + HALF) >> SHIFT);
+    }
+
+    // Nearest pixel for cells of cellPx pixels
+    public static int toPix(long fx, int cellPx) {
+        return (int) ((fx * cellPx + HALF) >> SHIFT);
+    }
+
+    // Largest r with r * r <= v
+    public static long isqrt(long v) {
+        if (v < 0) throw new IllegalArgumentException("negative: " + v);
+        long r = (long) Math.sqrt((double) v); // only a first guess: corrected exactly below
+        // r * r <= v  <=>  r <= v / r, without overflowing near the top of the range
+        while (r > 0 && r > v / r) r--;
+        while (r + 1 <= v / (r + 1)) r++;
+        return r;
+    }
+
+    /**
+     * Milliseconds to cover lengthFx at speedFx per second, rounded up; Long.MAX_VALUE at speed 0
+     * (the piece never arrives).
+     */
+    public static long durationMs(long lengthFx, long speedFx) {
+        if (speedFx <= 0) return Long.MAX_VALUE;
+        return (lengthFx * 1000 + speedFx - 1) / speedFx;
+    }
+
+    // from + (to - from) * elapsedMs / durationMs, with elapsedMs clamped to [0, durationMs]
+    public static long lerp(long from, long to, long elapsedMs, long durationMs) {
+        if (elapsedMs <= 0) return from;
+        if (elapsedMs >= durationMs) return to;
+        return from + (to - from) * elapsedMs / durationMs;
+    }
+}
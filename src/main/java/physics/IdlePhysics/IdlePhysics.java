@@ -25,7 +25,7 @@ public class IdlePhysics extends Physics {
         } else {
             startCell = endCell = (Pair) cmd.params.get(0);
         }
-        currPosM = board.cellToM(startCell);
+        setCell(startCell);
         startMs = cmd.timestamp;
     }
 
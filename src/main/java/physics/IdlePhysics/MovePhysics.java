@@ -4,6 +4,8 @@ import board.Board;
 import classes.Command;
 import classes.Pair;
 import enums.EState;
+import physics.FixedPoint;
+import physics.Motion;
 import physics.Physics;
 
 import java.util.List;
@@ -12,14 +14,33 @@ public class MovePhysics extends Physics {
     private double[] movementVec;     // normalised vector
     private double movementVecLength;
     private double durationSec;
+    // Fixed-point boards: the move in integers (see physics.FixedPoint)
+    private long fromXFx, fromYFx, toXFx, toYFx;
+    private long durationMs;
     public MovePhysics(Board board, double speedCellsPerSec) { super(board, speedCellsPerSec); }
 
     @Override
     public void reset(Command cmd) {
         startCell = (Pair) cmd.params.get(0);
         endCell   = (Pair) cmd.params.get(1);
-        currPosM  = board.cellToM(startCell);
+        setCell(startCell);
         startMs   = cmd.timestamp;
+        plan();
+    }
+
+    @Override
+    public void restore(Saved saved) {
+        super.restore(saved);
+        plan();
+        motion = saved.motion(); // the same object: SweptCollisions tells moves apart by identity
+    }
+
+    // Derive the move from the cells and the start time
+    private void plan() {
+        if (board.isFixedPoint()) {
+            planFixed();
+            return;
+        }
 
         double[] startPos = board.cellToM(startCell);
         double[] endPos   = board.cellToM(endCell);
@@ -29,10 +50,35 @@ public class MovePhysics extends Physics {
         movementVec[0] /= movementVecLength;
         movementVec[1] /= movementVecLength;
         durationSec = movementVecLength / param; // param = speed(m/s)
+        motion = Motion.between(startPos, endPos, startMs, durationSec);
+    }
+
+    private void planFixed() {
+        fromXFx = FixedPoint.ofCell(startCell.c);
+        fromYFx = FixedPoint.ofCell(startCell.r);
+        toXFx = FixedPoint.ofCell(endCell.c);
+        toYFx = FixedPoint.ofCell(endCell.r);
+        long dx = toXFx - fromXFx, dy = toYFx - fromYFx;
+        long lengthFx = FixedPoint.isqrt(dx * dx + dy * dy);
+        if (lengthFx == 0) lengthFx = FixedPoint.ONE; // as in plan: a move in place takes one cell's time
+        // param is in metres per second; the speed is rounded to fixed point once, here
+        long speedFx = Math.round(param / board.getCellWM() * FixedPoint.ONE);
+        durationMs = FixedPoint.durationMs(lengthFx, speedFx);
+        durationSec = durationMs == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : durationMs / 1000.0;
+        double[] fromM = board.fxToM(fromXFx, fromYFx), toM = board.fxToM(toXFx, toYFx);
+        motion = durationMs == Long.MAX_VALUE
+                ? Motion.at(fromM)
+                : new Motion(fromM[0], fromM[1], toM[0], toM[1], startMs, startMs + durationMs);
     }
 
     @Override
     public Command update(long nowMs) {
+        if (board.isFixedPoint()) {
+            long elapsed = nowMs - startMs;
+            setPosFx(FixedPoint.lerp(fromXFx, toXFx, elapsed, durationMs),
+                     FixedPoint.lerp(fromYFx, toYFx, elapsed, durationMs));
+            return elapsed >= durationMs ? new Command(nowMs, null, EState.DONE, List.of()) : null;
+        }
         double secondsPassed = (nowMs - startMs) / 1000.0;
         currPosM = board.cellToM(startCell);
         currPosM[0] += movementVec[0] * secondsPassed * param;
@@ -44,4 +90,7 @@ public class MovePhysics extends Physics {
     }
 
     public double getSpeedCellsPerSec() { return param; }
+
+    // Travel time of the current move (infinite at speed 0)
+    public double getDurationSec() { return durationSec; }
 }
\ No newline at end of file
@@ -10,20 +10,24 @@ import java.util.List;
 
 public class StaticTemporaryPhysics extends Physics {
     private final double durationSec;
+    private final long durationMs; // used instead on fixed-point boards
     public StaticTemporaryPhysics(Board board, double durationSec) {
         super(board, durationSec);
         this.durationSec = durationSec;
+        this.durationMs = Math.round(durationSec * 1000);
     }
     @Override
     public void reset(Command cmd) {
         startCell = endCell = (Pair) cmd.params.get(0);
-        currPosM = board.cellToM(startCell);
+        setCell(startCell);
         startMs = cmd.timestamp;
     }
     @Override
     public Command update(long nowMs) {
-        double sec = (nowMs - startMs) / 1000.0;
-        if (sec >= durationSec) {
+        boolean done = board.isFixedPoint()
+                ? nowMs - startMs >= durationMs
+                : (nowMs - startMs) / 1000.0 >= durationSec;
+        if (done) {
             return new Command(nowMs, null, EState.DONE, List.of());
         }
         return null;
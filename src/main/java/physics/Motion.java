@@ -0,0 +1,36 @@
+package physics;
+
+/**
+ * Immutable snapshot of a piece's movement: straight from one position to another (in metres)
+ * between two game times. Physics publishes a new one whenever it is reset, so a render thread
+ * can place the piece at the exact time of its frame, between simulation ticks, without reading
+ * the mutable tick state.
+ */
+public record Motion(double fromXM, double fromYM, double toXM, double toYM, long startMs, long endMs) {
+
+    // A piece standing still at posM
+    public static Motion at(double[] posM) {
+        return new Motion(posM[0], posM[1], posM[0], posM[1], 0, 0);
+    }
+
+    /**
+     * Movement that starts at startMs and takes durationSec (may be infinite: the piece never
+     * leaves its start position).
+     */
+    public static Motion between(double[] fromM, double[] toM, long startMs, double durationSec) {
+        if (!Double.isFinite(durationSec)) return at(fromM);
+        return new Motion(fromM[0], fromM[1], toM[0], toM[1], startMs, startMs + Math.round(durationSec * 1000));
+    }
+
+    // Position (x, y) in metres at game time nowMs, clamped to the start and end positions
+    public double[] posMAt(long nowMs) {
+        if (nowMs >= endMs) return new double[]{toXM, toYM};
+        if (nowMs <= startMs) return new double[]{fromXM, fromYM};
+        double t = (nowMs - startMs) / (double) (endMs - startMs);
+        return new double[]{fromXM + (toXM - fromXM) * t, fromYM + (toYM - fromYM) * t};
+    }
+
+    public boolean isMovingAt(long nowMs) {
+        return nowMs > startMs && nowMs < endMs && (fromXM != toXM || fromYM != toYM);
+    }
+}
@@ -10,8 +10,11 @@ public abstract class Physics {
     protected Pair startCell;
     protected Pair endCell;
     protected double[] currPosM;        // (x,y) in metres
+    protected long posXFx, posYFx;      // the same in fixed point, authoritative when board.isFixedPoint()
     protected final double param;       // generic parameter (speed or duration)
     public long startMs;
+    protected volatile Motion motion;   // set by physics that move; null = standing at currPosM
+    private Motion resting;             // last Motion.at(currPosM) handed out, reused while the piece stays put
 
     protected Physics(Board board, double param) {
         this.board = board;
@@ -22,11 +25,77 @@ public abstract class Physics {
     public abstract void reset(Command cmd);
     public abstract Command update(long nowMs);
 
+    // Place the piece on a cell (both representations)
+    protected void setCell(Pair cell) {
+        currPosM = board.cellToM(cell);
+        posXFx = FixedPoint.ofCell(cell.c);
+        posYFx = FixedPoint.ofCell(cell.r);
+    }
+
+    // Fixed-point mode: set the position; metres follow from it
+    protected void setPosFx(long xFx, long yFx) {
+        posXFx = xFx;
+        posYFx = yFx;
+        currPosM = board.fxToM(xFx, yFx);
+    }
+
+    /** Everything reset and update change, to go back to it later (see Game.saveState). */
+    public record Saved(Pair startCell, Pair endCell, double[] posM, long posXFx, long posYFx,
+                        long startMs, Motion motion) {}
+
+    public Saved save() {
+        return new Saved(startCell, endCell, currPosM.clone(), posXFx, posYFx, startMs, motion);
+    }
+
+    // Subclasses with more state derive it again from these fields
+    public void restore(Saved saved) {
+        startCell = saved.startCell();
+        endCell = saved.endCell();
+        currPosM = saved.posM().clone();
+        posXFx = saved.posXFx();
+        posYFx = saved.posYFx();
+        startMs = saved.startMs();
+        motion = saved.motion();
+    }
+
     // ---------------- helpers -----------------
     public double[] getPosM() { return currPosM; }
-    public int[] getPosPix()  { return board.mToPix(currPosM[0], currPosM[1]); }
-    public Pair getCurrCell() { return board.mToCellPair(currPosM[0], currPosM[1]); }
+    public long getPosXFx() { return posXFx; }
+    public long getPosYFx() { return posYFx; }
+
+    public int[] getPosPix() {
+        return board.isFixedPoint() ? board.fxToPix(posXFx, posYFx) : board.mToPix(currPosM[0], currPosM[1]);
+    }
+
+    public Pair getCurrCell() { return new Pair(getCurrRow(), getCurrCol()); }
+
+    // Allocation-free parts of getCurrCell, for per-tick hot paths
+    public int getCurrRow() {
+        return board.isFixedPoint() ? FixedPoint.toCell(posYFx) : board.mToRow(currPosM[1]);
+    }
+
+    public int getCurrCol() {
+        return board.isFixedPoint() ? FixedPoint.toCell(posXFx) : board.mToCol(currPosM[0]);
+    }
     public long getStartMs() { return startMs; }
+    public Pair getStartCell() { return startCell; }
+    public Pair getEndCell() { return endCell != null ? endCell : startCell; }
+
+    // Movement since the last reset, safe to read from the render thread
+    public Motion getMotion() {
+        Motion m = motion;
+        if (m != null) return m;
+        double[] pos = currPosM;
+        Motion r = resting;
+        if (r == null || r.fromXM() != pos[0] || r.fromYM() != pos[1]) resting = r = Motion.at(pos);
+        return r;
+    }
+
+    // Pixel position at nowMs interpolated from getMotion(), independent of the last update() time
+    public int[] getPosPixAt(long nowMs) {
+        double[] posM = getMotion().posMAt(nowMs);
+        return board.mToPix(posM[0], posM[1]);
+    }
 
     public boolean canBeCaptured() { return true; }
     public boolean canCapture() { return true; }
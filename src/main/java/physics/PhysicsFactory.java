@@ -32,7 +32,10 @@ public class PhysicsFactory {
         String name = stateName.toLowerCase();  // Convert stateName to lowercase for easy comparison
 
         // Choose physics.Physics subclass based on state name pattern
-        if (name.equals("move") || name.endsWith("_move")) {
+        // ("idle_after_first_move" is an idle state despite its suffix)
+        if (name.startsWith("idle")) {
+            phys = new IdlePhysics(board);
+        } else if (name.equals("move") || name.endsWith("_move")) {
             // For "move" states, create a IdlePhysics.IdlePhysics.MovePhysics with speed and board
             phys = new MovePhysics(board, speed);
         } else if (name.equals("jump")) {
@@ -49,8 +52,8 @@ public class PhysicsFactory {
         // Initialize the position of the physics object at the starting cell
         phys.startCell = startCell;
 
-        // Convert the cell coordinates to meters (or units) and set current position
-        phys.currPosM = board.cellToM(startCell);
+        // Set the current position (metres, and fixed point for deterministic boards)
+        phys.setCell(startCell);
 
         return phys;  // Return the created and initialized physics.Physics instance
     }
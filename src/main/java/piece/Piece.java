@@ -64,17 +64,14 @@ public class Piece {
      * Draws the piece on the given board at the piece’s current pixel position.
      *
      * @param board The board to draw onto
-     * @param nowMs Current time (used for updating graphics if needed)
+     * @param nowMs Current time (selects the animation frame and the position along a move)
      */
     public void drawOnBoard(Board board, long nowMs) {
-        // Optionally update graphics frame (commented out in this code)
-        //state.graphics.update(nowMs);
-
         // Get pixel position of the piece on the board
-        int[] posPix = state.physics.getPosPix();
+        int[] posPix = state.physics.getPosPixAt(nowMs);
 
-        // Get the current sprite image to draw from the graphics state
-        Img sprite = state.graphics.getImg();
+        // Animation frame for the time spent in the current state (graphics are shared, not updated)
+        Img sprite = state.graphics.frameAt(nowMs - state.physics.getStartMs());
 
         sprite.drawOn(board.getImg(), posPix[0], posPix[1]);
     }
@@ -2,6 +2,7 @@ package piece;
 
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.awt.Dimension;
 
 import board.Board;
@@ -20,7 +21,13 @@ public class PieceFactory {
     private final Board board;               // Reference to the game board, needed for size info and physics
     private final GraphicsFactory gfxFactory; // Factory object used to create grafix.Graphics instances for pieces
     private final PhysicsFactory physFactory; // Factory object used to create physics.Physics instances for pieces
-    private final Map<String, State> templates = new HashMap<>(); // Map storing piece templates, keyed by piece type name
+    // Piece templates keyed by piece type name; a reloaded type replaces its entry in one put,
+    // so games being created concurrently see either the old or the new template, never a mix
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    // State machine of one piece type (its idle state) and the physics config of each of its
+    // states, reused by clones
+    private record Template(State idle, Map<State, JSONObject> physicsConfigs) {}
 
     // Constructor initializes the factories and saves the board reference
     public PieceFactory(Board board) {
@@ -44,16 +51,31 @@ public class PieceFactory {
         }
     }
 
+    /**
+     * Rebuild the template of one piece type from its directory (e.g. after its moves, configs or
+     * sprites changed) and swap it in for pieces created from now on. Pieces that already exist
+     * keep the state machine they were created with. If loading fails, the old template stays.
+     *
+     * @param pieceDir Directory of the piece type inside the pieces root, e.g. pieces/PW
+     * @return The piece type code that was reloaded
+     */
+    public String reloadPiece(Path pieceDir) throws Exception {
+        String code = pieceDir.getFileName().toString();
+        templates.put(code, buildStateMachine(pieceDir));
+        return code;
+    }
+
     /**
      * Constructs the state machine for one piece type by loading its states, graphics, physics, and transitions.
      * Each state corresponds to a subfolder inside the piece's "states" directory.
      */
-    private State buildStateMachine(Path pieceDir) throws Exception {
+    private Template buildStateMachine(Path pieceDir) throws Exception {
         int W = board.getWCells();       // Number of horizontal cells on the board
         int H = board.getHCells();       // Number of vertical cells on the board
         Dimension cellPx = new Dimension(board.getCellWPix(), board.getCellHPix()); // Size of each cell in pixels
 
         Map<String, State> states = new HashMap<>(); // Holds states keyed by their name
+        Map<State, JSONObject> physicsConfigs = new IdentityHashMap<>(); // Physics config of each state
         Path statesDir = pieceDir.resolve("states"); // Path to states directory
 
         if (!Files.exists(statesDir))
@@ -84,6 +106,7 @@ public class PieceFactory {
                 // Create classes.State object combining moves, graphics, and physics
                 State st = new State(moves, gfx, phys);
                 st.name = name;
+                physicsConfigs.put(st, physCfg);
 
                 // Save state to map by name
                 states.put(name, st);
@@ -91,7 +114,9 @@ public class PieceFactory {
         }
 
         // ─── Load state transitions from transitions.csv if it exists ───────────────
+        // (next to the states directory, or inside it as the bundled pieces have it)
         Path transCsv = pieceDir.resolve("transitions.csv");
+        if (!Files.exists(transCsv)) transCsv = statesDir.resolve("transitions.csv");
         if (Files.exists(transCsv)) {
             List<String> lines = Files.readAllLines(transCsv);
             for (String line : lines) {
@@ -124,7 +149,23 @@ public class PieceFactory {
         }
 
         // Return idle state as the entry point of this piece's state machine
-        return idle;
+        return new Template(idle, physicsConfigs);
+    }
+
+    // Board the pieces are created for
+    public Board getBoard() {
+        return board;
+    }
+
+    // Piece type codes loaded by generateLibrary (e.g. "PW", "KB")
+    public Set<String> getPieceCodes() {
+        return Collections.unmodifiableSet(templates.keySet());
+    }
+
+    // Template state machine (its idle state) of a piece type, or null if unknown
+    public State getTemplate(String code) {
+        Template t = templates.get(code);
+        return t != null ? t.idle() : null;
     }
 
     // Helper method: safely read a JSON object from a file path
@@ -141,7 +182,7 @@ public class PieceFactory {
      * Clones the state machine template and initializes it for the given cell.
      */
     public Piece createPiece(String code, Pair cell) {
-        State tmpl = templates.get(code);
+        Template tmpl = templates.get(code);
         if (tmpl == null)
             throw new IllegalArgumentException("Unknown piece type " + code);
 
@@ -163,7 +204,8 @@ public class PieceFactory {
      * For each state, clones its moves, graphics, and creates new physics with the starting cell.
      * Reconstructs all transitions to link to cloned states.
      */
-    private State cloneStateMachine(State templateIdle, Pair cell) {
+    private State cloneStateMachine(Template template, Pair cell) {
+        State templateIdle = template.idle();
         Map<State, State> map = new HashMap<>();
         Deque<State> stack = new ArrayDeque<>();
         stack.push(templateIdle);
@@ -173,8 +215,9 @@ public class PieceFactory {
             State orig = stack.pop();
             if (map.containsKey(orig)) continue;
 
-            // Clone state with same moves and graphics, but new physics starting at 'cell'
-            State copy = new State(orig.moves, orig.graphics, physFactory.create(cell, orig.name, new JSONObject()));
+            // Clone state with same moves and graphics, but new physics (same config) starting at 'cell'
+            JSONObject physCfg = template.physicsConfigs().getOrDefault(orig, new JSONObject());
+            State copy = new State(orig.moves, orig.graphics, physFactory.create(cell, orig.name, physCfg));
             copy.name = orig.name;
 
             map.put(orig, copy);
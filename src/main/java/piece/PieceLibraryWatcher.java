@@ -0,0 +1,144 @@
+package piece;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Development mode: watches a pieces directory and, when a piece type's moves.txt, config.json,
+ * transitions.csv or sprites change, reloads only that type into a PieceFactory (see
+ * PieceFactory.reloadPiece). Games created afterwards use the new rules and sprites; running
+ * games are not touched.
+ *
+ * Editors save in several steps (truncate, write, rename), so a type is reloaded once its files
+ * have been quiet for a short while rather than on every event.
+ */
+public class PieceLibraryWatcher implements Closeable {
+    // Wait this long after the last change to a type before reloading it
+    static final long QUIET_MS = 200;
+
+    /** Told about every reload, on the watcher thread. */
+    public interface Listener {
+        void reloaded(String code);
+
+        // The type's files could not be loaded; the previous template is still in use
+        void failed(String code, Exception error);
+    }
+
+    private final PieceFactory library;
+    private final Path root;
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> dirs = new HashMap<>();
+    private final Thread thread;
+    private volatile Listener listener = new Listener() {
+        @Override
+        public void reloaded(String code) {
+            System.out.printf("Reloaded piece %s%n", code);
+        }
+
+        @Override
+        public void failed(String code, Exception error) {
+            System.out.printf("Failed to reload piece %s: %s%n", code, error);
+        }
+    };
+
+    /**
+     * Start watching. The library must have been generated from the same root.
+     */
+    public PieceLibraryWatcher(PieceFactory library, Path piecesRoot) throws IOException {
+        this.library = library;
+        this.root = piecesRoot.toAbsolutePath().normalize();
+        this.watcher = root.getFileSystem().newWatchService();
+        registerTree(root);
+        thread = new Thread(this::watchLoop, "piece-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watcher.close();
+    }
+
+    // WatchService is not recursive: every directory below the root is registered on its own
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path d : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                dirs.put(d.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), d);
+            }
+        }
+    }
+
+    private void watchLoop() {
+        Set<String> pending = new LinkedHashSet<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // Block until something changes, then keep collecting until it has been quiet
+                WatchKey key = pending.isEmpty() ? watcher.take() : watcher.poll(QUIET_MS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    for (String code : pending) reload(code);
+                    pending.clear();
+                    continue;
+                }
+                Path dir = dirs.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW || dir == null) {
+                        // Events were lost: reload every type to be safe
+                        try (Stream<Path> types = Files.list(root)) {
+                            types.filter(Files::isDirectory).forEach(t -> pending.add(t.getFileName().toString()));
+                        }
+                        continue;
+                    }
+                    Path changed = dir.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) registerTree(changed);
+                    String code = affectedType(changed);
+                    if (code != null) pending.add(code);
+                }
+                if (!key.reset()) dirs.remove(key);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (IOException e) {
+            System.out.printf("Piece watcher stopped: %s%n", e);
+        }
+    }
+
+    // Piece type whose definition a changed file belongs to, or null if it does not matter
+    private String affectedType(Path changed) {
+        Path rel = root.relativize(changed);
+        if (rel.getNameCount() < 2) return null; // board.csv, board.png or a new, still empty type
+        String name = changed.getFileName().toString().toLowerCase();
+        boolean relevant = name.equals("moves.txt") || name.equals("config.json") || name.equals("transitions.csv")
+                || name.endsWith(".png") || Files.isDirectory(changed) || !Files.exists(changed);
+        return relevant ? rel.getName(0).toString() : null;
+    }
+
+    private void reload(String code) {
+        Path dir = root.resolve(code);
+        if (!Files.isDirectory(dir.resolve("states"))) return; // deleted, or not a piece type yet
+        try {
+            library.reloadPiece(dir);
+            listener.reloaded(code);
+        } catch (Exception e) {
+            listener.failed(code, e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package piece;
+
+import board.Board;
+import board.OccupancyGrid;
+import classes.Pair;
+import classes.State;
+import physics.IdlePhysics.MovePhysics;
+import physics.Physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays copy of what the game loop needs about every live piece each tick: type, side,
+ * state, current/start/end cell, start time and capture flags, in parallel primitive arrays.
+ * Scanning it touches a few contiguous arrays instead of a graph of Piece, State, Physics, Pair
+ * and double[] objects per piece, which is what keeps boards with thousands of pieces fast.
+ *
+ * Live pieces occupy dense indices 0..size()-1, in no particular order: remove moves the last
+ * piece into the hole (O(1)). Slots are stable ids (the index of the piece in the list the store
+ * was created with, like Game.slotOf) and map to their current dense index.
+ *
+ * The store also records which slots were added, removed or had a column change until the
+ * consumer calls clearChanged, so incremental structures (see board.SpatialGrid) only look at
+ * pieces that did something.
+ *
+ * Game thread only.
+ */
+public class PieceStore {
+    // Bits of flagsAt
+    public static final int CAN_CAPTURE = 1;
+    public static final int CAPTURABLE = 2;
+    public static final int MOVING = 4;
+
+    private final int rows, cols;
+
+    // Slot -> piece, fixed for the lifetime of the game (pieces are only ever removed)
+    private final Piece[] slots;
+    private final Map<Piece, Integer> slotOf = new IdentityHashMap<>();
+
+    // Type and state name tables, the values stored in type[] and state[]
+    private final List<String> typeCodes = new ArrayList<>();
+    private final List<String> stateNames = new ArrayList<>();
+    private final Map<String, Integer> stateIdx = new HashMap<>();
+
+    // Columns, by dense index
+    private int size;
+    private final int[] slot;
+    private final int[] type;
+    private final byte[] side;
+    private final int[] state;
+    private final int[] cell;        // row * cols + col, -1 when off the board
+    private final int[] startCell;
+    private final int[] endCell;
+    private final long[] startMs;
+    private final byte[] flags;
+
+    // By slot
+    private final int[] typeOfSlot;
+    private final int[] denseOf;     // -1 when not live
+    private final boolean[] alive;
+    private final int[] seenEpoch;   // refresh bookkeeping
+    private int epoch;
+    private final State[] lastState; // state object the columns were last read from
+
+    // Slots changed since clearChanged, each once
+    private final int[] changed;
+    private int changedCount;
+    private final boolean[] isChanged;
+
+    public PieceStore(Board board, List<Piece> pieces) {
+        this.rows = board.getHCells();
+        this.cols = board.getWCells();
+        this.slots = pieces.toArray(new Piece[0]);
+        int n = slots.length;
+        slot = new int[n];
+        type = new int[n];
+        side = new byte[n];
+        state = new int[n];
+        cell = new int[n];
+        startCell = new int[n];
+        endCell = new int[n];
+        startMs = new long[n];
+        flags = new byte[n];
+        typeOfSlot = new int[n];
+        denseOf = new int[n];
+        alive = new boolean[n];
+        seenEpoch = new int[n];
+        lastState = new State[n];
+        changed = new int[n];
+        isChanged = new boolean[n];
+        Arrays.fill(denseOf, -1);
+
+        Map<String, Integer> typeIdx = new HashMap<>();
+        for (int s = 0; s < n; s++) {
+            slotOf.put(slots[s], s);
+            String code = typeCode(slots[s].id);
+            typeOfSlot[s] = typeIdx.computeIfAbsent(code, k -> {
+                typeCodes.add(k);
+                return typeCodes.size() - 1;
+            });
+        }
+        refresh(pieces);
+    }
+
+    // "PW" from "PW_(6,0)"
+    private static String typeCode(String pieceId) {
+        int u = pieceId.indexOf('_');
+        return u < 0 ? pieceId : pieceId.substring(0, u);
+    }
+
+    /**
+     * Bring the store in line with the live pieces: add pieces that are new to it, re-read the
+     * columns of pieces that changed and remove those that are no longer in the list. O(n), and
+     * cheap per piece: only a piece that entered another state or is moving is read again.
+     */
+    public void refresh(List<Piece> live) {
+        epoch++;
+        int next = 0; // live pieces normally come in slot order: find them without a map lookup
+        for (int i = 0, n = live.size(); i < n; i++) {
+            Piece p = live.get(i);
+            int s = next;
+            while (s < slots.length && slots[s] != p) s++;
+            if (s == slots.length) {
+                Integer found = slotOf.get(p);
+                if (found == null) continue; // piece was not part of the game at creation
+                s = found;
+            }
+            next = s + 1;
+
+            int d = denseOf[s];
+            if (d < 0) d = add(s);
+            seenEpoch[s] = epoch;
+            State st = p.state;
+            if (st != lastState[s] || (flags[d] & MOVING) != 0 || st.physics.getStartMs() != startMs[d]) {
+                if (write(d, p)) markChanged(s);
+                lastState[s] = st;
+            }
+        }
+        for (int d = size - 1; d >= 0; d--) {
+            if (seenEpoch[slot[d]] != epoch) remove(slot[d]);
+        }
+    }
+
+    private int add(int s) {
+        int d = size++;
+        slot[d] = s;
+        type[d] = typeOfSlot[s];
+        side[d] = (byte) OccupancyGrid.playerOf(slots[s]);
+        denseOf[s] = d;
+        alive[s] = true;
+        lastState[s] = null; // columns not read yet
+        markChanged(s);
+        return d;
+    }
+
+    // Read the columns of a piece; true if any of them changed
+    private boolean write(int d, Piece p) {
+        State st = p.state;
+        Physics ph = st.physics;
+        int nState = stateIndex(st.name);
+        int r = ph.getCurrRow(), c = ph.getCurrCol();
+        int nCell = r >= 0 && r < rows && c >= 0 && c < cols ? r * cols + c : -1;
+        int nStart = pack(ph.getStartCell());
+        int nEnd = pack(ph.getEndCell());
+        long nStartMs = ph.getStartMs();
+        byte nFlags = (byte) ((st.canCapture() ? CAN_CAPTURE : 0) | (st.canBeCaptured() ? CAPTURABLE : 0)
+                | (ph instanceof MovePhysics ? MOVING : 0));
+        if (lastState[slot[d]] != null && nState == state[d] && nCell == cell[d] && nStart == startCell[d]
+                && nEnd == endCell[d] && nStartMs == startMs[d] && nFlags == flags[d]) {
+            return false;
+        }
+        state[d] = nState;
+        cell[d] = nCell;
+        startCell[d] = nStart;
+        endCell[d] = nEnd;
+        startMs[d] = nStartMs;
+        flags[d] = nFlags;
+        return true;
+    }
+
+    private void markChanged(int s) {
+        if (isChanged[s]) return;
+        isChanged[s] = true;
+        changed[changedCount++] = s;
+    }
+
+    private int stateIndex(String name) {
+        Integer idx = stateIdx.get(name);
+        if (idx != null) return idx;
+        stateNames.add(name);
+        stateIdx.put(name, stateNames.size() - 1);
+        return stateNames.size() - 1;
+    }
+
+    private int pack(Pair p) {
+        return p == null ? -1 : p.r * cols + p.c;
+    }
+
+    // Read every live piece again at the next refresh, e.g. after its physics were restored
+    public void invalidate() {
+        Arrays.fill(lastState, null);
+    }
+
+    /** Remove a live piece by slot: the last dense entry takes its place. No-op if not live. */
+    public void remove(int s) {
+        int d = denseOf[s];
+        if (d < 0) return;
+        int last = --size;
+        if (d != last) {
+            int moved = slot[last];
+            slot[d] = moved;
+            type[d] = type[last];
+            side[d] = side[last];
+            state[d] = state[last];
+            cell[d] = cell[last];
+            startCell[d] = startCell[last];
+            endCell[d] = endCell[last];
+            startMs[d] = startMs[last];
+            flags[d] = flags[last];
+            denseOf[moved] = d;
+        }
+        denseOf[s] = -1;
+        alive[s] = false;
+        markChanged(s);
+    }
+
+    /* ---------------- by dense index (0 <= i < size()) ---------------- */
+
+    public int size() { return size; }
+    public int slotAt(int i) { return slot[i]; }
+    public Piece pieceAt(int i) { return slots[slot[i]]; }
+    public int typeAt(int i) { return type[i]; }
+    public int sideAt(int i) { return side[i]; }
+    public int stateAt(int i) { return state[i]; }
+    public int cellAt(int i) { return cell[i]; }
+    public int startCellAt(int i) { return startCell[i]; }
+    public int endCellAt(int i) { return endCell[i]; }
+    public long startMsAt(int i) { return startMs[i]; }
+    public int flagsAt(int i) { return flags[i]; }
+
+    /* ---------------- by slot ---------------- */
+
+    public int slotCount() { return slots.length; }
+    public boolean isAlive(int s) { return alive[s]; }
+
+    // Dense index of a slot, -1 if the piece is not live
+    public int indexOf(int s) { return denseOf[s]; }
+
+    // Slot of a piece, or -1 if it was not part of the game at creation
+    public int slotOf(Piece p) {
+        Integer s = slotOf.get(p);
+        return s == null ? -1 : s;
+    }
+
+    public Piece pieceAtSlot(int s) { return slots[s]; }
+
+    /* ---------------- changes ---------------- */
+
+    // Slots added, removed (no longer isAlive) or with changed columns since the last clearChanged
+    public int changedCount() { return changedCount; }
+    public int changedSlot(int i) { return changed[i]; }
+
+    public void clearChanged() {
+        for (int i = 0; i < changedCount; i++) isChanged[changed[i]] = false;
+        changedCount = 0;
+    }
+
+    /* ---------------- tables ---------------- */
+
+    // Cells are row * cols() + col
+    public int cols() { return cols; }
+    public int rows() { return rows; }
+    public String typeCode(int t) { return typeCodes.get(t); }
+    public String stateName(int st) { return stateNames.get(st); }
+}
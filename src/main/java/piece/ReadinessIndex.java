@@ -0,0 +1,155 @@
+package piece;
+
+import board.OccupancyGrid;
+import classes.State;
+import physics.IdlePhysics.MovePhysics;
+import physics.IdlePhysics.StaticTemporaryPhysics;
+import physics.Physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Earliest time each piece can act again, ordered per side.
+ *
+ * A piece can act in a state that has a "move" or "jump" transition. Otherwise its ready time is
+ * the end of its current physics (MovePhysics travel time, rest or jump duration) plus the
+ * durations of the states its "done" transitions lead through until it can act.
+ *
+ * The game loop updates the index after every tick, and only pieces whose state changed are
+ * re-sorted (O(log n) each). Queries never block and may run on any thread:
+ * readyAt is O(1), readyPieces is O(log n + k) and nextReadyAt is O(log n).
+ */
+public class ReadinessIndex {
+    // Ready time of a piece that will never be ready (captured, or stuck in a state)
+    public static final long NEVER = Long.MAX_VALUE;
+
+    // Bound on "done" chains followed when predicting readiness
+    private static final int MAX_DONE_STEPS = 8;
+
+    // Immutable (readyAt, slot) key; sorted by time, then slot
+    private record Entry(long readyAt, int slot) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int c = Long.compare(readyAt, o.readyAt);
+            return c != 0 ? c : Integer.compare(slot, o.slot);
+        }
+    }
+
+    // Slot -> piece, fixed for the lifetime of the game (pieces are only ever removed)
+    private final Piece[] slots;
+    private final Map<Piece, Integer> slotOf = new IdentityHashMap<>();
+    private final int[] sideOf;
+
+    // Per side (index side - 1), sorted by ready time
+    private final List<NavigableSet<Entry>> bySide = List.of(new ConcurrentSkipListSet<>(), new ConcurrentSkipListSet<>());
+    private final Entry[] current;
+
+    // Signature of each slot at its last computation (game thread only)
+    private final State[] lastState;
+    private final long[] lastStartMs;
+    private final boolean[] aliveNow;
+
+    public ReadinessIndex(List<Piece> pieces) {
+        this.slots = pieces.toArray(new Piece[0]);
+        int n = slots.length;
+        this.sideOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            slotOf.put(slots[i], i);
+            sideOf[i] = OccupancyGrid.playerOf(slots[i]);
+        }
+        this.current = new Entry[n];
+        this.lastState = new State[n];
+        this.lastStartMs = new long[n];
+        this.aliveNow = new boolean[n];
+    }
+
+    /**
+     * Re-index the pieces whose state changed since the last call.
+     * Must only be called from the game loop thread.
+     */
+    public void update(List<Piece> alive) {
+        Arrays.fill(aliveNow, false);
+        for (int i = 0, n = alive.size(); i < n; i++) {
+            Integer slot = slotOf.get(alive.get(i));
+            if (slot != null) aliveNow[slot] = true;
+        }
+        for (int s = 0; s < slots.length; s++) {
+            if (!aliveNow[s]) {
+                if (current[s] != null) {
+                    bySide.get(sideOf[s] - 1).remove(current[s]);
+                    current[s] = null;
+                    lastState[s] = null;
+                }
+                continue;
+            }
+            State st = slots[s].state;
+            if (st == lastState[s] && st.physics.getStartMs() == lastStartMs[s]) continue;
+            lastState[s] = st;
+            lastStartMs[s] = st.physics.getStartMs();
+
+            Entry e = new Entry(predictReadyAt(st), s);
+            if (e.equals(current[s])) continue; // same prediction (e.g. a phase that ended on a tick)
+            NavigableSet<Entry> set = bySide.get(sideOf[s] - 1);
+            // Add before removing, so readers never miss the piece; the entries differ here
+            set.add(e);
+            if (current[s] != null) set.remove(current[s]);
+            current[s] = e;
+        }
+    }
+
+    // Game time (ms) from which the piece can act, NEVER if captured or unknown
+    public long readyAt(Piece p) {
+        Integer slot = slotOf.get(p);
+        Entry e = slot == null ? null : current[slot];
+        return e == null ? NEVER : e.readyAt;
+    }
+
+    public boolean isReady(Piece p, long nowMs) {
+        return readyAt(p) <= nowMs;
+    }
+
+    // Pieces of a side (1 = white, 2 = black) that can act at time t, earliest ready first
+    public List<Piece> readyPieces(int side, long t) {
+        List<Piece> out = new ArrayList<>();
+        for (Entry e : bySide.get(side - 1).headSet(new Entry(t, Integer.MAX_VALUE), true)) {
+            out.add(slots[e.slot]);
+        }
+        return out;
+    }
+
+    // First time after t at which another piece of the side becomes ready, or NEVER
+    public long nextReadyAt(int side, long t) {
+        Entry e = bySide.get(side - 1).higher(new Entry(t, Integer.MAX_VALUE));
+        return e == null ? NEVER : e.readyAt;
+    }
+
+    /**
+     * Predict when a piece in the given state can act: walk "done" transitions from the current
+     * state, adding each state's duration, until reaching a state with a "move" or "jump".
+     */
+    public static long predictReadyAt(State state) {
+        long t = state.physics.getStartMs();
+        State s = state;
+        for (int i = 0; i < MAX_DONE_STEPS; i++) {
+            if (s.getTransitions().containsKey("move") || s.getTransitions().containsKey("jump")) return t;
+            double sec = durationSec(s.physics);
+            State next = s.getTransitions().get("done");
+            if (next == null || Double.isInfinite(sec) || Double.isNaN(sec)) return NEVER;
+            t += Math.round(sec * 1000);
+            s = next;
+        }
+        return NEVER;
+    }
+
+    private static double durationSec(Physics ph) {
+        if (ph instanceof MovePhysics m) return m.getDurationSec();
+        if (ph instanceof StaticTemporaryPhysics st) return st.getDurationSec();
+        return Double.POSITIVE_INFINITY; // never finishes on its own
+    }
+}
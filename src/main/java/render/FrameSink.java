@@ -0,0 +1,75 @@
+package render;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Destination of the frames produced by HeadlessRenderer. write runs on the renderer's encoder
+ * threads; the frame image is reused for a later frame as soon as write returns.
+ */
+public interface FrameSink {
+
+    /** Encode and store one frame. */
+    void write(int index, BufferedImage frame) throws IOException;
+
+    /**
+     * True if frames must reach write in index order, one at a time (e.g. a stream). Unordered
+     * sinks are written by all encoder threads in parallel.
+     */
+    default boolean isOrdered() { return false; }
+
+    /** Called once after the last frame. */
+    default void finish() throws IOException {}
+
+    /**
+     * Numbered PNG files in a directory: frame_00000.png, frame_00001.png, ... The compression,
+     * the expensive part, runs in parallel.
+     */
+    static FrameSink pngFiles(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        return (index, frame) -> {
+            Path file = dir.resolve(String.format("frame_%05d.png", index));
+            if (!ImageIO.write(frame, "png", file.toFile())) throw new IOException("No PNG writer for " + file);
+        };
+    }
+
+    /**
+     * Raw 8-bit RGB frames, back to back with no header, e.g. for
+     * ffmpeg -f rawvideo -pix_fmt rgb24 -s 512x512 -r 30 -i - clip.mp4
+     */
+    static FrameSink rawRgb(OutputStream out) {
+        return new FrameSink() {
+            private byte[] row = new byte[0];
+            private int[] argb = new int[0];
+
+            @Override
+            public void write(int index, BufferedImage frame) throws IOException {
+                int w = frame.getWidth(), h = frame.getHeight();
+                if (argb.length < w) {
+                    argb = new int[w];
+                    row = new byte[3 * w];
+                }
+                for (int y = 0; y < h; y++) {
+                    frame.getRGB(0, y, w, 1, argb, 0, w);
+                    for (int x = 0; x < w; x++) {
+                        int p = argb[x];
+                        row[3 * x] = (byte) (p >> 16);
+                        row[3 * x + 1] = (byte) (p >> 8);
+                        row[3 * x + 2] = (byte) p;
+                    }
+                    out.write(row, 0, 3 * w);
+                }
+            }
+
+            @Override
+            public boolean isOrdered() { return true; }
+
+            @Override
+            public void finish() throws IOException { out.flush(); }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package render;
+
+import board.Board;
+import classes.Command;
+import game.Game;
+import piece.Piece;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Offline renderer: drives a Game in game time, without Swing or a wall clock, and renders it at
+ * a fixed frame rate for replays, highlight clips and position thumbnails. Works on headless
+ * servers (-Djava.awt.headless=true).
+ *
+ * Frames are drawn like the live board (a copy of the Board image, then Piece.drawOnBoard for
+ * every piece) on the calling thread, while encoder threads compress earlier frames. A small
+ * pool of frame buffers connects the two, so rendering waits when encoding falls behind instead
+ * of piling up images.
+ */
+public class HeadlessRenderer {
+    private final double fps;
+    private final int encoderThreads;
+
+    /**
+     * @param fps Frames per game-time second
+     * @param encoderThreads Threads encoding frames for sinks that accept frames in any order
+     */
+    public HeadlessRenderer(double fps, int encoderThreads) {
+        if (!(fps > 0)) throw new IllegalArgumentException("fps must be positive: " + fps);
+        if (encoderThreads < 1) throw new IllegalArgumentException("encoderThreads must be at least 1: " + encoderThreads);
+        this.fps = fps;
+        this.encoderThreads = encoderThreads;
+    }
+
+    // Game time of frame i of a clip starting at fromMs (on a fixed grid, no drift)
+    public long frameTimeMs(long fromMs, int i) {
+        return fromMs + Math.round(i * 1000.0 / fps);
+    }
+
+    /**
+     * Play a recorded match and render it. The game ticks once per frame, at the frame's game
+     * time; each recorded command is queued on the first frame at or after its timestamp.
+     * Rendering stops at toMs or at the first frame after a win, whichever comes first.
+     *
+     * @param game Game positioned at fromMs (pieces reset), not driven by any other thread
+     * @param script Recorded commands with game-time timestamps, in any order
+     * @param fromMs Game time of the first frame
+     * @param toMs End of the clip (exclusive)
+     * @param sink Where frames go
+     * @return Number of frames written
+     */
+    public int render(Game game, List<Command> script, long fromMs, long toMs, FrameSink sink) throws IOException {
+        List<Command> pending = new ArrayList<>(script);
+        pending.sort(Comparator.comparingLong(c -> c.timestamp)); // stable: same-time commands keep their order
+
+        int threads = sink.isOrdered() ? 1 : encoderThreads; // one thread runs tasks in submission order
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService encoders = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "frame-encoder-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Two spare buffers keep the render thread busy while every encoder holds one
+        BlockingQueue<Board> free = new ArrayBlockingQueue<>(threads + 2);
+        for (int i = 0; i < threads + 2; i++) free.add(game.board.cloneBoard());
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        int frames = 0;
+        try {
+            int next = 0;
+            for (long t = fromMs; t < toMs && failure.get() == null; t = frameTimeMs(fromMs, frames)) {
+                while (next < pending.size() && pending.get(next).timestamp <= t) {
+                    game.userInputQueue.add(pending.get(next++));
+                }
+                game._tick(t);
+
+                Board frame = free.take();
+                draw(game, frame, t);
+                int index = frames++;
+                encoders.execute(() -> {
+                    try {
+                        if (failure.get() == null) sink.write(index, frame.getImg().get());
+                    } catch (IOException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        free.add(frame);
+                    }
+                });
+
+                if (game._is_win()) break;
+            }
+            encoders.shutdown();
+            while (!encoders.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting: every submitted frame is written or fails
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering interrupted after " + frames + " frames");
+        } finally {
+            encoders.shutdownNow();
+        }
+
+        Exception e = failure.get();
+        if (e instanceof IOException io) throw io;
+        if (e != null) throw (RuntimeException) e;
+        sink.finish();
+        return frames;
+    }
+
+    /**
+     * Render a single frame of the game as it is now, e.g. a position thumbnail. Reads the live
+     * pieces, so it must run on the thread that drives the game.
+     */
+    public static BufferedImage renderFrame(Game game, long nowMs) {
+        Board frame = game.board.cloneBoard();
+        draw(game, frame, nowMs);
+        return frame.getImg().get();
+    }
+
+    // The empty board, then every piece at its position and animation frame at nowMs
+    private static void draw(Game game, Board frame, long nowMs) {
+        if (game.board.getImg() == null || game.board.getImg().get() == null) {
+            throw new IllegalStateException("Board image not loaded.");
+        }
+        game.board.drawBackground(frame.getImg());
+        for (Piece p : game.pieces) p.drawOnBoard(frame, nowMs);
+    }
+}
@@ -0,0 +1,60 @@
+package tournament;
+
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.FrameSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A computer player. It sees the game only through the snapshot published after each tick and
+ * answers with commands, exactly like a keyboard would put them on the input queue.
+ * One instance plays one game, so bots may keep state between calls.
+ */
+public interface Bot {
+
+    /**
+     * Decide what to do after a tick.
+     *
+     * @param snap   The game as of the last tick
+     * @param player Side played, 1 = white, 2 = black
+     * @param out    Commands to send are appended here
+     */
+    void act(FrameSnapshot snap, int player, List<Command> out);
+
+    /**
+     * Every move a side can start now: pieces that are ready (see ReadinessIndex) and not moving,
+     * to cells their current state allows, never onto a piece of their own side.
+     */
+    static List<Command> legalMoves(FrameSnapshot snap, int player) {
+        List<Command> out = new ArrayList<>();
+        long now = snap.getTimeMs();
+        int rows = snap.getBoard().getHCells(), cols = snap.getBoard().getWCells();
+        for (FrameSnapshot.PieceView v : snap.getPieces()) {
+            if (v.player != player || v.moves == null || v.moving || v.readyAtMs > now) continue;
+            int sr = v.cell.r, sc = v.cell.c;
+            for (Pair d : v.moves.getMoves().keySet()) {
+                int tr = sr + d.r, tc = sc + d.c;
+                if (tr < 0 || tr >= rows || tc < 0 || tc >= cols) continue;
+                if (snap.pieceAt(tr, tc, player) != null) continue;
+                if (!v.moves.isValid(sr, sc, tr, tc, (r, c) -> snap.pieceAt(r, c, 1) != null || snap.pieceAt(r, c, 2) != null)) continue;
+                out.add(new Command(now, v.id, EState.MOVE, List.of(v.cell, new Pair(tr, tc))));
+            }
+        }
+        return out;
+    }
+
+    // Material value of a piece from the type letter of its id (e.g. "QW_(7,3)")
+    static int valueOf(String pieceId) {
+        switch (pieceId.charAt(0)) {
+            case 'K': return 100;
+            case 'Q': return 9;
+            case 'R': return 5;
+            case 'B':
+            case 'N': return 3;
+            default: return 1;
+        }
+    }
+}
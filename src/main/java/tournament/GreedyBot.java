@@ -0,0 +1,52 @@
+package tournament;
+
+import classes.Command;
+import classes.Pair;
+import game.FrameSnapshot;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Every thinkMs of game time, plays the move with the best immediate material balance: the value
+ * of the piece it captures, minus the value of the mover if the opponent attacks its destination.
+ * Ties are broken at random.
+ */
+public class GreedyBot implements Bot {
+    private final Random rnd;
+    private final long thinkMs;
+    private long nextMoveMs;
+
+    public GreedyBot(long seed, long thinkMs) {
+        this.rnd = new Random(seed);
+        this.thinkMs = thinkMs;
+    }
+
+    @Override
+    public void act(FrameSnapshot snap, int player, List<Command> out) {
+        if (snap.getTimeMs() < nextMoveMs) return;
+        Command best = null;
+        int bestScore = Integer.MIN_VALUE, ties = 0;
+        for (Command cmd : Bot.legalMoves(snap, player)) {
+            int score = score(snap, player, cmd);
+            if (score > bestScore) {
+                best = cmd;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && rnd.nextInt(++ties) == 0) {
+                best = cmd; // reservoir sampling: each tied move equally likely
+            }
+        }
+        if (best == null) return;
+        out.add(best);
+        nextMoveMs = snap.getTimeMs() + thinkMs;
+    }
+
+    private static int score(FrameSnapshot snap, int player, Command cmd) {
+        Pair dst = (Pair) cmd.params.get(1);
+        FrameSnapshot.PieceView target = snap.pieceAt(dst.r, dst.c, 3 - player);
+        int gain = target != null ? Bot.valueOf(target.id) : 0;
+        int risk = snap.isAttacked(3 - player, dst.r, dst.c) ? Bot.valueOf(cmd.pieceId) : 0;
+        return 10 * gain - risk;
+    }
+}
@@ -0,0 +1,73 @@
+package tournament;
+
+import classes.Command;
+import game.FrameSnapshot;
+import game.Game;
+import game.GameFactory;
+import piece.PieceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays one headless bot-vs-bot game in game time, as fast as the CPU allows: no threads, no
+ * wall clock, no graphics. Games come from a shared, preloaded piece library, so starting one
+ * only clones the pieces' state machines. Several threads may play games with one runner.
+ */
+public class MatchRunner {
+
+    public enum Outcome { WHITE, BLACK, DRAW }
+
+    /** How a game ended. */
+    public record Result(String white, String black, Outcome outcome, long gameMs) {
+        // Points of the white player: 1 win, 0.5 draw, 0 loss
+        public double whiteScore() {
+            return outcome == Outcome.WHITE ? 1 : outcome == Outcome.DRAW ? 0.5 : 0;
+        }
+    }
+
+    private final PieceFactory library;
+    private final List<String> layout;
+    private final long tickMs;
+    private final long maxGameMs;
+
+    /**
+     * @param library   Piece library after generateLibrary, shared by every game
+     * @param layout    board.csv lines
+     * @param tickMs    Game time between ticks (and bot decisions)
+     * @param maxGameMs Game time after which a game still running is a draw
+     */
+    public MatchRunner(PieceFactory library, List<String> layout, long tickMs, long maxGameMs) {
+        if (tickMs <= 0) throw new IllegalArgumentException("tickMs must be positive: " + tickMs);
+        this.library = library;
+        this.layout = layout;
+        this.tickMs = tickMs;
+        this.maxGameMs = maxGameMs;
+    }
+
+    public Result play(String whiteName, Bot white, String blackName, Bot black) {
+        Game game = GameFactory.createGame(library, layout);
+        List<Command> out = new ArrayList<>();
+        for (long t = 0; t <= maxGameMs; t += tickMs) {
+            game._tick(t);
+            FrameSnapshot snap = game.snapshot();
+            if (game._is_win()) return new Result(whiteName, blackName, winner(snap), t);
+
+            out.clear();
+            white.act(snap, 1, out);
+            black.act(snap, 2, out);
+            game.userInputQueue.addAll(out);
+        }
+        return new Result(whiteName, blackName, Outcome.DRAW, maxGameMs);
+    }
+
+    // Side whose king is still on the board
+    private static Outcome winner(FrameSnapshot snap) {
+        boolean white = false, black = false;
+        for (FrameSnapshot.PieceView v : snap.getPieces()) {
+            if (v.id.startsWith("KW")) white = true;
+            if (v.id.startsWith("KB")) black = true;
+        }
+        return white == black ? Outcome.DRAW : white ? Outcome.WHITE : Outcome.BLACK;
+    }
+}
@@ -0,0 +1,30 @@
+package tournament;
+
+import classes.Command;
+import game.FrameSnapshot;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays a random legal move every thinkMs of game time. The baseline other bots are rated against.
+ */
+public class RandomBot implements Bot {
+    private final Random rnd;
+    private final long thinkMs;
+    private long nextMoveMs;
+
+    public RandomBot(long seed, long thinkMs) {
+        this.rnd = new Random(seed);
+        this.thinkMs = thinkMs;
+    }
+
+    @Override
+    public void act(FrameSnapshot snap, int player, List<Command> out) {
+        if (snap.getTimeMs() < nextMoveMs) return;
+        List<Command> moves = Bot.legalMoves(snap, player);
+        if (moves.isEmpty()) return;
+        out.add(moves.get(rnd.nextInt(moves.size())));
+        nextMoveMs = snap.getTimeMs() + thinkMs;
+    }
+}
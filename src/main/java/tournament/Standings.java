@@ -0,0 +1,113 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores and Elo ratings of a tournament. Elo depends on the order games are recorded in, so
+ * Tournament records each round in schedule order, not in the order games finish.
+ * Safe to update from any thread and to read at any time.
+ */
+public class Standings {
+    public static final double INITIAL_RATING = 1500;
+
+    /** One entrant's record. */
+    public static final class Row {
+        public final String name;
+        private double rating = INITIAL_RATING;
+        private int wins, draws, losses, byes;
+
+        Row(String name) { this.name = name; }
+
+        public double getRating() { return rating; }
+        public int getGames() { return wins + draws + losses; }
+        public double getPoints() { return wins + 0.5 * draws + byes; }
+        public int getWins() { return wins; }
+        public int getDraws() { return draws; }
+        public int getLosses() { return losses; }
+    }
+
+    private final double kFactor;
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+    private final long startNs = System.nanoTime();
+    private long lastResultNs = startNs;
+    private long games;
+    private long gameMs;
+
+    public Standings(List<String> names, double kFactor) {
+        this.kFactor = kFactor;
+        for (String n : names) rows.put(n, new Row(n));
+    }
+
+    // Score a finished game and move both ratings toward the result
+    public synchronized void record(MatchRunner.Result r) {
+        Row w = row(r.white()), b = row(r.black());
+        double expected = 1 / (1 + Math.pow(10, (b.rating - w.rating) / 400));
+        double delta = kFactor * (r.whiteScore() - expected);
+        w.rating += delta;
+        b.rating -= delta;
+        switch (r.outcome()) {
+            case WHITE -> { w.wins++; b.losses++; }
+            case BLACK -> { b.wins++; w.losses++; }
+            default -> { w.draws++; b.draws++; }
+        }
+        games++;
+        gameMs += r.gameMs();
+        lastResultNs = System.nanoTime();
+    }
+
+    // A point for sitting out a Swiss round (odd number of entrants); ratings do not change
+    public synchronized void recordBye(String name) {
+        row(name).byes++;
+    }
+
+    private Row row(String name) {
+        Row row = rows.get(name);
+        if (row == null) throw new IllegalArgumentException("Unknown entrant " + name);
+        return row;
+    }
+
+    public synchronized double rating(String name) { return row(name).rating; }
+
+    public synchronized double points(String name) { return row(name).getPoints(); }
+
+    public synchronized long getGames() { return games; }
+
+    // Finished games per second of wall time since the standings were created
+    public synchronized double getGamesPerSecond() {
+        return games / Math.max((lastResultNs - startNs) / 1e9, 1e-9);
+    }
+
+    // Average game length in game time
+    public synchronized double getAverageGameMs() {
+        return games == 0 ? 0 : (double) gameMs / games;
+    }
+
+    // Entrants by points, then rating, best first (copies, so they do not change afterwards)
+    public synchronized List<Row> ranking() {
+        List<Row> out = new ArrayList<>();
+        for (Row r : rows.values()) {
+            Row copy = new Row(r.name);
+            copy.rating = r.rating;
+            copy.wins = r.wins;
+            copy.draws = r.draws;
+            copy.losses = r.losses;
+            copy.byes = r.byes;
+            out.add(copy);
+        }
+        out.sort(Comparator.comparingDouble(Row::getPoints).thenComparingDouble(Row::getRating).reversed());
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("%-16s %7s %6s %5s %5s %5s%n", "bot", "elo", "points", "won", "drawn", "lost"));
+        for (Row r : ranking()) {
+            sb.append(String.format("%-16s %7.1f %6.1f %5d %5d %5d%n", r.name, r.rating, r.getPoints(), r.wins, r.draws, r.losses));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package tournament;
+
+import board.Board;
+import game.BoardLayout;
+import game.GameFactory;
+import piece.PieceFactory;
+
+import java.awt.Dimension;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Bot-vs-bot tournaments, round-robin or Swiss, for tuning rules and bots over many games.
+ *
+ * Every game is a task on a fork-join pool sized to the machine, so all cores play at once. The
+ * results of a round (the whole tournament for round-robin) go into the Standings in schedule
+ * order once all its games are over, so scores, Elo and the next Swiss pairings do not depend on
+ * the order games happen to finish in. Games are created from one preloaded piece library (see
+ * MatchRunner), never from disk.
+ */
+public class Tournament {
+
+    /** A bot in the tournament: makes a fresh bot for each game from that game's seed. */
+    public record Entrant(String name, LongFunction<Bot> bots) {}
+
+    private final MatchRunner runner;
+    private final List<Entrant> entrants;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int gamesPerPairing = 2;
+    private double kFactor = 16;
+    private long seed = 1;
+    private Consumer<MatchRunner.Result> onResult = r -> {};
+
+    public Tournament(MatchRunner runner, List<Entrant> entrants) {
+        if (entrants.size() < 2) throw new IllegalArgumentException("A tournament needs at least 2 entrants");
+        Set<String> names = new HashSet<>();
+        for (Entrant e : entrants) {
+            if (!names.add(e.name())) throw new IllegalArgumentException("Duplicate entrant " + e.name());
+        }
+        this.runner = runner;
+        this.entrants = List.copyOf(entrants);
+    }
+
+    /**
+     * Load the piece library and board.csv of a pieces directory once, for every game.
+     * Bots need no images, so the board has none.
+     */
+    public static Tournament load(Path piecesRoot, List<Entrant> entrants, long tickMs, long maxGameMs) throws Exception {
+        List<String> layout = GameFactory.readLayout(piecesRoot);
+        Dimension cells = BoardLayout.size(layout);
+        PieceFactory library = new PieceFactory(new Board(64, 64, cells.width, cells.height, null));
+        library.generateLibrary(piecesRoot);
+        return new Tournament(new MatchRunner(library, layout, tickMs, maxGameMs), entrants);
+    }
+
+    public void setParallelism(int threads) {
+        this.parallelism = Math.max(1, threads);
+    }
+
+    // Games each pair (round-robin) or pairing (Swiss) plays; colours alternate between them
+    public void setGamesPerPairing(int games) {
+        if (games < 1) throw new IllegalArgumentException("games must be >= 1");
+        this.gamesPerPairing = games;
+    }
+
+    public void setKFactor(double kFactor) {
+        this.kFactor = kFactor;
+    }
+
+    // Base of every game's bot seeds: the same seed replays the same tournament, whatever the parallelism
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    // Called on a worker thread as each game finishes, before its round is recorded in the standings
+    public void setOnResult(Consumer<MatchRunner.Result> onResult) {
+        this.onResult = onResult;
+    }
+
+    /** Every entrant plays every other, gamesPerPairing games per pair. */
+    public Standings roundRobin() {
+        Standings standings = newStandings();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            for (int j = i + 1; j < entrants.size(); j++) addPairing(games, entrants.get(i), entrants.get(j));
+        }
+        play(games, standings);
+        return standings;
+    }
+
+    /**
+     * Swiss system: each round pairs entrants with equal or close scores who have not met yet,
+     * so a good ranking needs far fewer games than a round-robin. Rounds are played one after
+     * the other, the games of a round in parallel. Entrants are ranked for pairing by points,
+     * ties in entrant order. With an odd number of entrants the lowest ranked one without a bye
+     * sits out and gets a point.
+     */
+    public Standings swiss(int rounds) {
+        Standings standings = newStandings();
+        Set<String> met = new HashSet<>();
+        Set<String> hadBye = new HashSet<>();
+        for (int round = 0; round < rounds; round++) {
+            List<String> order = new ArrayList<>();
+            for (Entrant e : entrants) order.add(e.name());
+            order.sort(Comparator.comparingDouble(standings::points).reversed()); // stable: ties keep entrant order
+
+            if (order.size() % 2 == 1) {
+                for (int i = order.size() - 1; i >= 0; i--) {
+                    if (hadBye.add(order.get(i)) || i == 0) {
+                        standings.recordBye(order.remove(i));
+                        break;
+                    }
+                }
+            }
+
+            // Pair the best unpaired entrant with the next one it has not met (or the next one)
+            List<Game> games = new ArrayList<>();
+            while (!order.isEmpty()) {
+                String a = order.remove(0);
+                int k = 0;
+                while (k < order.size() - 1 && met.contains(key(a, order.get(k)))) k++;
+                String b = order.remove(k);
+                met.add(key(a, b));
+                if (round % 2 == 0) addPairing(games, entrant(a), entrant(b));
+                else addPairing(games, entrant(b), entrant(a));
+            }
+            play(games, standings);
+        }
+        return standings;
+    }
+
+    // One scheduled game
+    private record Game(Entrant white, Entrant black, long seed) {}
+
+    private void addPairing(List<Game> games, Entrant a, Entrant b) {
+        for (int g = 0; g < gamesPerPairing; g++) {
+            long s = seed * 1_000_003L + games.size() * 7919L + g;
+            games.add(g % 2 == 0 ? new Game(a, b, s) : new Game(b, a, s));
+        }
+    }
+
+    // Play the games in parallel, then record them in schedule order
+    private void play(List<Game> games, Standings standings) {
+        MatchRunner.Result[] results = new MatchRunner.Result[games.size()];
+        List<RecursiveAction> tasks = new ArrayList<>(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            Game g = games.get(i);
+            int index = i;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    MatchRunner.Result r = runner.play(g.white().name(), g.white().bots().apply(2 * g.seed()),
+                            g.black().name(), g.black().bots().apply(2 * g.seed() + 1));
+                    results[index] = r;
+                    onResult.accept(r);
+                }
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        for (MatchRunner.Result r : results) standings.record(r);
+    }
+
+    private Standings newStandings() {
+        List<String> names = new ArrayList<>();
+        for (Entrant e : entrants) names.add(e.name());
+        return new Standings(names, kFactor);
+    }
+
+    private Entrant entrant(String name) {
+        for (Entrant e : entrants) if (e.name().equals(name)) return e;
+        throw new IllegalArgumentException("Unknown entrant " + name);
+    }
+
+    private static String key(String a, String b) {
+        return a.compareTo(b) < 0 ? a + "\n" + b : b + "\n" + a;
+    }
+
+    /**
+     * Tournament [--swiss rounds] [--games N] [--threads N] [--tick ms] [--max-ms ms] [piecesDir]
+     * Plays the built-in bots against each other and prints the standings and games per second.
+     */
+    public static void main(String[] args) throws Exception {
+        int swissRounds = 0, games = 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long tickMs = 50, maxMs = 600_000;
+        Path piecesRoot = null;
+        for (int a = 0; a < args.length; a++) {
+            switch (args[a]) {
+                case "--swiss" -> swissRounds = Integer.parseInt(args[++a]);
+                case "--games" -> games = Integer.parseInt(args[++a]);
+                case "--threads" -> threads = Integer.parseInt(args[++a]);
+                case "--tick" -> tickMs = Long.parseLong(args[++a]);
+                case "--max-ms" -> maxMs = Long.parseLong(args[++a]);
+                default -> piecesRoot = Paths.get(args[a]);
+            }
+        }
+        if (piecesRoot == null) {
+            URI uri = Tournament.class.getClassLoader().getResource("pieces").toURI();
+            piecesRoot = Paths.get(uri);
+        }
+
+        List<Entrant> entrants = List.of(
+                new Entrant("random", s -> new RandomBot(s, 500)),
+                new Entrant("greedy-fast", s -> new GreedyBot(s, 200)),
+                new Entrant("greedy", s -> new GreedyBot(s, 500)),
+                new Entrant("greedy-slow", s -> new GreedyBot(s, 1500)));
+        Tournament t = load(piecesRoot, entrants, tickMs, maxMs);
+        t.setParallelism(threads);
+        t.setGamesPerPairing(games);
+        System.out.printf("%s, %d games per pairing, %d threads%n",
+                swissRounds > 0 ? "swiss " + swissRounds + " rounds" : "round-robin", games, threads);
+
+        Standings standings = swissRounds > 0 ? t.swiss(swissRounds) : t.roundRobin();
+        System.out.print(standings);
+        System.out.printf("%d games, %.1f games/s, average game %.1f s of game time%n",
+                standings.getGames(), standings.getGamesPerSecond(), standings.getAverageGameMs() / 1000);
+    }
+}
@@ -0,0 +1,66 @@
+package trace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets over microseconds.
+ * Bucket i holds samples in [2^(i-1), 2^i) µs, bucket 0 holds samples below 1 µs.
+ */
+public class LatencyHistogram {
+    // 2^40 µs is about 12 days – anything slower lands in the last bucket
+    private static final int BUCKETS = 41;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(3); // count, sum(µs), max(µs)
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // Record one sample given in nanoseconds (negative values are clamped to 0)
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, micros);
+        long prevMax;
+        do {
+            prevMax = totals.get(2);
+        } while (micros > prevMax && !totals.compareAndSet(2, prevMax, micros));
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return totals.get(0); }
+    public long getMaxMicros() { return totals.get(2); }
+
+    public double getMeanMicros() {
+        long n = totals.get(0);
+        return n == 0 ? 0 : totals.get(1) / (double) n;
+    }
+
+    /**
+     * Returns the upper bound (µs) of the bucket containing the given percentile.
+     *
+     * @param pct percentile in the range (0, 100]
+     */
+    public long percentileMicros(double pct) {
+        long n = getCount();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(n * pct / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBoundMicros(i), getMaxMicros());
+        }
+        return getMaxMicros();
+    }
+
+    // Raw bucket count, used for CSV export
+    public long bucketCount(int bucket) { return counts.get(bucket); }
+
+    public static int bucketCount() { return BUCKETS; }
+
+    public static long upperBoundMicros(int bucket) { return 1L << bucket; }
+}
@@ -0,0 +1,153 @@
+package trace;
+
+import classes.Command;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traces user commands from the key press that created them until their effect is on screen.
+ * Every stage is stamped with System.nanoTime(), so the tracer is independent of the game clock.
+ *
+ * Stages: CREATED (keyBoard.KeyboardProcessor) → ENQUEUED (put on userInputQueue) →
+ * DEQUEUED (game loop picks it up) → HANDLED (accepted or rejected by classes.State) →
+ * SHOWN (the next frame was put on screen: BufferStrategy.show in ui.BoardCanvas, or the end of
+ * paintComponent in ui.BoardPanel).
+ */
+public class LatencyTracer {
+
+    public enum Stage { CREATED, ENQUEUED, DEQUEUED, HANDLED, SHOWN }
+
+    // Upper bound on accepted commands waiting for a frame (headless games never show one)
+    private static final int MAX_AWAITING_RENDER = 4096;
+
+    // Stage stamps of commands still in flight, keyed by command identity
+    private final Map<Command, long[]> inFlight = new ConcurrentHashMap<>();
+    // Accepted commands waiting for the next rendered frame
+    private final Queue<long[]> awaitingRender = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger awaitingCount = new AtomicInteger();
+
+    // One distribution per stage-to-stage hop, plus the end-to-end total
+    public final LatencyHistogram createToEnqueue = new LatencyHistogram("create->enqueue");
+    public final LatencyHistogram queueWait = new LatencyHistogram("enqueue->dequeue");
+    public final LatencyHistogram handle = new LatencyHistogram("dequeue->handled");
+    public final LatencyHistogram handleToFrame = new LatencyHistogram("handled->shown");
+    public final LatencyHistogram endToEnd = new LatencyHistogram("create->shown");
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public void created(Command cmd) {
+        long[] stamps = new long[Stage.values().length];
+        stamps[Stage.CREATED.ordinal()] = System.nanoTime();
+        inFlight.put(cmd, stamps);
+    }
+
+    // Stamp right before the queue hand-off, so the game thread always sees it
+    public void enqueued(Command cmd) {
+        stamp(cmd, Stage.ENQUEUED);
+    }
+
+    public void dequeued(Command cmd) {
+        stamp(cmd, Stage.DEQUEUED);
+    }
+
+    /**
+     * Marks the command as handled by the piece state machine.
+     * Rejected commands end their trace here; accepted ones wait for the next frame shown.
+     */
+    public void handled(Command cmd, boolean wasAccepted) {
+        long[] stamps = inFlight.remove(cmd);
+        if (stamps == null) return; // command was not created through a traced processor
+        stamps[Stage.HANDLED.ordinal()] = System.nanoTime();
+        record(createToEnqueue, stamps, Stage.CREATED, Stage.ENQUEUED);
+        record(queueWait, stamps, Stage.ENQUEUED, Stage.DEQUEUED);
+        record(handle, stamps, Stage.DEQUEUED, Stage.HANDLED);
+
+        if (!wasAccepted) {
+            rejected.incrementAndGet();
+            return;
+        }
+        accepted.incrementAndGet();
+        if (awaitingCount.incrementAndGet() > MAX_AWAITING_RENDER) {
+            awaitingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        awaitingRender.add(stamps);
+    }
+
+    // Called once per frame put on screen: every accepted command so far is now visible
+    public void shown() {
+        if (awaitingCount.get() == 0) return;
+        long now = System.nanoTime();
+        long[] stamps;
+        while ((stamps = awaitingRender.poll()) != null) {
+            awaitingCount.decrementAndGet();
+            stamps[Stage.SHOWN.ordinal()] = now;
+            record(handleToFrame, stamps, Stage.HANDLED, Stage.SHOWN);
+            record(endToEnd, stamps, Stage.CREATED, Stage.SHOWN);
+        }
+    }
+
+    public long getAccepted() { return accepted.get(); }
+    public long getRejected() { return rejected.get(); }
+
+    public LatencyHistogram[] histograms() {
+        return new LatencyHistogram[]{createToEnqueue, queueWait, handle, handleToFrame, endToEnd};
+    }
+
+    // Human readable summary, one line per stage (values in milliseconds)
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("commands: accepted=%d rejected=%d dropped=%d%n",
+                accepted.get(), rejected.get(), dropped.get()));
+        sb.append(String.format("%-20s %8s %9s %9s %9s %9s %9s%n", "stage", "count", "mean", "p50", "p90", "p99", "max"));
+        for (LatencyHistogram h : histograms()) {
+            sb.append(String.format("%-20s %8d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    h.getName(), h.getCount(),
+                    h.getMeanMicros() / 1000.0,
+                    h.percentileMicros(50) / 1000.0,
+                    h.percentileMicros(90) / 1000.0,
+                    h.percentileMicros(99) / 1000.0,
+                    h.getMaxMicros() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    // Export the raw bucket counts: one row per stage, one column per bucket upper bound (µs)
+    public void exportCsv(Writer out) throws IOException {
+        PrintWriter pw = new PrintWriter(out);
+        pw.print("stage");
+        for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+            pw.print(",le_" + LatencyHistogram.upperBoundMicros(i) + "us");
+        }
+        pw.println();
+        for (LatencyHistogram h : histograms()) {
+            pw.print(h.getName());
+            for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+                pw.print("," + h.bucketCount(i));
+            }
+            pw.println();
+        }
+        pw.flush();
+    }
+
+    private void stamp(Command cmd, Stage stage) {
+        long[] stamps = inFlight.get(cmd);
+        if (stamps != null) stamps[stage.ordinal()] = System.nanoTime();
+    }
+
+    private static void record(LatencyHistogram h, long[] stamps, Stage from, Stage to) {
+        long a = stamps[from.ordinal()], b = stamps[to.ordinal()];
+        if (a != 0 && b != 0) h.record(b - a);
+    }
+}
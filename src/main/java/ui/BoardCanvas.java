@@ -0,0 +1,87 @@
+package ui;
+
+import game.Game;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Actively rendered board: a dedicated thread draws every frame into a BufferStrategy at a
+ * fixed rate (see FramePacer), so pieces animate while they move and the event dispatch thread
+ * only handles input. Use instead of BoardPanel when the screen should update on its own.
+ */
+public class BoardCanvas extends Canvas {
+    private final BoardOverlay overlay;
+    private final FramePacer pacer;
+
+    private volatile boolean running;
+    private Thread renderThread;
+
+    public BoardCanvas(Game game, int localPlayer, double fps) {
+        this.overlay = new BoardOverlay(game, localPlayer);
+        this.pacer = new FramePacer(fps);
+        setPreferredSize(new Dimension(800, 600));
+        setFocusable(true);
+        setIgnoreRepaint(true); // every pixel comes from the render thread
+        addKeyListener(overlay.keyListener(() -> { }));
+    }
+
+    /** Start the render thread; the canvas must already be displayable (its window packed). */
+    public synchronized void start() {
+        if (running) return;
+        if (!isDisplayable()) throw new IllegalStateException("BoardCanvas must be displayable before start()");
+        createBufferStrategy(2);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "board-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (renderThread == null) return;
+        renderThread.interrupt();
+        try {
+            renderThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        renderThread = null;
+    }
+
+    // Frames shown so far
+    public long getFramesRendered() { return pacer.getFrames(); }
+
+    // Frames skipped because rendering fell behind the target rate
+    public long getFramesDropped() { return pacer.getDropped(); }
+
+    @Override
+    public void removeNotify() {
+        stop(); // the buffer strategy goes away with the peer
+        super.removeNotify();
+    }
+
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        while (running) {
+            pacer.awaitFrame();
+            if (!running) break;
+            // Redraw until the back buffer survived, then flip
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        g.setColor(getBackground());
+                        g.fillRect(0, 0, getWidth(), getHeight());
+                        overlay.paint(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            overlay.shown();
+        }
+    }
+}
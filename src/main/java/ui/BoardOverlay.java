@@ -0,0 +1,111 @@
+package ui;
+
+import classes.Pair;
+import game.FrameSnapshot;
+import game.Game;
+import trace.LatencyTracer;
+
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Board drawing and keyboard handling shared by BoardPanel (repaint on input) and BoardCanvas
+ * (active rendering thread).
+ */
+class BoardOverlay {
+    private final Game game;
+    private final int localPlayer;
+
+    BoardOverlay(Game game, int localPlayer) {
+        this.game = game;
+        this.localPlayer = localPlayer;
+    }
+
+    // Board with pieces, then the highlights on top
+    void paint(Graphics g) {
+        BufferedImage image = game.getCurrentBoardImage(); // includes board + pieces
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+
+        // Highlights come from the snapshot published by the game loop, not from the live pieces
+        FrameSnapshot snap = game.snapshot();
+        drawDangerHighlights(g, snap);
+        drawCursors(g);
+        drawSelectedHighlights(g, snap);
+    }
+
+    // A frame painted by paint is now on screen
+    void shown() {
+        LatencyTracer tracer = game.getLatencyTracer();
+        if (tracer != null) tracer.shown();
+    }
+
+    // Forwards key presses to the keyboard processor of each player this keyboard controls
+    KeyAdapter keyListener(Runnable afterKey) {
+        return new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                String key = KeyEvent.getKeyText(e.getKeyCode()).toLowerCase();
+                if (localPlayer != 2) game.kp1.processKey(key, 1); // For player 1
+                if (localPlayer != 1) game.kp2.processKey(key, 2); // For player 2
+
+                afterKey.run();
+            }
+        };
+    }
+
+    // Tint the cells of this keyboard's pieces that the opponent attacks
+    private void drawDangerHighlights(Graphics g, FrameSnapshot snap) {
+        int cellH = game.board.getCellHPix();
+        int cellW = game.board.getCellWPix();
+        g.setColor(new Color(255, 0, 0, 70));
+        for (int player = 1; player <= 2; player++) {
+            if (localPlayer != 0 && localPlayer != player) continue;
+            for (int r = 0; r < game.board.getHCells(); r++) {
+                for (int c = 0; c < game.board.getWCells(); c++) {
+                    if (snap.pieceAt(r, c, player) != null && snap.isAttacked(3 - player, r, c)) {
+                        g.fillRect(c * cellW, r * cellH, cellW, cellH);
+                    }
+                }
+            }
+        }
+    }
+
+    private void drawCursors(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setStroke(new BasicStroke(4));
+
+        int cellH = game.board.getCellHPix();
+        int cellW = game.board.getCellWPix();
+
+        // Player 1
+        int[] c1 = game.kp1.getCursor(1);
+        g2.setColor(Color.RED);
+        g2.drawRect(c1[1] * cellW, c1[0] * cellH, cellW - 1, cellH - 1);
+
+        // Player 2
+        int[] c2 = game.kp2.getCursor(2);
+        g2.setColor(Color.BLUE);
+        g2.drawRect(c2[1] * cellW, c2[0] * cellH, cellW - 1, cellH - 1);
+    }
+
+    private void drawSelectedHighlights(Graphics g, FrameSnapshot snap) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setStroke(new BasicStroke(3));
+        int cellH = game.board.getCellHPix();
+        int cellW = game.board.getCellWPix();
+
+        for (String id : new String[]{game.selected_id_1, game.selected_id_2}) {
+            if (id == null) continue;
+            FrameSnapshot.PieceView p = snap.byId(id);
+            if (p != null) {
+                Pair cell = p.cell;
+                g2.setColor(Color.YELLOW);
+                g2.drawRect(cell.c * cellW, cell.r * cellH, cellW - 1, cellH - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ui;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces a render loop to a fixed frame rate, like vsync: frame deadlines fall on a fixed grid
+ * (start + k * period), so a slow frame does not shift every later one. When the loop falls
+ * behind by whole periods, those frames are counted as dropped and skipped instead of being
+ * rendered late in a burst.
+ */
+public class FramePacer {
+    // Wake this long before a deadline and spin the rest, parkNanos oversleeps by ~50-100 us
+    private static final long SPIN_NANOS = 200_000;
+
+    private final long periodNanos;
+    private final LongSupplier clock;
+    private final LongConsumer sleeper;
+
+    private long nextDeadline = Long.MIN_VALUE;
+    private long frames;
+    private long dropped;
+
+    public FramePacer(double fps) {
+        this(fps, System::nanoTime, FramePacer::sleepUntil);
+    }
+
+    /**
+     * @param fps Target frames per second
+     * @param clock Nanosecond clock
+     * @param sleeper Blocks until the clock reaches the given deadline
+     */
+    public FramePacer(double fps, LongSupplier clock, LongConsumer sleeper) {
+        if (!(fps > 0)) throw new IllegalArgumentException("fps must be positive: " + fps);
+        this.periodNanos = Math.round(1_000_000_000L / fps);
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Wait for the next frame deadline. Call once per frame, before rendering it.
+     *
+     * @return Number of frames dropped since the previous call (0 when on time)
+     */
+    public long awaitFrame() {
+        long now = clock.getAsLong();
+        if (nextDeadline == Long.MIN_VALUE) nextDeadline = now; // first frame renders at once
+
+        long missed = 0;
+        if (now - nextDeadline >= periodNanos) {
+            // Missed one or more whole deadlines: skip to the latest one that already passed
+            missed = (now - nextDeadline) / periodNanos;
+            nextDeadline += missed * periodNanos;
+            dropped += missed;
+        } else if (now < nextDeadline) {
+            sleeper.accept(nextDeadline);
+        }
+        nextDeadline += periodNanos;
+        frames++;
+        return missed;
+    }
+
+    public long getPeriodNanos() { return periodNanos; }
+
+    // Frames released by awaitFrame
+    public long getFrames() { return frames; }
+
+    // Deadlines skipped because the loop was late
+    public long getDropped() { return dropped; }
+
+    private static void sleepUntil(long deadline) {
+        long left;
+        while ((left = deadline - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(left - SPIN_NANOS);
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+        while (System.nanoTime() < deadline) Thread.onSpinWait();
+    }
+}
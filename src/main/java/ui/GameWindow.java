@@ -35,6 +35,17 @@ import java.awt.*;
 public class GameWindow extends JFrame {
 
     public GameWindow(Game game) {
+        this(game, 0);
+    }
+
+    // localPlayer: 1 or 2 when this window is one seat of a networked match, 0 for a shared keyboard
+    public GameWindow(Game game, int localPlayer) {
+        this(game, localPlayer, 0);
+    }
+
+    // fps > 0 renders the board actively on its own thread at that rate (BoardCanvas),
+    // otherwise it is repainted after key presses (BoardPanel)
+    public GameWindow(Game game, int localPlayer, double fps) {
         setTitle("♛ KFCESS - Real-Time Chess ♛");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -48,9 +59,15 @@ public class GameWindow extends JFrame {
         titleLabel.setBorder(BorderFactory.createEmptyBorder(20, 10, 20, 10));
         add(titleLabel, BorderLayout.NORTH);
 
-        BoardPanel boardPanel = new BoardPanel(game);
-        boardPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
-        add(boardPanel, BorderLayout.CENTER);
+        Component board;
+        if (fps > 0) {
+            board = new BoardCanvas(game, localPlayer, fps);
+        } else {
+            BoardPanel boardPanel = new BoardPanel(game, localPlayer);
+            boardPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+            board = boardPanel;
+        }
+        add(board, BorderLayout.CENTER);
 
         MovesLogPanel player1Log = new MovesLogPanel("Player 1 Moves");
         MovesLogPanel player2Log = new MovesLogPanel("Player 2 Moves");
@@ -62,6 +79,7 @@ public class GameWindow extends JFrame {
         setLocationRelativeTo(null);
         setVisible(true);
 
-        SwingUtilities.invokeLater(() -> boardPanel.requestFocusInWindow());
+        if (board instanceof BoardCanvas canvas) canvas.start();
+        SwingUtilities.invokeLater(board::requestFocusInWindow);
     }
 }
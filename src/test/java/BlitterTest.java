@@ -0,0 +1,130 @@
+import img.Blitter;
+import img.BuffImg;
+import img.Img;
+import img.SpriteFormat;
+import org.junit.jupiter.api.Test;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlitterTest {
+    private static final int[] TARGETS = {
+            BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE};
+
+    // Opaque core, translucent ring and transparent corners
+    private static BufferedImage sprite(int size, int colours) {
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Random rnd = new Random(11);
+        int[] palette = new int[colours];
+        for (int i = 0; i < colours; i++) palette[i] = rnd.nextInt(0x1000000);
+        double c = (size - 1) / 2.0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double d = Math.hypot(x - c, y - c);
+                int rgb = palette[rnd.nextInt(colours)];
+                if (d < size * 0.3) img.setRGB(x, y, 0xFF000000 | rgb);
+                else if (d < size * 0.45) img.setRGB(x, y, ((int) (255 * (size * 0.45 - d) / (size * 0.15)) << 24) | rgb);
+            }
+        }
+        return img;
+    }
+
+    private static BufferedImage target(int type, int alpha) {
+        BufferedImage dst = new BufferedImage(50, 40, type);
+        Random rnd = new Random(5);
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 50; x++) dst.setRGB(x, y, (alpha << 24) | rnd.nextInt(0x1000000));
+        }
+        return dst;
+    }
+
+    private static BufferedImage java2d(BufferedImage src, BufferedImage dst, int x, int y) {
+        Graphics2D g = dst.createGraphics();
+        g.setComposite(AlphaComposite.SrcOver);
+        g.drawImage(src, x, y, null);
+        g.dispose();
+        return dst;
+    }
+
+    private static void assertClose(BufferedImage want, BufferedImage got, String what) {
+        for (int y = 0; y < want.getHeight(); y++) {
+            for (int x = 0; x < want.getWidth(); x++) {
+                int a = want.getRGB(x, y), b = got.getRGB(x, y);
+                if ((a >>> 24) == 0 && (b >>> 24) == 0) continue; // colour of transparent pixels is irrelevant
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int diff = Math.abs(((a >>> shift) & 0xFF) - ((b >>> shift) & 0xFF));
+                    assertTrue(diff <= 3, what + " pixel (" + x + "," + y + "): "
+                            + Integer.toHexString(a) + " vs " + Integer.toHexString(b));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesJava2DWithClipping() {
+        Img base = new BuffImg(sprite(24, 200));
+        int[][] positions = {{5, 5}, {-10, 3}, {40, 30}, {-7, -9}, {30, -20}, {60, 0}};
+        for (SpriteFormat f : new SpriteFormat[]{SpriteFormat.ARGB, SpriteFormat.ARGB_PRE, SpriteFormat.INDEXED}) {
+            BufferedImage src = f.convert(base).get();
+            for (int type : TARGETS) {
+                for (int alpha : new int[]{255, 0, 120}) {
+                    if (alpha != 255 && type == BufferedImage.TYPE_INT_RGB) continue;
+                    for (int[] p : positions) {
+                        BufferedImage want = java2d(src, target(type, alpha), p[0], p[1]);
+                        BufferedImage got = target(type, alpha);
+                        assertTrue(Blitter.blit(src, got, p[0], p[1]));
+                        assertClose(want, got, f + " onto type " + type + " alpha " + alpha + " at " + p[0] + "," + p[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOpaqueSourceAndSubimages() {
+        BufferedImage rgb = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 16; i++) rgb.setRGB(i, i, 0x123456);
+        BufferedImage big = target(BufferedImage.TYPE_INT_ARGB, 255);
+        BufferedImage sub = big.getSubimage(10, 8, 30, 20);
+        BufferedImage want = target(BufferedImage.TYPE_INT_ARGB, 255);
+        java2d(rgb, want.getSubimage(10, 8, 30, 20), 20, 12);
+        assertTrue(Blitter.blit(rgb, sub, 20, 12)); // clipped by the subimage, not the parent
+        assertClose(want, big, "subimage");
+    }
+
+    @Test
+    void testDrawOnClipsInsteadOfThrowing() {
+        BuffImg dst = new BuffImg(target(BufferedImage.TYPE_INT_RGB, 255));
+        Img sprite = new BuffImg(sprite(24, 4));
+        BufferedImage want = java2d(sprite.get(), target(BufferedImage.TYPE_INT_RGB, 255), 40, 30);
+        sprite.drawOn(dst, 40, 30);
+        assertClose(want, dst.get(), "drawOn");
+        sprite.drawOn(dst, 500, 500); // entirely outside: nothing to do
+
+        // RLE sprites clip the same way
+        BuffImg dst2 = new BuffImg(target(BufferedImage.TYPE_INT_RGB, 255));
+        SpriteFormat.RLE.convert(sprite).drawOn(dst2, 40, 30);
+        assertClose(want, dst2.get(), "rle drawOn");
+    }
+
+    @Test
+    void testDrawAllFallsBackForUnsupportedTypes() {
+        BufferedImage gray = new BufferedImage(8, 8, BufferedImage.TYPE_BYTE_GRAY);
+        Img[] sprites = {new BuffImg(sprite(24, 4)), new BuffImg(gray), SpriteFormat.RLE.convert(new BuffImg(sprite(24, 4)))};
+        int[] pos = {-3, -3, 45, 35, 20, 10};
+        BufferedImage want = target(BufferedImage.TYPE_INT_ARGB, 255);
+        for (int i = 0; i < 3; i++) java2d(sprites[i].get(), want, pos[2 * i], pos[2 * i + 1]);
+        BuffImg got = new BuffImg(target(BufferedImage.TYPE_INT_ARGB, 255));
+        Blitter.drawAll(got, sprites, pos, 3);
+        assertClose(want, got.get(), "batch");
+        assertFalse(Blitter.canBlit(gray, want));
+        // Prepared and as-loaded sprites all take the blitter's row loops
+        assertTrue(Blitter.canBlit(SpriteFormat.INDEXED.convert(sprites[0]).get(), want));
+        assertTrue(Blitter.canBlit(SpriteFormat.ARGB_PRE.convert(sprites[0]).get(), want));
+        assertTrue(Blitter.canBlit(sprites[0].get(), want));
+    }
+}
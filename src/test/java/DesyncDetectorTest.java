@@ -0,0 +1,100 @@
+import board.Board;
+import classes.Command;
+import game.DesyncDetector;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.PieceFactory;
+import tournament.Bot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DesyncDetectorTest {
+    private static PieceFactory library;
+
+    private static final List<String> LAYOUT = List.of(
+            "RB,NB,BB,QB,KB,BB,NB,RB", "PB,PB,PB,PB,PB,PB,PB,PB", ",,,,,,,", ",,,,,,,",
+            ",,,,,,,", ",,,,,,,", "PW,PW,PW,PW,PW,PW,PW,PW", "RW,NW,BW,QW,KW,BW,NW,RW");
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        library = new PieceFactory(new Board(64, 64, 8, 8, null));
+        library.generateLibrary(pieces);
+    }
+
+    // A random game of 200 ticks, 50 ms apart, with the detector attached from the start; one
+    // piece's timer is nudged before tamperTick (-1 = never)
+    private static DesyncDetector play(Game game, DesyncDetector detector, long seed, int tamperTick) {
+        game.setDesyncDetector(detector);
+        Random rnd = new Random(seed);
+        for (int tick = 0; tick < 200; tick++) {
+            for (int player = 1; player <= 2; player++) {
+                List<Command> moves = Bot.legalMoves(game.snapshot(), player);
+                if (!moves.isEmpty() && rnd.nextInt(3) == 0) game.userInputQueue.add(moves.get(rnd.nextInt(moves.size())));
+            }
+            if (tick == tamperTick) game.pieces.get(0).state.physics.startMs += 1;
+            game._tick(tick * 50L);
+        }
+        return detector;
+    }
+
+    private static DesyncDetector play(long seed) {
+        Game game = GameFactory.createGame(library, LAYOUT);
+        return play(game, new DesyncDetector(game, null), seed, -1);
+    }
+
+    @Test
+    void testSameCommandsSameChecksums() {
+        DesyncDetector a = play(5);
+        DesyncDetector b = play(5);
+        for (DesyncDetector.Entry e : a.entries()) b.expect(e.tick(), e.checksum());
+        assertNull(b.getDesync());
+        assertEquals(a.checksum(), b.checksum());
+        assertNull(DesyncDetector.replay(GameFactory.createGame(library, LAYOUT), a.entries()));
+    }
+
+    @Test
+    void testFirstDivergentTickIsReported() {
+        DesyncDetector a = play(5);
+
+        // The peer's checksums arrive before this game plays the ticks
+        Game game = GameFactory.createGame(library, LAYOUT);
+        List<DesyncDetector.Desync> reports = new ArrayList<>();
+        DesyncDetector b = new DesyncDetector(game, reports::add);
+        for (DesyncDetector.Entry e : a.entries()) b.expect(e.tick(), e.checksum());
+        play(game, b, 5, 120);
+
+        assertEquals(1, reports.size());
+        DesyncDetector.Desync d = reports.get(0);
+        assertEquals(120, d.tick());
+        assertEquals(6000, d.nowMs());
+        Piece tampered = game.pieces.get(0);
+        assertTrue(d.dump().contains(tampered.id + " state="), d.dump());
+    }
+
+    @Test
+    void testReplayFindsMissingCommand() {
+        List<DesyncDetector.Entry> recording = play(9).entries();
+        int dropped = -1;
+        List<DesyncDetector.Entry> edited = new ArrayList<>();
+        for (DesyncDetector.Entry e : recording) {
+            if (dropped < 0 && !e.commands().isEmpty()) {
+                dropped = (int) e.tick();
+                e = new DesyncDetector.Entry(e.tick(), e.nowMs(), List.of(), e.checksum());
+            }
+            edited.add(e);
+        }
+        DesyncDetector.Desync d = DesyncDetector.replay(GameFactory.createGame(library, LAYOUT), edited);
+        assertNotNull(d);
+        assertEquals(dropped, d.tick());
+    }
+}
@@ -0,0 +1,107 @@
+import board.Board;
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import physics.FixedPoint;
+import physics.Physics;
+import piece.Piece;
+import piece.PieceFactory;
+import tournament.Bot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointTest {
+    private static PieceFactory library;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        library = new PieceFactory(new Board(64, 64, 8, 8, null));
+        library.getBoard().setFixedPoint(true);
+        library.generateLibrary(pieces);
+    }
+
+    @Test
+    void testArithmetic() {
+        assertEquals(3, FixedPoint.toCell(FixedPoint.ofCell(3) + FixedPoint.HALF - 1));
+        assertEquals(4, FixedPoint.toCell(FixedPoint.ofCell(3) + FixedPoint.HALF));
+        assertEquals(0, FixedPoint.toCell(-FixedPoint.HALF)); // like Math.round(-0.5)
+        assertEquals(32, FixedPoint.toPix(FixedPoint.HALF, 64));
+
+        for (long v = 0; v < 10_000; v++) {
+            long r = FixedPoint.isqrt(v);
+            assertTrue(r * r <= v && (r + 1) * (r + 1) > v, "isqrt " + v);
+        }
+        long big = 3_037_000_499L; // largest root whose square fits a long
+        assertEquals(big, FixedPoint.isqrt(big * big));
+        assertEquals(big - 1, FixedPoint.isqrt(big * big - 1));
+
+        assertEquals(4000, FixedPoint.durationMs(6 * FixedPoint.ONE, 3 * FixedPoint.HALF));
+        assertEquals(667, FixedPoint.durationMs(FixedPoint.ONE, 3 * FixedPoint.HALF)); // rounded up
+        assertEquals(Long.MAX_VALUE, FixedPoint.durationMs(FixedPoint.ONE, 0));
+    }
+
+    @Test
+    void testMovePositionsAreExact() {
+        Game game = GameFactory.createGame(library, List.of(
+                "KB,,,,,,,", ",,,,,,,", ",,,,,,,", ",,,,,,,",
+                "RW,,,,,,,", ",,,,,,,", ",,,,,,,", ",,,,,,,KW"));
+        game._tick(0);
+        game.userInputQueue.add(new Command(0, "RW_(4,0)", EState.MOVE, List.of(new Pair(4, 0), new Pair(4, 6))));
+        game._tick(0);
+        Piece rook = game.occupancy.pieceAt(4, 0, 1);
+
+        // 6 cells at 1.5 cells/s: 4000 ms, 1.5 cells (98304) a second
+        long[] expectedX = {0, 98304, 196608, 294912};
+        for (int s = 1; s < 4; s++) {
+            game._tick(s * 1000L);
+            Physics ph = rook.state.physics;
+            assertEquals(expectedX[s], ph.getPosXFx(), "x at " + s + " s");
+            assertEquals(FixedPoint.ofCell(4), ph.getPosYFx());
+            assertEquals(FixedPoint.toCell(expectedX[s]), ph.getCurrCol());
+        }
+        game._tick(3999);
+        assertEquals(EState.MOVE.toString().toLowerCase(), rook.state.name.toLowerCase());
+        game._tick(4000);
+        assertEquals(new Pair(4, 6), rook.currentCell());
+        assertEquals(FixedPoint.ofCell(6), rook.state.physics.getPosXFx());
+    }
+
+    // Every fixed-point position after every tick of a random 8x8 game, folded into one number
+    private static long playChecksum() {
+        Game game = GameFactory.createGame(library, List.of(
+                "RB,NB,BB,QB,KB,BB,NB,RB", "PB,PB,PB,PB,PB,PB,PB,PB", ",,,,,,,", ",,,,,,,",
+                ",,,,,,,", ",,,,,,,", "PW,PW,PW,PW,PW,PW,PW,PW", "RW,NW,BW,QW,KW,BW,NW,RW"));
+        Random rnd = new Random(11);
+        long sum = 17;
+        for (long now = 0; now <= 20_000; now += 37) {
+            for (int player = 1; player <= 2; player++) {
+                List<Command> moves = Bot.legalMoves(game.snapshot(), player);
+                if (!moves.isEmpty() && rnd.nextInt(4) == 0) game.userInputQueue.add(moves.get(rnd.nextInt(moves.size())));
+            }
+            game._tick(now);
+            for (Piece p : game.pieces) {
+                sum = sum * 31 + p.id.hashCode();
+                sum = sum * 31 + p.state.physics.getPosXFx();
+                sum = sum * 31 + p.state.physics.getPosYFx();
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    void testScriptedGameChecksumIsStable() {
+        // Golden value: any JVM on any platform must produce exactly this
+        assertEquals(playChecksum(), playChecksum());
+        assertEquals(-5583097527245254153L, playChecksum());
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import ui.FramePacer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FramePacerTest {
+    private long now = 1_000_000;
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private FramePacer pacer(double fps) {
+        return new FramePacer(fps, () -> now, deadline -> {
+            sleeps.add(deadline);
+            now = deadline;
+        });
+    }
+
+    @Test
+    void testFramesFallOnFixedGrid() {
+        FramePacer p = pacer(50); // 20 ms
+        assertEquals(0, p.awaitFrame());           // first frame at once, at 1 ms
+        now += 5_000_000;                          // a 5 ms frame
+        assertEquals(0, p.awaitFrame());           // sleeps until 21 ms
+        now += 25_000_000;                         // a 25 ms frame: late, but by less than a period
+        assertEquals(0, p.awaitFrame());           // no sleep at 46 ms
+        p.awaitFrame();
+        assertEquals(List.of(21_000_000L, 61_000_000L), sleeps, "the grid is not shifted by the slow frame");
+        assertEquals(4, p.getFrames());
+        assertEquals(0, p.getDropped());
+    }
+
+    @Test
+    void testLateFramesAreDroppedNotBurst() {
+        FramePacer p = pacer(100); // 10 ms
+        p.awaitFrame();                            // at 1 ms
+        now += 35_000_000;                         // a 35 ms hitch
+        assertEquals(2, p.awaitFrame());           // 11 and 21 ms are dropped, this frame stands in for 31 ms
+        assertEquals(2, p.getDropped());
+        p.awaitFrame();                            // next deadline is 41 ms, not 11 ms
+        assertEquals(41_000_000L, now);
+        assertEquals(3, p.getFrames());
+    }
+
+    @Test
+    void testRejectsBadRate() {
+        assertThrows(IllegalArgumentException.class, () -> new FramePacer(0));
+        assertThrows(IllegalArgumentException.class, () -> new FramePacer(Double.NaN));
+    }
+}
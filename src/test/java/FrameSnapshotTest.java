@@ -0,0 +1,151 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.FrameSnapshot;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameSnapshotTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        game = GameFactory.createGame(pieces);
+        for (Piece p : game.pieces) p.reset(0);
+        game._tick(0);
+    }
+
+    @Test
+    void testPublishedSnapshotDoesNotChangeWithLaterTicks() {
+        FrameSnapshot before = game.snapshot();
+        assertEquals(32, before.getPieces().size());
+        Piece pawn = game.occupancy.pieceAt(6, 4, 1);
+        Piece rook = game.occupancy.pieceAt(7, 0, 1);
+
+        game._process_input(new Command(0, pawn.id, EState.MOVE, List.of(new Pair(6, 4), new Pair(4, 4))));
+        game._tick(2000);
+        FrameSnapshot after = game.snapshot();
+
+        assertEquals(before.getSeq() + 1, after.getSeq());
+        assertEquals(2000, after.getTimeMs());
+        assertEquals(new Pair(6, 4), before.byId(pawn.id).cell);
+        assertSame(before.byId(pawn.id), before.pieceAt(6, 4, 1));
+        assertEquals(new Pair(4, 4), after.byId(pawn.id).cell);
+        assertNull(after.pieceAt(6, 4, 1));
+
+        // Pieces that did not change share their view with the previous snapshot
+        assertSame(before.byId(rook.id), after.byId(rook.id));
+        assertSame(rook.state.physics.getMotion(), rook.state.physics.getMotion(), "resting motion is cached");
+        assertSame(before.byId(rook.id).motion, after.byId(rook.id).motion);
+    }
+
+    @Test
+    void testCapturedPieceOnlyLeavesLaterSnapshots() {
+        FrameSnapshot before = game.snapshot();
+        Piece knight = game.occupancy.pieceAt(0, 1, 2);
+        int slot = game.slotOf(knight);
+
+        game.pieces.remove(knight);
+        game._tick(20);
+
+        assertEquals(31, game.snapshot().getPieces().size());
+        assertNull(game.snapshot().bySlot(slot));
+        assertNull(game.snapshot().byId(knight.id));
+        assertEquals(32, before.getPieces().size());
+        assertSame(knight, before.bySlot(slot).piece);
+    }
+
+    @Test
+    void testAttackedCellsMatchThreatMap() {
+        FrameSnapshot snap = game.snapshot();
+        for (int side = 1; side <= 2; side++) {
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    assertEquals(game.threats.attackers(side, r, c), snap.attackers(side, r, c));
+                }
+            }
+        }
+        assertTrue(snap.isAttacked(1, 5, 0)); // in front of the white pawns
+        assertFalse(snap.isAttacked(1, 3, 3));
+    }
+
+    @Test
+    void testCellsAndAttacksFollowTheGameAcrossTicks() {
+        Piece pawn = game.occupancy.pieceAt(6, 4, 1);
+        Piece knight = game.occupancy.pieceAt(0, 1, 2);
+        long threatsSeq = game.threats.getSeq();
+        game._tick(20);
+        assertEquals(threatsSeq, game.threats.getSeq(), "nothing moved, no new attack counts");
+        assertSnapshotMatchesGame(game.snapshot());
+
+        game._process_input(new Command(20, pawn.id, EState.MOVE, List.of(new Pair(6, 4), new Pair(4, 4))));
+        game._tick(40);
+        assertSnapshotMatchesGame(game.snapshot());
+        game._tick(2000);
+        assertSnapshotMatchesGame(game.snapshot());
+        assertSame(game.snapshot().byId(pawn.id), game.snapshot().pieceAt(4, 4, 1));
+
+        game.pieces.remove(knight);
+        game._tick(2020);
+        assertNull(game.snapshot().pieceAt(0, 1, 2));
+        assertSnapshotMatchesGame(game.snapshot());
+    }
+
+    private void assertSnapshotMatchesGame(FrameSnapshot snap) {
+        for (int side = 1; side <= 2; side++) {
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    assertEquals(game.threats.attackers(side, r, c), snap.attackers(side, r, c));
+                    Piece p = game.occupancy.pieceAt(r, c, side);
+                    FrameSnapshot.PieceView v = snap.pieceAt(r, c, side);
+                    assertEquals(p == null ? null : p.id, v == null ? null : v.id, "cell " + r + "," + c);
+                    if (v != null) assertSame(snap.bySlot(v.slot), v);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRenderingWhileTheGameTicks() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread render = new Thread(() -> {
+            try {
+                for (int i = 0; i < 300; i++) game.getCurrentBoardImage();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        render.start();
+
+        // Move and remove pieces as fast as possible while frames are drawn
+        Random rnd = new Random(7);
+        long now = 0;
+        while (render.isAlive()) {
+            List<Piece> alive = new ArrayList<>(game.pieces);
+            Piece p = alive.get(rnd.nextInt(alive.size()));
+            if (alive.size() > 4 && !p.id.startsWith("K") && rnd.nextInt(10) == 0) {
+                game.pieces.remove(p);
+            } else {
+                Pair cell = p.currentCell();
+                Pair to = new Pair(Math.max(0, Math.min(7, cell.r + rnd.nextInt(3) - 1)), cell.c);
+                game.userInputQueue.add(new Command(now, p.id, EState.MOVE, List.of(cell, to)));
+            }
+            game._tick(now += 10);
+        }
+        render.join();
+        assertNull(failure.get(), () -> "render thread failed: " + failure.get());
+    }
+}
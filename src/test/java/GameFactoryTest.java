@@ -1,14 +1,27 @@
+import board.Board;
+import board.BoardFactory;
+import game.BoardLayout;
 import game.Game;
 import game.GameFactory;
 import img.Img;
 import grafix.Graphics;
 import grafix.GraphicsFactory;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,4 +51,87 @@ public class GameFactoryTest {
             assertTrue(img instanceof Img);
         }
     }
-} 
\ No newline at end of file
+
+    // A copy of the bundled pieces with another board.csv
+    private Path piecesWithLayout(Path dir, int rows, int cols, int pawnEvery) throws Exception {
+        try (Stream<Path> types = Files.list(piecesPath)) {
+            for (Path t : (Iterable<Path>) types.filter(Files::isDirectory)::iterator) {
+                try (Stream<Path> walk = Files.walk(t)) {
+                    for (Path p : (Iterable<Path>) walk::iterator) {
+                        Path dst = dir.resolve(piecesPath.relativize(p).toString());
+                        if (Files.isDirectory(p)) Files.createDirectories(dst);
+                        else Files.copy(p, dst);
+                    }
+                }
+            }
+        }
+        Files.copy(piecesPath.resolve("board.png"), dir.resolve("board.png"));
+        try (BufferedWriter w = Files.newBufferedWriter(dir.resolve("board.csv"))) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (c > 0) w.write(',');
+                    if (r == 0 && c == 0) w.write("KB");
+                    else if (r == rows - 1 && c == cols - 1) w.write("KW");
+                    else if ((r * cols + c) % pawnEvery == 0) w.write(r < rows / 2 ? "PB" : "PW");
+                }
+                w.write('\n');
+            }
+        }
+        return dir;
+    }
+
+    @Test
+    void testLayoutReaderMatchesLines() {
+        List<String> lines = List.of(" PB, ,KB", "", "KW,PW,,", "QW");
+        List<String> cells = new ArrayList<>();
+        Dimension size = BoardLayout.read(lines, (r, c, code) -> cells.add(r + "," + c + "=" + code));
+        assertEquals(new Dimension(4, 4), size);
+        assertEquals(List.of("0,0=PB", "0,2=KB", "2,0=KW", "2,1=PW", "3,0=QW"), cells);
+    }
+
+    @Test
+    void testLargeLayoutSetsBoardSize(@TempDir Path dir) throws Exception {
+        Path root = piecesWithLayout(dir, 300, 400, 97);
+
+        Game game = GameFactory.createGame(GameFactory.loadLibrary(root, 2), GameFactory.readLayout(root));
+        Game streamed = GameFactory.createGame(root, 2);
+
+        assertEquals(400, game.board.getWCells());
+        assertEquals(300, game.board.getHCells());
+        assertEquals(game.pieces.size(), streamed.pieces.size());
+        assertTrue(game.pieces.size() > 1000);
+        assertNotNull(game.occupancy.pieceAt(299, 399, 1));
+        assertEquals(400 * 2, game.curr_board.getImg().get().getWidth());
+        assertEquals(BoardFactory.DEFAULT_IMAGE_CELLS * 2, game.board.getImg().get().getWidth(), "the board keeps only its tile");
+    }
+
+    @Test
+    void testBackgroundRepeatsTexture(@TempDir Path dir) throws Exception {
+        BufferedImage cell = new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB);
+        cell.setRGB(0, 0, 0xFF0000);
+        cell.setRGB(1, 1, 0x00FF00);
+        Path png = dir.resolve("cell.png");
+        ImageIO.write(cell, "png", png.toFile());
+
+        Board board = BoardFactory.tiled(png, 1, 5, 3, 2);
+
+        assertEquals(2, board.getImg().get().getWidth(), "only the tile is kept");
+        BufferedImage bg = board.cloneBoard().getImg().get();
+        assertEquals(10, bg.getWidth());
+        assertEquals(6, bg.getHeight());
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 5; c++) {
+                assertEquals(0xFF0000, bg.getRGB(2 * c, 2 * r) & 0xFFFFFF);
+                assertEquals(0x00FF00, bg.getRGB(2 * c + 1, 2 * r + 1) & 0xFFFFFF);
+            }
+        }
+
+        // Redrawing the background clears what was drawn on a frame
+        Board frame = board.cloneBoard();
+        frame.getImg().drawRect(0, 0, 9, 5, Color.BLUE);
+        board.drawBackground(frame.getImg());
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 10; x++) assertEquals(bg.getRGB(x, y), frame.getImg().get().getRGB(x, y));
+        }
+    }
+}
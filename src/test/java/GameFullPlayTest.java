@@ -1,10 +1,13 @@
 import classes.Command;
 import classes.Moves;
 import classes.Pair;
+import classes.State;
 import enums.EState;
 import game.Game;
 import game.GameFactory;
 import org.junit.jupiter.api.Test;
+import physics.IdlePhysics.IdlePhysics;
+import physics.IdlePhysics.MovePhysics;
 import piece.Piece;
 
 import java.net.URI;
@@ -51,4 +54,58 @@ public class GameFullPlayTest {
         assertTrue(game.pieces.contains(pw));
         assertFalse(game.pieces.contains(pb));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testJumpLandsAndRestsInPlace() {
+        Game game = GameFactory.createGame(piecesPath);
+        game._update_cell2piece_map();
+        Piece knight = game.pos.get(new Pair(7,1)).get(0);
+
+        game._process_input(new Command(0, knight.id, EState.JUMP, java.util.List.of(new Pair(7,1))));
+        assertEquals("jump", knight.state.name);
+
+        knight.update(1_000);
+        assertEquals("short_rest", knight.state.name);
+        assertEquals(new Pair(7,1), knight.currentCell());
+    }
+
+    @Test
+    void testKnightMovesOverItsPawns() {
+        Game game = GameFactory.createGame(piecesPath);
+        game._update_cell2piece_map();
+        Piece knight = game.pos.get(new Pair(7,1)).get(0);
+
+        game._process_input(new Command(0, knight.id, EState.MOVE, java.util.List.of(new Pair(7,1), new Pair(5,2))));
+        assertEquals("move", knight.state.name);
+    }
+
+    @Test
+    void testBishopMovesThreeCellsDiagonally() {
+        Game game = GameFactory.createGame(piecesPath);
+        game._update_cell2piece_map();
+        Piece bishop = game.pos.get(new Pair(0,2)).get(0);
+        // Clear the diagonal of its own pawn
+        game.pieces.remove(game.pos.get(new Pair(1,3)).get(0));
+        game._update_cell2piece_map();
+
+        game._process_input(new Command(0, bishop.id, EState.MOVE, java.util.List.of(new Pair(0,2), new Pair(3,5))));
+        assertEquals("move", bishop.state.name);
+    }
+
+    @Test
+    void testPiecesKeepTheirConfiguredPhysics() {
+        Game game = GameFactory.createGame(piecesPath);
+        game._update_cell2piece_map();
+        Piece pawn = game.pos.get(new Pair(6,0)).get(0);
+
+        game._process_input(new Command(0, pawn.id, EState.MOVE, java.util.List.of(new Pair(6,0), new Pair(5,0))));
+        assertEquals("move", pawn.state.name);
+        // Every piece is a clone of its type's template and must keep the speed from its config
+        assertTrue(((MovePhysics) pawn.state.physics).getSpeedCellsPerSec() > 0);
+
+        // "idle_after_first_move" rests in place despite its "_move" suffix
+        State idleAgain = pawn.state.getTransitions().get("done").getTransitions().get("done");
+        assertEquals("idle_after_first_move", idleAgain.name);
+        assertInstanceOf(IdlePhysics.class, idleAgain.physics);
+    }
+}
@@ -1,9 +1,18 @@
 import enums.EState;
 import img.MockImg;
 import classes.Command;
+import classes.State;
+import game.FrameResolver;
+import game.Game;
+import game.GameFactory;
+import img.Img;
+import piece.Piece;
 import grafix.Graphics;
 import org.junit.jupiter.api.Test;
 import java.awt.Dimension;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,4 +65,37 @@ public class GraphicsTests {
         gfx.reset(new Command(0, "PX", EState.IDLE, java.util.List.of()));
         assertThrows(IllegalStateException.class, gfx::getImg);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testFrameIsPureFunctionOfElapsedTime() {
+        Graphics loop = makeGraphics(true, 10.0, 4);
+        Graphics once = makeGraphics(false, 10.0, 4);
+        assertEquals(0, loop.frameIndexAt(-50));
+        assertEquals(0, loop.frameIndexAt(99));
+        assertEquals(1, loop.frameIndexAt(100));
+        assertEquals(3, loop.frameIndexAt(399));
+        assertEquals(0, loop.frameIndexAt(400));
+        assertEquals(2, loop.frameIndexAt(4250));
+        assertEquals(3, once.frameIndexAt(4250));
+        assertSame(loop.getFrames().get(2), loop.frameAt(250));
+        // no hidden state: asking about another time in between changes nothing
+        loop.frameIndexAt(1_000_000);
+        assertEquals(1, loop.frameIndexAt(150));
+        assertEquals(0, loop.getCurFrame());
+    }
+
+    @Test
+    void testResolveFramesForAllPieces() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(pieces);
+        List<Piece> all = game.pieces;
+        Img[] sprites = new Img[all.size()];
+        int[] pos = new int[2 * all.size()];
+        assertEquals(32, FrameResolver.resolve(all, 5000, sprites, pos));
+        for (int i = 0; i < all.size(); i++) {
+            State st = all.get(i).state;
+            assertSame(st.graphics.frameAt(5000 - st.physics.getStartMs()), sprites[i]);
+            assertArrayEquals(st.physics.getPosPix(), new int[]{pos[2 * i], pos[2 * i + 1]});
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import piece.Piece;
+import render.FrameSink;
+import render.HeadlessRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeadlessRendererTest {
+    private Path piecesPath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+    }
+
+    private Game newGame() throws Exception {
+        Game game = GameFactory.createGame(piecesPath);
+        for (Piece p : game.pieces) p.reset(0);
+        return game;
+    }
+
+    // White pawn e2-e4 at 100 ms
+    private static List<Command> script(Game game) {
+        Piece pawn = game.occupancy.pieceAt(6, 4, 1);
+        return List.of(new Command(100, pawn.id, EState.MOVE, List.of(new Pair(6, 4), new Pair(4, 4))));
+    }
+
+    private static int pixel(BufferedImage img, int cellRow, int cellCol) {
+        return img.getRGB(cellCol * 64 + 32, cellRow * 64 + 32);
+    }
+
+    @Test
+    void testPngSequenceFollowsTheScript(@TempDir Path dir) throws Exception {
+        Game game = newGame();
+        int frames = new HeadlessRenderer(10, 3).render(game, script(game), 0, 2000, FrameSink.pngFiles(dir));
+
+        assertEquals(20, frames);
+        try (var files = Files.list(dir)) {
+            assertEquals(20, files.count());
+        }
+        BufferedImage first = ImageIO.read(dir.resolve("frame_00000.png").toFile());
+        BufferedImage last = ImageIO.read(dir.resolve("frame_00019.png").toFile());
+        assertEquals(512, first.getWidth());
+
+        // The pawn left e2 and stands on e4; a far away piece did not change
+        BufferedImage empty = HeadlessRenderer.renderFrame(newGame(), 0);
+        assertNotEquals(pixel(first, 4, 4), pixel(last, 4, 4));
+        assertEquals(pixel(empty, 4, 4), pixel(first, 4, 4));
+        assertEquals(pixel(first, 0, 0), pixel(last, 0, 0));
+    }
+
+    @Test
+    void testRawFramesMatchRenderedFrames() throws Exception {
+        Game game = newGame();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int frames = new HeadlessRenderer(25, 4).render(game, script(game), 0, 400, FrameSink.rawRgb(out));
+
+        assertEquals(10, frames);
+        byte[] raw = out.toByteArray();
+        assertEquals(frames * 512 * 512 * 3, raw.length);
+
+        // Frames arrive in order: the last one is the game as it is at its time
+        BufferedImage last = HeadlessRenderer.renderFrame(game, 360);
+        int base = 9 * 512 * 512 * 3;
+        for (int y = 0; y < 512; y += 7) {
+            for (int x = 0; x < 512; x += 5) {
+                int i = base + 3 * (y * 512 + x);
+                int rgb = ((raw[i] & 0xFF) << 16) | ((raw[i + 1] & 0xFF) << 8) | (raw[i + 2] & 0xFF);
+                assertEquals(last.getRGB(x, y) & 0xFFFFFF, rgb, "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void testSinkFailureIsReported() throws Exception {
+        Game game = newGame();
+        FrameSink broken = (index, frame) -> {
+            if (index == 3) throw new IOException("disk full");
+        };
+        IOException e = assertThrows(IOException.class,
+                () -> new HeadlessRenderer(10, 2).render(game, List.of(), 0, 10_000, broken));
+        assertEquals("disk full", e.getMessage());
+    }
+}
@@ -0,0 +1,74 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import game.FrameResolver;
+import img.Img;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import physics.Motion;
+import piece.Piece;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterpolationTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        game = GameFactory.createGame(pieces);
+        for (Piece p : game.pieces) p.reset(0);
+        game._tick(0);
+    }
+
+    private int[] resolvedPos(Piece p, long nowMs) {
+        int n = game.pieces.size();
+        Img[] sprites = new Img[n];
+        int[] pos = new int[2 * n];
+        FrameResolver.resolve(game.pieces, nowMs, sprites, pos);
+        int i = game.pieces.indexOf(p);
+        return new int[]{pos[2 * i], pos[2 * i + 1]};
+    }
+
+    @Test
+    void testPositionFollowsRenderTimeNotLastTick() {
+        Piece pawn = game.occupancy.pieceAt(6, 4, 1);
+        game._process_input(new Command(0, pawn.id, EState.MOVE, List.of(new Pair(6, 4), new Pair(4, 4))));
+        double[] startM = game.board.cellToM(6, 4), endM = game.board.cellToM(4, 4);
+        int[] start = game.board.mToPix(startM[0], startM[1]);
+        int[] end = game.board.mToPix(endM[0], endM[1]);
+
+        // No tick since the command: the simulation still has the pawn at its start
+        assertArrayEquals(start, resolvedPos(pawn, 0));
+        int[] mid = resolvedPos(pawn, 666);
+        assertEquals(start[0], mid[0]);
+        assertEquals((start[1] + end[1]) / 2.0, mid[1], 1.0);
+
+        // Same place the simulation computes when it does tick at that time
+        game._tick(500);
+        assertArrayEquals(pawn.state.physics.getPosPix(), resolvedPos(pawn, 500));
+
+        // Clamped at the destination, even before the tick that ends the move
+        assertArrayEquals(end, resolvedPos(pawn, 1333));
+        assertArrayEquals(end, resolvedPos(pawn, 2000));
+    }
+
+    @Test
+    void testMotionClampsAndHandlesInfiniteMoves() {
+        Motion m = Motion.between(new double[]{0, 0}, new double[]{2, 4}, 100, 1.0);
+        assertArrayEquals(new double[]{0, 0}, m.posMAt(50));
+        assertArrayEquals(new double[]{1, 2}, m.posMAt(600));
+        assertArrayEquals(new double[]{2, 4}, m.posMAt(5000));
+        assertTrue(m.isMovingAt(600));
+        assertFalse(m.isMovingAt(1100));
+
+        Motion never = Motion.between(new double[]{0, 0}, new double[]{2, 4}, 100, Double.POSITIVE_INFINITY);
+        assertArrayEquals(new double[]{0, 0}, never.posMAt(Long.MAX_VALUE - 1), 1e-9);
+    }
+}
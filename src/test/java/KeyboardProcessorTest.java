@@ -1,11 +1,16 @@
 import board.Board;
+import board.OccupancyGrid;
 import classes.Command;
 import classes.Pair;
 import enums.EState;
+import game.Game;
+import game.GameFactory;
 import keyBoard.KeyboardProcessor;
 import piece.Piece;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
@@ -177,4 +182,32 @@ public class KeyboardProcessorTest {
         assertTrue(finalCursor[0] >= 0 && finalCursor[0] < rows);
         assertTrue(finalCursor[1] >= 0 && finalCursor[1] < cols);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSelectionFollowsLiveOccupancy() throws Exception {
+        Path piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(piecesPath);
+        KeyboardProcessor kp = new KeyboardProcessor(rows, cols, p1Keymap(), queue, game.occupancy);
+
+        Piece pawn = game.occupancy.pieceAt(6, 0, 1);
+        assertNotNull(pawn);
+        assertEquals(1, OccupancyGrid.playerOf(pawn));
+        assertNull(game.occupancy.pieceAt(6, 0, 2), "black has nothing on (6,0)");
+
+        // The pawn disappears; after the next publish the cell must read as empty
+        game.pieces.remove(pawn);
+        game.occupancy.publish(game.pieces);
+        kp.setCursor(1, 6, 0);
+        kp.processKey("enter", 1);
+        kp.processKey("+", 1);
+        assertTrue(queue.isEmpty(), "a removed piece must not be selectable");
+
+        // A live piece is selectable and the command carries its id
+        kp.setCursor(1, 6, 1);
+        kp.processKey("enter", 1);
+        kp.processKey("+", 1);
+        Command cmd = queue.poll();
+        assertNotNull(cmd);
+        assertEquals(game.occupancy.pieceAt(6, 1, 1).id, cmd.pieceId);
+    }
+}
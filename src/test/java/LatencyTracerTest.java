@@ -0,0 +1,191 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import keyBoard.KeyboardProcessor;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import trace.LatencyHistogram;
+import trace.LatencyTracer;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyTracerTest {
+
+    private static Command command(String pieceId) {
+        return new Command(0, pieceId, EState.JUMP, List.of(new Pair(0, 0)));
+    }
+
+    @Test
+    void testEveryStageIsRecordedForAnAcceptedCommand() throws Exception {
+        LatencyTracer tracer = new LatencyTracer();
+        Command cmd = command("NW");
+        tracer.created(cmd);
+        tracer.enqueued(cmd);
+        Thread.sleep(2);
+        tracer.dequeued(cmd);
+        tracer.handled(cmd, true);
+        assertEquals(0, tracer.handleToFrame.getCount(), "not shown yet");
+
+        tracer.shown();
+        for (LatencyHistogram h : tracer.histograms()) assertEquals(1, h.getCount(), h.getName());
+        assertTrue(tracer.queueWait.getMaxMicros() >= 2_000, "the sleep is in the queue wait");
+        assertTrue(tracer.endToEnd.getMaxMicros() >= tracer.queueWait.getMaxMicros());
+        assertEquals(1, tracer.getAccepted());
+        assertEquals(0, tracer.getRejected());
+
+        // Later frames do not count the same command again
+        tracer.shown();
+        assertEquals(1, tracer.endToEnd.getCount());
+    }
+
+    @Test
+    void testRejectedCommandEndsAtHandled() {
+        LatencyTracer tracer = new LatencyTracer();
+        Command cmd = command("NW");
+        tracer.created(cmd);
+        tracer.enqueued(cmd);
+        tracer.dequeued(cmd);
+        tracer.handled(cmd, false);
+        tracer.shown();
+
+        assertEquals(0, tracer.getAccepted());
+        assertEquals(1, tracer.getRejected());
+        assertEquals(1, tracer.createToEnqueue.getCount());
+        assertEquals(1, tracer.queueWait.getCount());
+        assertEquals(1, tracer.handle.getCount());
+        assertEquals(0, tracer.handleToFrame.getCount());
+        assertEquals(0, tracer.endToEnd.getCount());
+
+        // A second handled call for the same command is not counted twice
+        tracer.handled(cmd, false);
+        assertEquals(1, tracer.getRejected());
+    }
+
+    @Test
+    void testUntracedCommandsAreIgnored() {
+        LatencyTracer tracer = new LatencyTracer();
+        Command cmd = command("NW");
+        tracer.enqueued(cmd);
+        tracer.dequeued(cmd);
+        tracer.handled(cmd, true);
+        tracer.shown();
+        assertEquals(0, tracer.getAccepted());
+        for (LatencyHistogram h : tracer.histograms()) assertEquals(0, h.getCount(), h.getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testKeyboardCommandRejectedByTheGame() throws Exception {
+        Path piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(piecesPath);
+        LatencyTracer tracer = new LatencyTracer();
+        game.setLatencyTracer(tracer);
+        game._update_cell2piece_map();
+
+        // A white piece the keyboard can select but the game does not know
+        Piece stranger = new Piece("W_STRANGER", game.pos.get(new Pair(7, 1)).get(0).state);
+        Map<Integer, Piece>[][] boardState = new Map[8][8];
+        for (Map<Integer, Piece>[] row : boardState) for (int c = 0; c < 8; c++) row[c] = new HashMap<>();
+        boardState[7][1].put(1, stranger);
+        KeyboardProcessor kp = new KeyboardProcessor(8, 8, Map.of("enter", "select", "+", "jump"),
+                game.userInputQueue, boardState);
+        kp.setTracer(tracer);
+        kp.setClock(() -> 1234);
+
+        kp.setCursor(1, 7, 1);
+        kp.processKey("enter", 1);
+        kp.setCursor(1, 5, 2);
+        kp.processKey("+", 1);
+        Command cmd = game.userInputQueue.peek();
+        assertNotNull(cmd);
+        assertEquals(1234, cmd.timestamp, "commands are stamped by the installed clock");
+
+        while (!game.userInputQueue.isEmpty()) game._process_input(game.userInputQueue.poll());
+        tracer.shown();
+        assertEquals(0, tracer.getAccepted());
+        assertEquals(1, tracer.getRejected());
+        assertEquals(1, tracer.createToEnqueue.getCount());
+        assertEquals(1, tracer.queueWait.getCount());
+        assertEquals(1, tracer.handle.getCount());
+        assertEquals(0, tracer.endToEnd.getCount());
+    }
+
+    @Test
+    void testBucketEdges() {
+        LatencyHistogram h = new LatencyHistogram("edges");
+        h.record(-5);            // clamped to 0
+        h.record(999);           // 0 µs
+        h.record(1_000);         // 1 µs: [1, 2)
+        h.record(1_999);         // still 1 µs
+        h.record(2_000);         // 2 µs: [2, 4)
+        h.record(3_999);         // 3 µs
+        h.record(4_000);         // 4 µs: [4, 8)
+        h.record(Long.MAX_VALUE); // beyond the last bound
+        assertEquals(2, h.bucketCount(0));
+        assertEquals(2, h.bucketCount(1));
+        assertEquals(2, h.bucketCount(2));
+        assertEquals(1, h.bucketCount(3));
+        assertEquals(1, h.bucketCount(LatencyHistogram.bucketCount() - 1));
+        assertEquals(8, h.getCount());
+        assertEquals(Long.MAX_VALUE / 1_000, h.getMaxMicros());
+
+        assertEquals(1, LatencyHistogram.upperBoundMicros(0));
+        assertEquals(2, LatencyHistogram.upperBoundMicros(1));
+        assertEquals(1L << 40, LatencyHistogram.upperBoundMicros(LatencyHistogram.bucketCount() - 1));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram("pct");
+        assertEquals(0, h.percentileMicros(50), "empty");
+        assertEquals(0, h.getMeanMicros());
+
+        for (int i = 0; i < 90; i++) h.record(10_000);    // 10 µs, bucket [8, 16)
+        for (int i = 0; i < 10; i++) h.record(1_000_000); // 1000 µs, bucket [512, 1024)
+        assertEquals(16, h.percentileMicros(50));
+        assertEquals(16, h.percentileMicros(90));
+        assertEquals(1_000, h.percentileMicros(91), "capped at the largest sample");
+        assertEquals(1_000, h.percentileMicros(100));
+        assertEquals(109.0, h.getMeanMicros(), 1e-9);
+        assertEquals(1_000, h.getMaxMicros());
+    }
+
+    @Test
+    void testCsvExport() throws Exception {
+        LatencyTracer tracer = new LatencyTracer();
+        tracer.queueWait.record(3_000);
+        tracer.queueWait.record(3_500);
+        tracer.endToEnd.record(500);
+
+        StringWriter out = new StringWriter();
+        tracer.exportCsv(out);
+        String[] lines = out.toString().split("\\R");
+        assertEquals(1 + tracer.histograms().length, lines.length);
+
+        String[] header = lines[0].split(",");
+        assertEquals(1 + LatencyHistogram.bucketCount(), header.length);
+        assertEquals("stage", header[0]);
+        assertEquals("le_1us", header[1]);
+        assertEquals("le_4us", header[3]);
+
+        for (int r = 0; r < tracer.histograms().length; r++) {
+            String[] row = lines[r + 1].split(",");
+            assertEquals(tracer.histograms()[r].getName(), row[0]);
+            assertEquals(header.length, row.length);
+        }
+        String[] queueWait = lines[2].split(",");
+        assertEquals("enqueue->dequeue", queueWait[0]);
+        assertEquals("2", queueWait[3], "both 3 µs samples are in [2, 4)");
+        assertEquals("1", lines[5].split(",")[1], "the 0 µs sample is in the first bucket");
+        assertEquals("0", lines[1].split(",")[1]);
+    }
+}
@@ -0,0 +1,140 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import net.GameClient;
+import net.GameServer;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NetworkLoopbackTest {
+    private final Path piecesPath;
+
+    public NetworkLoopbackTest() throws Exception {
+        piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+    }
+
+    @Test
+    void testCommandsAndStateOverLoopback() throws Exception {
+        List<Command> received = new CopyOnWriteArrayList<>();
+        GameServer server = new GameServer(() -> {
+            Game g = GameFactory.createGame(piecesPath);
+            return new Game(g.pieces, g.board) {
+                @Override
+                public void _process_input(Command cmd) {
+                    received.add(cmd);
+                    super._process_input(cmd);
+                }
+            };
+        }, 5, 2);
+        server.start(new InetSocketAddress("127.0.0.1", 0));
+        InetSocketAddress addr = new InetSocketAddress("127.0.0.1", server.getPort());
+
+        Game mirror = GameFactory.createGame(piecesPath);
+        AtomicInteger updates = new AtomicInteger();
+        try (GameClient white = new GameClient(mirror, addr, Runnable::run);
+             GameClient intruder = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run)) {
+            white.setOnUpdate(updates::incrementAndGet);
+            white.join(7, 1);
+            assertTrue(white.awaitWelcome(2000));
+            assertEquals(1, white.getPlayer());
+
+            intruder.join(7, 1);
+            assertFalse(intruder.awaitWelcome(2000));
+            assertEquals("seat taken", intruder.getRejectReason());
+
+            Piece whitePawn = mirror.occupancy.pieceAt(6, 0, 1);
+            Piece blackPawn = mirror.occupancy.pieceAt(1, 0, 2);
+            white.send(new Command(0, whitePawn.id, EState.MOVE, List.of(new Pair(6, 0), new Pair(4, 0))));
+            white.send(new Command(0, blackPawn.id, EState.MOVE, List.of(new Pair(1, 0), new Pair(2, 0))));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((received.isEmpty() || updates.get() < 3) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50); // give a wrongly forwarded black command time to show up
+            assertEquals(1, received.size(), "only the command for white's own piece is accepted");
+            Command cmd = received.get(0);
+            assertEquals(whitePawn.id, cmd.pieceId);
+            assertEquals(EState.MOVE, cmd.type);
+            assertEquals(List.of(new Pair(6, 0), new Pair(4, 0)), cmd.params);
+            assertTrue(updates.get() >= 3, "state frames keep arriving");
+            assertEquals(32, mirror.pieces.size());
+            assertEquals(1, server.getMatchCount());
+        } finally {
+            server.close();
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(5);
+        return condition.getAsBoolean();
+    }
+
+    @Test
+    void testMatchIsRemovedWhenItsPlayersLeave() throws Exception {
+        try (GameServer server = new GameServer(() -> GameFactory.createGame(piecesPath), 5, 1)) {
+            server.start(new InetSocketAddress("127.0.0.1", 0));
+            InetSocketAddress addr = new InetSocketAddress("127.0.0.1", server.getPort());
+            for (int id = 1; id <= 3; id++) {
+                GameClient c = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run);
+                c.join(id, 1);
+                assertTrue(c.awaitWelcome(2000));
+                Game game = server.getGame(id);
+                assertFalse(game._is_win(), "the game is not over");
+                c.close();
+                assertTrue(await(() -> server.getMatchCount() == 0), "match " + id + " is dropped");
+            }
+        }
+    }
+
+    @Test
+    void testBuildingAGameDoesNotBlockOtherConnections() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GameServer server = new GameServer(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return GameFactory.createGame(piecesPath);
+        }, 5, 1);
+        server.start(new InetSocketAddress("127.0.0.1", 0));
+        InetSocketAddress addr = new InetSocketAddress("127.0.0.1", server.getPort());
+        try (GameClient first = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run);
+             GameClient second = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run);
+             GameClient other = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run)) {
+            first.join(4, 1);
+            second.join(4, 2);
+
+            // The selector keeps serving while match 4's game is still being built
+            other.join(9, 5);
+            assertFalse(other.awaitWelcome(2000));
+            assertEquals("bad join", other.getRejectReason());
+            assertEquals(0, server.getMatchCount());
+
+            release.countDown();
+            assertTrue(first.awaitWelcome(2000));
+            assertTrue(second.awaitWelcome(2000));
+            assertEquals(2, second.getPlayer());
+            assertEquals(1, server.getMatchCount());
+        } finally {
+            release.countDown();
+            server.close();
+        }
+    }
+}
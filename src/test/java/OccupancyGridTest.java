@@ -0,0 +1,90 @@
+import board.OccupancyGrid;
+import classes.Command;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import tournament.Bot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccupancyGridTest {
+
+    @Test
+    void testReadersNeverSeeAHalfFilledGrid() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(pieces);
+        OccupancyGrid grid = game.occupancy;
+        Piece rook = grid.pieceAt(7, 0, 1);
+        Piece pawn = grid.pieceAt(6, 4, 1);
+        List<Piece> withoutPawn = new ArrayList<>(game.pieces);
+        withoutPawn.remove(pawn);
+
+        // The rook is in every published grid, the pawn in every other one
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                if (grid.pieceAt(7, 0, 1) != rook) failure.set("rook missing");
+                Piece p = grid.pieceAt(6, 4, 1);
+                if (p != null && p != pawn) failure.set("wrong piece on the pawn's cell");
+                if (grid.pieceAt(4, 4, 1) != null) failure.set("piece on an empty cell");
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200_000 && failure.get() == null; i++) {
+            grid.publish(i % 2 == 0 ? withoutPawn : game.pieces);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+
+        grid.publish(withoutPawn);
+        assertNull(grid.pieceAt(6, 4, 1));
+        assertSame(rook, grid.pieceAt(7, 0, 1));
+    }
+
+    @Test
+    void testOnlyChangedCellsAreWrittenButTheGridStaysExact() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(pieces);
+        int all = game.pieces.size();
+        Random rnd = new Random(11);
+        for (int tick = 0; tick < 300; tick++) {
+            for (int player = 1; player <= 2; player++) {
+                List<Command> moves = Bot.legalMoves(game.snapshot(), player);
+                if (!moves.isEmpty() && rnd.nextInt(3) == 0) game.userInputQueue.add(moves.get(rnd.nextInt(moves.size())));
+            }
+            game._tick(tick * 50L);
+
+            // Every cell shows one of the pieces of that player on it, if there are any
+            Map<Integer, List<Piece>> onCell = new HashMap<>();
+            for (Piece p : game.pieces) {
+                int r = p.state.physics.getCurrRow(), c = p.state.physics.getCurrCol();
+                onCell.computeIfAbsent((OccupancyGrid.playerOf(p) - 1) * 64 + r * 8 + c, k -> new ArrayList<>()).add(p);
+            }
+            for (int player = 1; player <= 2; player++) {
+                for (int r = 0; r < 8; r++) {
+                    for (int c = 0; c < 8; c++) {
+                        List<Piece> there = onCell.getOrDefault((player - 1) * 64 + r * 8 + c, List.of());
+                        Piece shown = game.occupancy.pieceAt(r, c, player);
+                        String where = "tick " + tick + " cell " + r + "," + c;
+                        if (there.isEmpty()) assertNull(shown, where);
+                        else assertTrue(there.contains(shown), where);
+                    }
+                }
+            }
+        }
+        assertTrue(game.pieces.size() < all, "the game had captures");
+    }
+}
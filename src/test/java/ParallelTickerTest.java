@@ -0,0 +1,78 @@
+import board.Board;
+import classes.Command;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.PieceFactory;
+import tournament.Bot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTickerTest {
+    private static final int SIZE = 64;
+
+    // A full chess set in every 8x8 block of a 64x64 board: 2048 pieces, fighting everywhere at once
+    private static List<String> layout() {
+        String[] back = {"R", "N", "B", "Q", "K", "B", "N", "R"};
+        List<String> rows = new ArrayList<>();
+        for (int r = 0; r < SIZE; r++) {
+            StringBuilder line = new StringBuilder();
+            for (int c = 0; c < SIZE; c++) {
+                if (c > 0) line.append(',');
+                int rr = r % 8;
+                if (rr == 0 || rr == 7) line.append(back[c % 8]).append(rr == 0 ? 'B' : 'W');
+                else if (rr == 1 || rr == 6) line.append('P').append(rr == 1 ? 'B' : 'W');
+            }
+            rows.add(line.toString());
+        }
+        return rows;
+    }
+
+    private static void assertSameState(Game expected, Game actual, long now) {
+        assertEquals(expected.pieces.size(), actual.pieces.size(), "pieces at " + now);
+        for (int i = 0; i < expected.pieces.size(); i++) {
+            Piece e = expected.pieces.get(i), a = actual.pieces.get(i);
+            assertEquals(e.id, a.id, "at " + now);
+            assertEquals(e.state.name, a.state.name, e.id + " at " + now);
+            assertEquals(e.state.physics.getStartMs(), a.state.physics.getStartMs(), e.id + " at " + now);
+            assertTrue(Arrays.equals(e.state.physics.getPosM(), a.state.physics.getPosM()), e.id + " at " + now);
+        }
+    }
+
+    @Test
+    void testParallelTicksMatchSequential() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        PieceFactory library = new PieceFactory(new Board(64, 64, SIZE, SIZE, null));
+        library.generateLibrary(pieces);
+        Game sequential = GameFactory.createGame(library, layout());
+        Game parallel = GameFactory.createGame(library, layout());
+        parallel.setParallelism(4, 1); // 16 regions of 16x16 cells
+
+        Random rnd = new Random(7);
+        int before = sequential.pieces.size();
+        for (long now = 0; now <= 15_000; now += 50) {
+            // The same commands, picked from the sequential game, go to both
+            for (int player = 1; player <= 2; player++) {
+                List<Command> moves = Bot.legalMoves(sequential.snapshot(), player);
+                for (int k = 0; k < 20 && !moves.isEmpty(); k++) {
+                    Command cmd = moves.remove(rnd.nextInt(moves.size()));
+                    sequential.userInputQueue.add(cmd);
+                    parallel.userInputQueue.add(cmd);
+                }
+            }
+            sequential._tick(now);
+            parallel._tick(now);
+            assertSameState(sequential, parallel, now);
+        }
+        assertTrue(sequential.pieces.size() < before - 100, "the games had captures");
+        parallel.setParallelism(1);
+    }
+}
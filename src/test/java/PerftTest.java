@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import perft.Perft;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+    private Perft perft;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        perft = Perft.load(pieces);
+        perft.setParallelism(2);
+    }
+
+    @Test
+    void testMatchesChessWithoutCooldownsAndJumps() {
+        perft.setIgnoreCooldowns(true);
+        perft.setJumps(false);
+        // Up to depth 3 no check, castling or en passant can occur, so these are the chess numbers
+        assertEquals(20, perft.count(1));
+        assertEquals(400, perft.count(2));
+        assertEquals(8902, perft.count(3));
+    }
+
+    @Test
+    void testJumpsAndCooldowns() {
+        // Every piece may jump in place from the start position
+        assertEquals(36, perft.count(1));
+
+        perft.setJumps(false);
+        long respected = perft.count(3);
+        perft.setIgnoreCooldowns(true);
+        assertTrue(respected < perft.count(3), "a resting piece cannot act on its side's next ply");
+    }
+
+    @Test
+    void testDivideSumsToCount() {
+        perft.setJumps(false);
+        perft.setIgnoreCooldowns(true);
+        Map<String, Long> divide = perft.divide(3);
+        assertEquals(20, divide.size());
+        assertEquals(440, divide.get("NW_(7,1) move (5,2)")); // 1. Nc3
+        assertEquals(600, divide.get("PW_(6,4) move (4,4)")); // 1. e4
+        assertEquals(perft.count(3), divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
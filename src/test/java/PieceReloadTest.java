@@ -0,0 +1,98 @@
+import classes.Pair;
+import classes.State;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import piece.Piece;
+import piece.PieceFactory;
+import piece.PieceLibraryWatcher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PieceReloadTest {
+    @TempDir
+    Path root;
+
+    private PieceFactory library;
+    private List<String> layout;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path src = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        try (Stream<Path> walk = Files.walk(src)) {
+            for (Path p : (Iterable<Path>) walk::iterator) {
+                Path dst = root.resolve(src.relativize(p).toString());
+                if (Files.isDirectory(p)) Files.createDirectories(dst);
+                else Files.copy(p, dst, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        library = GameFactory.loadLibrary(root);
+        layout = GameFactory.readLayout(root);
+    }
+
+    private Path pawnMoves() {
+        return root.resolve("PW/states/idle/moves.txt");
+    }
+
+    private static boolean allows(State idle, int dr, int dc) {
+        return idle.moves.getMoves().containsKey(new Pair(dr, dc));
+    }
+
+    @Test
+    void testReloadSwapsOnlyThatType() throws Exception {
+        Game before = GameFactory.createGame(library, layout);
+        State rook = library.getTemplate("RW");
+        Files.writeString(pawnMoves(), "-1,0:non_capture\n-3,0:non_capture\n");
+
+        assertEquals("PW", library.reloadPiece(root.resolve("PW")));
+
+        assertTrue(allows(library.getTemplate("PW"), -3, 0));
+        assertFalse(allows(library.getTemplate("PW"), -1, -1));
+        assertSame(rook, library.getTemplate("RW"));
+
+        // Running games keep their rules, new ones get the new ones
+        Piece oldPawn = before.occupancy.pieceAt(6, 0, 1);
+        assertFalse(allows(oldPawn.state, -3, 0));
+        Game after = GameFactory.createGame(library, layout);
+        assertTrue(allows(after.occupancy.pieceAt(6, 0, 1).state, -3, 0));
+    }
+
+    @Test
+    void testWatcherReloadsEditedType() throws Exception {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        try (PieceLibraryWatcher watcher = new PieceLibraryWatcher(library, root)) {
+            watcher.setListener(new PieceLibraryWatcher.Listener() {
+                @Override
+                public void reloaded(String code) { events.add("reloaded " + code); }
+
+                @Override
+                public void failed(String code, Exception error) { events.add("failed " + code); }
+            });
+
+            Files.writeString(pawnMoves(), "-1,0:non_capture\n-3,0:non_capture\n");
+            assertEquals("reloaded PW", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(allows(library.getTemplate("PW"), -3, 0));
+
+            // A broken file leaves the last good template in place
+            Files.writeString(pawnMoves(), "not a move\n");
+            assertEquals("failed PW", events.poll(10, TimeUnit.SECONDS));
+            assertTrue(allows(library.getTemplate("PW"), -3, 0));
+
+            // Files outside the piece definitions are ignored
+            Files.writeString(root.resolve("PW/notes.md"), "todo");
+            assertNull(events.poll(1, TimeUnit.SECONDS));
+        }
+    }
+}
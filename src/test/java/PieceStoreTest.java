@@ -0,0 +1,117 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.PieceStore;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PieceStoreTest {
+    private Game game;
+    private PieceStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        game = GameFactory.createGame(pieces);
+        for (Piece p : game.pieces) p.reset(0);
+        game._tick(0);
+        store = game.store;
+    }
+
+    // Put a piece down on a cell, as if it had arrived there at the given time
+    private static void place(Piece p, int r, int c, long atMs) {
+        p.state.reset(new Command(atMs, p.id, EState.IDLE, List.of(new Pair(r, c))));
+    }
+
+    @Test
+    void testColumnsMatchPieces() {
+        assertEquals(32, store.size());
+        assertEquals(32, store.slotCount());
+        for (int i = 0; i < store.size(); i++) {
+            Piece p = store.pieceAt(i);
+            Pair cell = p.currentCell();
+            assertEquals(cell.r * store.cols() + cell.c, store.cellAt(i), p.id);
+            assertEquals(p.id.charAt(1) == 'W' ? 1 : 2, store.sideAt(i), p.id);
+            assertEquals(p.id.substring(0, 2), store.typeCode(store.typeAt(i)));
+            assertEquals(p.state.name, store.stateName(store.stateAt(i)));
+            assertEquals(game.slotOf(p), store.slotAt(i));
+            assertEquals(i, store.indexOf(store.slotAt(i)));
+        }
+    }
+
+    @Test
+    void testRemoveSwapsLastIntoHole() {
+        Piece first = store.pieceAt(0);
+        Piece last = store.pieceAt(store.size() - 1);
+        int firstSlot = store.slotOf(first), lastSlot = store.slotOf(last);
+        int lastCell = store.cellAt(store.size() - 1);
+
+        store.remove(firstSlot);
+        store.remove(firstSlot); // already gone: no-op
+
+        assertEquals(31, store.size());
+        assertFalse(store.isAlive(firstSlot));
+        assertEquals(-1, store.indexOf(firstSlot));
+        assertEquals(0, store.indexOf(lastSlot));
+        assertSame(last, store.pieceAt(0));
+        assertEquals(lastCell, store.cellAt(0));
+        // Slots never move
+        assertSame(first, store.pieceAtSlot(firstSlot));
+    }
+
+    @Test
+    void testRefreshFollowsTheLiveList() {
+        Piece pawn = game.occupancy.pieceAt(6, 3, 1);
+        Piece knight = game.occupancy.pieceAt(0, 1, 2);
+        game.pieces.remove(knight);
+        place(pawn, 4, 3, 10);
+
+        store.refresh(game.pieces);
+
+        assertEquals(31, store.size());
+        assertFalse(store.isAlive(store.slotOf(knight)));
+        int i = store.indexOf(store.slotOf(pawn));
+        assertEquals(4 * store.cols() + 3, store.cellAt(i));
+        assertEquals(10, store.startMsAt(i));
+    }
+
+    @Test
+    void testCollisionCapturesThroughStore() {
+        Piece pawn = game.occupancy.pieceAt(6, 3, 1);
+        Piece enemy = game.occupancy.pieceAt(1, 3, 2);
+        int enemySlot = game.slotOf(enemy);
+        place(enemy, 4, 3, 100);
+        place(pawn, 4, 3, 200); // arrived last: wins
+
+        game._resolve_collisions();
+
+        assertEquals(31, game.pieces.size());
+        assertFalse(game.pieces.contains(enemy));
+        assertTrue(game.pieces.contains(pawn));
+        assertFalse(store.isAlive(enemySlot));
+        assertEquals(31, store.size());
+    }
+
+    @Test
+    void testCollisionTieGoesToFirstPiece() {
+        Piece white = game.occupancy.pieceAt(6, 3, 1);
+        Piece black = game.occupancy.pieceAt(1, 3, 2);
+        assertTrue(game.slotOf(black) < game.slotOf(white));
+        place(white, 4, 3, 100);
+        place(black, 4, 3, 100);
+
+        game._resolve_collisions();
+
+        assertTrue(game.pieces.contains(black));
+        assertFalse(game.pieces.contains(white));
+    }
+}
@@ -0,0 +1,89 @@
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.ReadinessIndex;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadinessIndexTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        game = GameFactory.createGame(pieces);
+        for (Piece p : game.pieces) p.reset(0);
+        game._tick(0);
+    }
+
+    @Test
+    void testAllPiecesReadyAtStart() {
+        assertEquals(16, game.readiness.readyPieces(1, 0).size());
+        assertEquals(16, game.readiness.readyPieces(2, 0).size());
+        assertEquals(ReadinessIndex.NEVER, game.readiness.nextReadyAt(1, 0));
+    }
+
+    @Test
+    void testJumpAndMoveCooldowns() {
+        Piece knight = game.occupancy.pieceAt(7, 1, 1);
+        Piece pawn = game.occupancy.pieceAt(6, 4, 1);
+
+        // jump (100 ms) then short rest (3000 ms)
+        game._process_input(new Command(0, knight.id, EState.JUMP, List.of(new Pair(7, 1))));
+        // two cells at 1.5 m/s, then long rest (3000 ms)
+        game._process_input(new Command(0, pawn.id, EState.MOVE, List.of(new Pair(6, 4), new Pair(4, 4))));
+        game.readiness.update(game.pieces);
+
+        assertEquals(3100, game.readiness.readyAt(knight));
+        assertEquals(1333 + 3000, game.readiness.readyAt(pawn));
+        assertFalse(game.readiness.isReady(knight, 1000));
+        assertEquals(14, game.readiness.readyPieces(1, 1000).size());
+        assertEquals(3100, game.readiness.nextReadyAt(1, 1000));
+        assertEquals(4333, game.readiness.nextReadyAt(1, 3100));
+
+        // The jump is seen to land on the next tick; the prediction follows the actual landing
+        game._tick(200);
+        assertEquals("short_rest", knight.state.name);
+        assertEquals(3200, game.readiness.readyAt(knight));
+        game._tick(1400);
+        game._tick(5000);
+        assertEquals(new Pair(4, 4), pawn.currentCell());
+        assertEquals(16, game.readiness.readyPieces(1, 5000).size());
+    }
+
+    @Test
+    void testUnchangedPredictionKeepsThePiece() {
+        Piece knight = game.occupancy.pieceAt(7, 1, 1);
+
+        // The jump lands exactly on a tick: short_rest predicts the same 3100 ms as the jump did
+        game._process_input(new Command(0, knight.id, EState.JUMP, List.of(new Pair(7, 1))));
+        game.readiness.update(game.pieces);
+        game._tick(100);
+        assertEquals("short_rest", knight.state.name);
+        assertEquals(3100, game.readiness.readyAt(knight));
+        assertEquals(16, game.readiness.readyPieces(1, 5000).size());
+        assertEquals(3100, game.readiness.nextReadyAt(1, 0));
+
+        game._tick(3100);
+        assertEquals(16, game.readiness.readyPieces(1, 5000).size());
+        assertTrue(game.readiness.isReady(knight, 3100));
+    }
+
+    @Test
+    void testCapturedPiecesLeaveTheIndex() {
+        Piece rook = game.occupancy.pieceAt(0, 0, 2);
+        game.pieces.remove(rook);
+        game.readiness.update(game.pieces);
+        assertEquals(ReadinessIndex.NEVER, game.readiness.readyAt(rook));
+        assertEquals(15, game.readiness.readyPieces(2, 0).size());
+    }
+}
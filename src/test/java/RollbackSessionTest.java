@@ -0,0 +1,203 @@
+import board.Board;
+import classes.Command;
+import game.DesyncDetector;
+import game.Game;
+import game.GameFactory;
+import game.StateChecksum;
+import net.LoopbackTransport;
+import net.RollbackSession;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.PieceFactory;
+import tournament.Bot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollbackSessionTest {
+    private static final long TICK_MS = 20;
+    private static final int FRAMES = 400;
+
+    private static final List<String> LAYOUT = List.of(
+            "RB,NB,BB,QB,KB,BB,NB,RB", "PB,PB,PB,PB,PB,PB,PB,PB", ",,,,,,,", ",,,,,,,",
+            ",,,,,,,", ",,,,,,,", "PW,PW,PW,PW,PW,PW,PW,PW", "RW,NW,BW,QW,KW,BW,NW,RW");
+
+    private static PieceFactory library;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        library = new PieceFactory(new Board(64, 64, 8, 8, null));
+        library.generateLibrary(pieces);
+    }
+
+    // Keeps a copy of everything sent, to play the same game without a network afterwards
+    private record Recording(RollbackSession.Transport inner, List<RollbackSession.Input> sent)
+            implements RollbackSession.Transport {
+        @Override
+        public void send(RollbackSession.Input input) {
+            sent.add(input);
+            inner.send(input);
+        }
+
+        @Override
+        public RollbackSession.Input poll() {
+            return inner.poll();
+        }
+    }
+
+    private static List<String> cells(Game game) {
+        List<String> out = new ArrayList<>();
+        for (Piece p : game.pieces) out.add(p.id + "@" + p.currentCell() + ":" + p.state.name);
+        return out;
+    }
+
+    // The same frames and inputs, applied on time
+    private static Game reference(List<RollbackSession.Input> sent) {
+        Game game = GameFactory.createGame(library, LAYOUT);
+        for (int f = 0; f < FRAMES; f++) {
+            for (int player = 1; player <= 2; player++) {
+                for (RollbackSession.Input in : sent) {
+                    if (in.player() == player && in.frame() == f) game.userInputQueue.addAll(in.commands());
+                }
+            }
+            game._tick(f * TICK_MS);
+        }
+        return game;
+    }
+
+    private static RollbackSession[] play(long latencyMs, long jitterMs) {
+        return play(latencyMs, jitterMs, null);
+    }
+
+    // Final ticks of one detector go to the other's expect
+    private static void crossCheck(DesyncDetector from, DesyncDetector to, long fromTick, long toTick) {
+        for (DesyncDetector.Entry e : from.entries()) {
+            if (e.tick() >= fromTick && e.tick() <= toTick) to.expect(e.tick(), e.checksum());
+        }
+    }
+
+    /**
+     * Two clients over loopback, each with a bot that moves from its own (predicted) view, for
+     * FRAMES frames of TICK_MS real time each; then both wait for the last remote input. With
+     * detectors, each game gets one and the clients exchange the checksums of confirmed frames
+     * while they play.
+     */
+    private static RollbackSession[] play(long latencyMs, long jitterMs, DesyncDetector[] detectors) {
+        long[] now = {0};
+        LoopbackTransport[] link = LoopbackTransport.pair(() -> now[0], latencyMs, jitterMs, 3);
+        List<RollbackSession.Input> sent = new ArrayList<>();
+        Game[] games = new Game[2];
+        RollbackSession[] sessions = new RollbackSession[2];
+        for (int i = 0; i < 2; i++) {
+            games[i] = GameFactory.createGame(library, LAYOUT);
+            if (detectors != null) {
+                // Before the session saves the start state, so a rollback to frame 0 rewinds it too
+                detectors[i] = new DesyncDetector(games[i], null);
+                games[i].setDesyncDetector(detectors[i]);
+            }
+            sessions[i] = new RollbackSession(games[i], i + 1, TICK_MS, new Recording(link[i], sent));
+        }
+        Random rnd = new Random(21);
+        long checked = -1;
+        while (sessions[0].frame() < FRAMES || sessions[1].frame() < FRAMES) {
+            for (int i = 0; i < 2; i++) {
+                RollbackSession s = sessions[i];
+                if (s.frame() >= FRAMES) continue;
+                if (s.frame() < FRAMES - 100 && rnd.nextInt(6) == 0) {
+                    List<Command> moves = Bot.legalMoves(games[i].snapshot(), i + 1);
+                    if (!moves.isEmpty()) s.addLocalInput(moves.get(rnd.nextInt(moves.size())));
+                }
+                s.advanceFrame();
+            }
+            if (detectors != null) {
+                // Frames both sides have the other's input for are never simulated again
+                long confirmed = Math.min(Math.min(sessions[0].confirmedFrame(), sessions[1].confirmedFrame()),
+                        Math.min(sessions[0].frame(), sessions[1].frame()) - 1);
+                crossCheck(detectors[0], detectors[1], checked + 1, confirmed);
+                crossCheck(detectors[1], detectors[0], checked + 1, confirmed);
+                checked = Math.max(checked, confirmed);
+            }
+            now[0] += TICK_MS;
+        }
+        while (sessions[0].confirmedFrame() < FRAMES - 1 || sessions[1].confirmedFrame() < FRAMES - 1) {
+            sessions[0].receive();
+            sessions[1].receive();
+            now[0] += TICK_MS;
+        }
+
+        Game expected = reference(sent);
+        assertTrue(expected.pieces.size() < 32, "the game had captures");
+        for (int i = 0; i < 2; i++) {
+            assertEquals(cells(expected), cells(games[i]), "client " + (i + 1));
+            assertEquals(StateChecksum.of(expected), StateChecksum.of(games[i]), "client " + (i + 1));
+        }
+        return sessions;
+    }
+
+    @Test
+    void testLatencyIsHiddenByRollback() {
+        // 100-140 ms each way is 5-7 frames, inside the 12-frame prediction window
+        RollbackSession[] s = play(100, 40);
+        for (RollbackSession session : s) {
+            assertEquals(0, session.getStalls());
+            assertTrue(session.getRollbacks() > 0);
+            assertTrue(session.getResimulatedFrames() >= session.getRollbacks());
+        }
+    }
+
+    @Test
+    void testDesyncDetectorsFollowRollbacks() {
+        DesyncDetector[] d = new DesyncDetector[2];
+        RollbackSession[] s = play(100, 40, d);
+        assertTrue(s[0].getRollbacks() > 0 && s[1].getRollbacks() > 0);
+        crossCheck(d[0], d[1], 0, FRAMES - 1);
+        for (int i = 0; i < 2; i++) {
+            assertNull(d[i].getDesync(), "client " + (i + 1));
+            List<DesyncDetector.Entry> entries = d[i].entries();
+            assertEquals(FRAMES, entries.size(), "one entry per frame, rolled back frames replaced");
+            for (int f = 0; f < FRAMES; f++) assertEquals(f, entries.get(f).tick());
+        }
+        assertEquals(d[0].checksum(), d[1].checksum());
+    }
+
+    @Test
+    void testTooMuchLatencyWaitsInsteadOfDiverging() {
+        RollbackSession[] s = play(400, 0); // 20 frames
+        assertTrue(s[0].getStalls() > 0 && s[1].getStalls() > 0);
+    }
+
+    @Test
+    void testRestoreStateReplaysExactly() {
+        Game game = GameFactory.createGame(library, LAYOUT);
+        Random rnd = new Random(4);
+        List<List<Command>> inputs = new ArrayList<>();
+        Game.SavedState saved = null;
+        long checksum = 0;
+        for (int f = 0; f < 300; f++) {
+            if (f == 100) saved = game.saveState();
+            List<Command> cmds = new ArrayList<>();
+            for (int player = 1; player <= 2; player++) {
+                List<Command> moves = Bot.legalMoves(game.snapshot(), player);
+                if (!moves.isEmpty() && rnd.nextInt(4) == 0) cmds.add(moves.get(rnd.nextInt(moves.size())));
+            }
+            inputs.add(cmds);
+            game.userInputQueue.addAll(cmds);
+            game._tick(f * TICK_MS);
+            if (f == 299) checksum = StateChecksum.of(game);
+        }
+
+        game.restoreState(saved);
+        for (int f = 100; f < 300; f++) {
+            game.userInputQueue.addAll(inputs.get(f));
+            game._tick(f * TICK_MS);
+        }
+        assertEquals(checksum, StateChecksum.of(game));
+    }
+}
@@ -0,0 +1,78 @@
+import board.SpatialGrid;
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialGridTest {
+
+    private static List<Integer> slotsOn(SpatialGrid grid, int cell) {
+        List<Integer> out = new ArrayList<>();
+        for (int s = grid.firstOnCell(cell); s >= 0; s = grid.nextOnCell(s)) out.add(s);
+        return out;
+    }
+
+    @Test
+    void testMoveRebucketsAndMarksChunk() {
+        // 40x40 cells in 16x16 chunks: 3x3 chunks, the last row and column of them partial
+        SpatialGrid grid = new SpatialGrid(40, 40, 4);
+        assertEquals(9, grid.chunkCount());
+
+        assertTrue(grid.move(0, 0));
+        assertTrue(grid.move(1, 0));
+        assertTrue(grid.move(2, 39 * 40 + 39));
+        assertEquals(2, grid.dirtyCount());
+        assertEquals(List.of(1, 0), slotsOn(grid, 0));
+        assertEquals(List.of(2), slotsOn(grid, 39 * 40 + 39));
+        grid.clearDirty();
+
+        assertFalse(grid.move(1, 0)); // same cell: nothing to do
+        assertEquals(0, grid.dirtyCount());
+
+        grid.move(1, 17); // next chunk to the right
+        assertEquals(List.of(0), slotsOn(grid, 0));
+        assertEquals(List.of(1), slotsOn(grid, 17));
+        assertEquals(1, grid.dirtyCount());
+        assertEquals(1, grid.dirtyChunk(0));
+
+        grid.clearDirty();
+        grid.remove(0);
+        assertEquals(List.of(), slotsOn(grid, 0));
+        assertEquals(-1, grid.cellOf(0));
+        assertEquals(0, grid.dirtyCount()); // leaving a cell cannot cause a collision
+
+        grid.touch(2);
+        assertEquals(1, grid.dirtyCount());
+        assertEquals(8, grid.dirtyChunk(0));
+    }
+
+    @Test
+    void testQuietTicksVisitNoChunks() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(pieces);
+        for (Piece p : game.pieces) p.reset(0);
+        game._resolve_collisions(); // first pass buckets every piece
+        game._resolve_collisions();
+        assertEquals(0, game.grid.dirtyCount());
+
+        Piece pawn = game.occupancy.pieceAt(6, 3, 1);
+        Piece enemy = game.occupancy.pieceAt(1, 3, 2);
+        enemy.state.reset(new Command(100, enemy.id, EState.IDLE, List.of(new Pair(4, 3))));
+        pawn.state.reset(new Command(200, pawn.id, EState.IDLE, List.of(new Pair(4, 3))));
+        game._resolve_collisions();
+
+        assertFalse(game.pieces.contains(enemy));
+        assertEquals(-1, game.grid.cellOf(game.slotOf(enemy)));
+        assertEquals(List.of(game.slotOf(pawn)), slotsOn(game.grid, 4 * 8 + 3));
+    }
+}
@@ -0,0 +1,66 @@
+import game.Game;
+import game.GameFactory;
+import net.GameClient;
+import net.SpectatorHub;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpectatorHubTest {
+    private final Path piecesPath;
+
+    public SpectatorHubTest() throws Exception {
+        piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(5);
+        return condition.getAsBoolean();
+    }
+
+    @Test
+    void testEveryWatcherFollowsTheGame() throws Exception {
+        Game game = GameFactory.createGame(piecesPath);
+        for (Piece p : game.pieces) p.reset(0);
+        List<GameClient> watchers = new ArrayList<>();
+        try (SpectatorHub hub = new SpectatorHub(game, 0)) {
+            hub.start(new InetSocketAddress("127.0.0.1", 0));
+            game.setTickListener(hub::publish);
+            InetSocketAddress addr = new InetSocketAddress("127.0.0.1", hub.getPort());
+            for (int i = 0; i < 5; i++) {
+                GameClient w = new GameClient(GameFactory.createGame(piecesPath), addr, Runnable::run);
+                watchers.add(w);
+                assertTrue(w.awaitWelcome(2000));
+                assertEquals(0, w.getPlayer());
+            }
+            assertTrue(await(() -> hub.getSpectatorCount() == 5));
+
+            long now = 0;
+            game._tick(now += 20);
+            Piece captured = game.occupancy.pieceAt(1, 3, 2);
+            game.pieces.remove(captured);
+            for (int i = 0; i < 5; i++) game._tick(now += 20);
+
+            for (GameClient w : watchers) {
+                assertTrue(await(() -> w.getMirror().pieces.size() == 31), "every watcher sees the capture");
+                assertFalse(w.getMirror().pieces.stream().anyMatch(p -> p.id.equals(captured.id)));
+            }
+
+            watchers.remove(0).close();
+            assertTrue(await(() -> hub.getSpectatorCount() == 4));
+            assertEquals(0, hub.getDroppedCount());
+        } finally {
+            for (GameClient w : watchers) w.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import grafix.Graphics;
+import grafix.GraphicsFactory;
+import img.BuffImg;
+import img.Img;
+import img.RleImg;
+import img.SpriteFormat;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteFormatTest {
+
+    // Transparent background with an opaque disc, a translucent rim and a few colours
+    private static BufferedImage sprite(int size, boolean noisy) {
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Random rnd = new Random(3);
+        double c = (size - 1) / 2.0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double d = Math.hypot(x - c, y - c);
+                int rgb = noisy ? rnd.nextInt(0x1000000) : (x < c ? 0x8844CC : 0x22AA55);
+                if (d < size * 0.25) img.setRGB(x, y, 0xFF000000 | rgb);
+                else if (d < size * 0.35) img.setRGB(x, y, 0x80000000 | rgb);
+            }
+        }
+        return img;
+    }
+
+    private static BufferedImage background(int w, int h, int type) {
+        BufferedImage bg = new BufferedImage(w, h, type);
+        java.awt.Graphics2D g = bg.createGraphics();
+        g.setColor(new Color(200, 180, 90));
+        g.fillRect(0, 0, w, h);
+        g.dispose();
+        return bg;
+    }
+
+    private static void assertSameDrawing(Img expected, Img actual, int type) {
+        BufferedImage want = background(80, 80, type), got = background(80, 80, type);
+        expected.drawOn(new BuffImg(want), 7, 11);
+        actual.drawOn(new BuffImg(got), 7, 11);
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 80; x++) {
+                int a = want.getRGB(x, y), b = got.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int da = Math.abs(((a >>> shift) & 0xFF) - ((b >>> shift) & 0xFF));
+                    assertTrue(da <= 2, "pixel (" + x + "," + y + "): " + Integer.toHexString(a) + " vs " + Integer.toHexString(b));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAllFormatsDrawLikeArgb() {
+        Img argb = new BuffImg(sprite(64, false));
+        for (SpriteFormat f : SpriteFormat.values()) {
+            Img converted = f.convert(argb);
+            assertSameDrawing(argb, converted, BufferedImage.TYPE_INT_ARGB);
+            assertSameDrawing(argb, converted, BufferedImage.TYPE_INT_RGB);
+            assertSameDrawing(argb, converted, BufferedImage.TYPE_3BYTE_BGR);
+        }
+    }
+
+    @Test
+    void testCompactFormatsUseLessMemory() {
+        Img few = new BuffImg(sprite(64, false));
+        Img many = new BuffImg(sprite(64, true));
+        long full = SpriteFormat.bytesOf(few);
+        assertEquals(64 * 64 * 4, full);
+
+        assertTrue(SpriteFormat.bytesOf(SpriteFormat.INDEXED.convert(few)) < full / 3);
+        assertTrue(SpriteFormat.bytesOf(SpriteFormat.RLE.convert(few)) < full * 2 / 3);
+
+        // Too many colours for a palette: indexed falls back to premultiplied ARGB
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, SpriteFormat.INDEXED.convert(many).get().getType());
+        assertInstanceOf(RleImg.class, SpriteFormat.AUTO.convert(many));
+        assertEquals(BufferedImage.TYPE_BYTE_INDEXED, SpriteFormat.AUTO.convert(few).get().getType());
+    }
+
+    @Test
+    void testRleRoundTrip() {
+        BufferedImage src = sprite(33, true);
+        RleImg rle = RleImg.encode(src);
+        BufferedImage back = rle.get();
+        assertSame(back, rle.get(), "decoded once, not on every call");
+        for (int y = 0; y < 33; y++) {
+            for (int x = 0; x < 33; x++) {
+                int px = src.getRGB(x, y);
+                assertEquals((px >>> 24) == 0 ? 0 : px, back.getRGB(x, y));
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> RleImg.encode(src).drawRect(0, 0, 1, 1, Color.RED));
+    }
+
+    @Test
+    void testFormatChosenPerStateConfig() throws Exception {
+        Path sprites = Paths.get(MainGame.class.getClassLoader().getResource("pieces/PW/states/idle/sprites").toURI());
+        GraphicsFactory factory = new GraphicsFactory();
+        Dimension cell = new Dimension(64, 64);
+        Graphics plain = factory.load(sprites, new JSONObject().put("sprite_format", "argb"), cell);
+        Graphics rle = factory.load(sprites, new JSONObject().put("sprite_format", "rle"), cell);
+        Graphics auto = factory.load(sprites, new JSONObject(), cell);
+        assertEquals(SpriteFormat.ARGB, plain.getFormat());
+        assertEquals(SpriteFormat.DEFAULT, auto.getFormat());
+        assertEquals(SpriteFormat.DEFAULT, SpriteFormat.parse(""));
+        assertEquals(SpriteFormat.DEFAULT, SpriteFormat.parse(null));
+        assertEquals(SpriteFormat.RLE, rle.getFormat());
+        assertInstanceOf(RleImg.class, rle.getFrames().get(0));
+        // The shipped sprites are opaque with few colours, so auto picks a palette
+        assertTrue(auto.getSpriteBytes() * 3 < plain.getSpriteBytes());
+        assertThrows(IllegalArgumentException.class,
+                () -> factory.load(sprites, new JSONObject().put("sprite_format", "jpeg"), cell));
+    }
+}
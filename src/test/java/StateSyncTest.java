@@ -0,0 +1,148 @@
+import classes.Command;
+import classes.Pair;
+import classes.State;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import net.Protocol;
+import net.StateDecoder;
+import net.StateEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSyncTest {
+    private Game server;
+    private Game client;
+    private StateEncoder encoder;
+    private StateDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        server = GameFactory.createGame(pieces);
+        client = GameFactory.createGame(pieces);
+        for (Piece p : server.pieces) p.reset(0);
+        for (Piece p : client.pieces) p.reset(0);
+        encoder = new StateEncoder(server, 1000);
+        decoder = new StateDecoder(client);
+    }
+
+    // Encode a frame into a fresh buffer and return it ready for reading
+    private ByteBuffer delta(long nowMs) {
+        ByteBuffer buf = ByteBuffer.allocate(encoder.maxDeltaBytes());
+        encoder.encodeDelta(buf, nowMs, false);
+        return buf.flip();
+    }
+
+    private ByteBuffer keyframe() {
+        ByteBuffer buf = ByteBuffer.allocate(encoder.maxKeyframeBytes());
+        encoder.encodeKeyframe(buf, false);
+        return buf.flip();
+    }
+
+    private boolean apply(ByteBuffer frame) {
+        assertEquals(frame.remaining(), Protocol.completeFrameLength(frame));
+        byte type = frame.get(4);
+        return decoder.apply(type, frame.slice(Protocol.HEADER_BYTES, frame.limit() - Protocol.HEADER_BYTES));
+    }
+
+    private static void enter(Piece p, String stateName, Command cmd) {
+        State target = p.state.findState(stateName);
+        target.reset(cmd);
+        p.state = target;
+    }
+
+    private static Piece find(Game g, String id) {
+        for (Piece p : g.pieces) if (p.id.equals(id)) return p;
+        return null;
+    }
+
+    @Test
+    void testDeltasNeedKeyframeFirst() {
+        assertFalse(apply(delta(0)), "deltas before the first keyframe are skipped");
+        assertTrue(apply(keyframe()));
+        assertTrue(decoder.isSynced());
+        assertEquals(32, client.pieces.size());
+        assertTrue(apply(delta(20)));
+    }
+
+    @Test
+    void testMoveAndCaptureEvents() {
+        apply(delta(0));
+        apply(keyframe());
+
+        Piece pawn = find(server, "PW_(6,0)");
+        enter(pawn, "move", new Command(100, pawn.id, EState.MOVE, List.of(new Pair(6, 0), new Pair(4, 0))));
+        ByteBuffer moved = delta(100);
+        assertTrue(apply(moved));
+
+        Piece mirrored = find(client, "PW_(6,0)");
+        assertEquals("move", mirrored.state.name);
+        assertEquals(new Pair(6, 0), mirrored.state.physics.getStartCell());
+        assertEquals(new Pair(4, 0), mirrored.state.physics.getEndCell());
+
+        // Nothing changed: the delta carries only its header
+        ByteBuffer idle = delta(120);
+        assertTrue(idle.remaining() < 16, "unchanged tick encodes to a few bytes, was " + idle.remaining());
+        assertTrue(apply(idle));
+
+        server.pieces.remove(find(server, "PB_(1,0)"));
+        assertTrue(apply(delta(140)));
+        assertEquals(31, client.pieces.size());
+        assertNull(find(client, "PB_(1,0)"));
+    }
+
+    @Test
+    void testTickGapForcesResync() {
+        apply(delta(0));
+        apply(keyframe());
+
+        server.pieces.remove(find(server, "PB_(1,1)"));
+        delta(20); // lost on the way
+        assertFalse(apply(delta(40)));
+        assertFalse(decoder.isSynced());
+        assertEquals(32, client.pieces.size());
+
+        assertTrue(apply(keyframe()));
+        assertEquals(31, client.pieces.size());
+        assertTrue(apply(delta(60)));
+        assertEquals(encoder.getTick(), decoder.getTick());
+    }
+
+    @Test
+    void testMalformedCommandsAreDropped() {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        Protocol.writeCommand(buf, 0, EState.MOVE, List.of(new Pair(5, 0)));
+        buf.flip().position(Protocol.HEADER_BYTES);
+        Command ok = Protocol.readCommand(buf.slice(), server, 7);
+        assertNotNull(ok);
+        assertEquals(EState.MOVE, ok.type);
+        assertEquals(List.of(new Pair(5, 0)), ok.params);
+
+        ByteBuffer badState = buf.slice();
+        badState.put(0, (byte) EState.values().length);
+        assertNull(Protocol.readCommand(badState, server, 7));
+
+        ByteBuffer badCount = buf.slice();
+        badCount.put(3, (byte) 2);
+        assertNull(Protocol.readCommand(badCount, server, 7), "says two cells but carries one");
+
+        assertNull(Protocol.readCommand(buf.slice().limit(2), server, 7), "truncated header");
+    }
+
+    @Test
+    void testKeyframeIntervalMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StateEncoder(server, 0));
+        assertThrows(IllegalArgumentException.class, () -> new StateEncoder(server, -5));
+        StateEncoder everyTick = new StateEncoder(server, 1);
+        assertTrue(everyTick.maxKeyframeBytes() > 0);
+    }
+}
@@ -0,0 +1,66 @@
+import board.Board;
+import classes.Command;
+import classes.Pair;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+import piece.PieceFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SweptCollisionTest {
+    private static PieceFactory library;
+
+    // Two rooks on row 4 with nothing between them
+    private static final List<String> LAYOUT = List.of(
+            "KB,,,,,,,",
+            ",,,,,,,",
+            ",,,,,,,",
+            ",,,,,,,",
+            "RW,,,,,,,RB",
+            ",,,,,,,",
+            ",,,,,,,",
+            ",,,,,,,KW");
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        library = new PieceFactory(new Board(64, 64, 8, 8, null));
+        library.generateLibrary(pieces);
+    }
+
+    // Both rooks charge along the row, black 100 ms later; ticks every tickMs until both moves are over
+    private static List<String> play(long tickMs) {
+        Game game = GameFactory.createGame(library, LAYOUT);
+        game._tick(0);
+        game.userInputQueue.add(new Command(10, "RW_(4,0)", EState.MOVE, List.of(new Pair(4, 0), new Pair(4, 6))));
+        game.userInputQueue.add(new Command(110, "RB_(4,7)", EState.MOVE, List.of(new Pair(4, 7), new Pair(4, 1))));
+        for (long now = tickMs; now <= 8000 + tickMs; now += tickMs) game._tick(now);
+        List<String> ids = new ArrayList<>();
+        for (Piece p : game.pieces) ids.add(p.id + "@" + p.currentCell());
+        return ids;
+    }
+
+    @Test
+    void testPiecesMeetingBetweenTicksCollide() {
+        // Sampled only at 8 s and 16 s the rooks would just swap sides
+        List<String> coarse = play(8000);
+        assertEquals(List.of("KB_(0,0)@(0,0)", "RB_(4,7)@(4,1)", "KW_(7,7)@(7,7)"), coarse);
+    }
+
+    @Test
+    void testCoarseTicksMatchFineTicks() {
+        List<String> fine = play(10);
+        assertEquals(fine, play(8000));
+        assertEquals(fine, play(1500));
+        assertEquals(fine, play(333));
+    }
+}
@@ -0,0 +1,131 @@
+import board.ThreatMap;
+import classes.Command;
+import classes.Pair;
+import classes.State;
+import enums.EState;
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import piece.Piece;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreatMapTest {
+    private Game game;
+    private List<Piece> all;
+    private final Map<Piece, State> roots = new IdentityHashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path pieces = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+        game = GameFactory.createGame(pieces);
+        all = new ArrayList<>(game.pieces);
+        for (Piece p : all) roots.put(p, p.state);
+    }
+
+    // Every state is reachable from the initial idle state, not always from the current one
+    private void enter(Piece p, String stateName, EState type, List<Object> params, long ms) {
+        State target = roots.get(p).findState(stateName);
+        target.reset(new Command(ms, p.id, type, params));
+        p.state = target;
+    }
+
+    private void assertSameCounts(ThreatMap expected, ThreatMap actual, String step) {
+        for (int side = 1; side <= 2; side++) {
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    assertEquals(expected.attackers(side, r, c), actual.attackers(side, r, c),
+                            step + ": side " + side + " cell (" + r + "," + c + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testStartPosition() {
+        ThreatMap threats = game.threats;
+        assertEquals(2, threats.attackers(1, 5, 0));   // b-pawn, knight
+        assertEquals(3, threats.attackers(1, 5, 2));   // b- and d-pawns, knight
+        assertEquals(0, threats.attackers(1, 4, 4));
+        assertEquals(3, threats.attackers(2, 2, 5));   // e- and g-pawns, knight
+        assertFalse(threats.isAttacked(2, 5, 0));
+    }
+
+    @Test
+    void testRestingAndFlyingPieces() {
+        Piece knight = game.occupancy.pieceAt(7, 1, 1);
+        enter(knight, "move", EState.MOVE, List.of(new Pair(7, 1), new Pair(5, 2)), 10);
+        game.threats.update(game.pieces);
+        assertEquals(3, game.threats.attackers(1, 5, 2), "in flight it threatens its destination");
+        assertEquals(1, game.threats.attackers(1, 5, 0), "and nothing else");
+
+        enter(knight, "long_rest", EState.DONE, List.of(new Pair(5, 2)), 20);
+        game.threats.update(game.pieces);
+        assertEquals(2, game.threats.attackers(1, 5, 2));
+        assertEquals(0, game.threats.attackers(1, 3, 1), "resting pieces cannot capture");
+
+        enter(knight, "idle", EState.IDLE, List.of(new Pair(5, 2)), 30);
+        game.threats.update(game.pieces);
+        assertEquals(1, game.threats.attackers(1, 3, 1));
+    }
+
+    @Test
+    void testIncrementalMatchesFullRecompute() {
+        Random rnd = new Random(7);
+        ThreatMap incremental = new ThreatMap(game.board, all);
+        incremental.update(game.pieces);
+        for (int step = 1; step <= 300 && game.pieces.size() > 2; step++) {
+            Piece p = game.pieces.get(rnd.nextInt(game.pieces.size()));
+            Pair from = p.currentCell();
+            Pair to = new Pair(rnd.nextInt(8), rnd.nextInt(8));
+            switch (rnd.nextInt(4)) {
+                case 0 -> game.pieces.remove(p);
+                case 1 -> enter(p, "move", EState.MOVE, List.of(from, to), step);
+                case 2 -> enter(p, "long_rest", EState.DONE, List.of(from), step);
+                default -> {
+                    if (game.pieces.stream().noneMatch(o -> o.currentCell().equals(to))) {
+                        enter(p, "idle", EState.IDLE, List.of(to), step);
+                    }
+                }
+            }
+            incremental.update(game.pieces);
+            ThreatMap full = new ThreatMap(game.board, all);
+            full.update(game.pieces);
+            assertSameCounts(full, incremental, "step " + step);
+        }
+    }
+
+    @Test
+    void testCopyRowsSharesRowsThatDidNotChange() {
+        ThreatMap threats = game.threats;
+        long seq = threats.getSeq();
+        int[][] before = threats.copyRows(null, 0);
+        assertEquals(16, before.length);
+        assertEquals(2, before[5][0]);
+
+        // The knight's move only changes white's rows around its start and destination
+        Piece knight = game.occupancy.pieceAt(7, 1, 1);
+        enter(knight, "move", EState.MOVE, List.of(new Pair(7, 1), new Pair(5, 2)), 10);
+        threats.update(game.pieces);
+        int[][] after = threats.copyRows(before, seq);
+        for (int row = 0; row < 8; row++) {
+            assertSame(before[8 + row], after[8 + row], "black row " + row);
+            for (int c = 0; c < 8; c++) {
+                assertEquals(threats.attackers(1, row, c), after[row][c]);
+                assertEquals(threats.attackers(2, row, c), after[8 + row][c]);
+            }
+        }
+        assertNotSame(before[5], after[5]);
+        assertEquals(2, before[5][0], "earlier copies are not written to");
+        assertSame(before[0], after[0]);
+    }
+}
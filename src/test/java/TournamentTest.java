@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tournament.GreedyBot;
+import tournament.MatchRunner;
+import tournament.RandomBot;
+import tournament.Standings;
+import tournament.Tournament;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+    private Path piecesPath;
+    private final List<Tournament.Entrant> entrants = List.of(
+            new Tournament.Entrant("random", s -> new RandomBot(s, 300)),
+            new Tournament.Entrant("greedy", s -> new GreedyBot(s, 300)),
+            new Tournament.Entrant("greedy-slow", s -> new GreedyBot(s, 1000)));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        piecesPath = Paths.get(MainGame.class.getClassLoader().getResource("pieces").toURI());
+    }
+
+    @Test
+    void testRoundRobinRecordsEveryGame() throws Exception {
+        Tournament t = Tournament.load(piecesPath, entrants, 50, 60_000);
+        t.setParallelism(2);
+        List<MatchRunner.Result> seen = Collections.synchronizedList(new ArrayList<>());
+        t.setOnResult(seen::add);
+
+        Standings s = t.roundRobin();
+
+        assertEquals(6, s.getGames());
+        assertEquals(6, seen.size());
+        double points = 0, ratings = 0;
+        for (Standings.Row r : s.ranking()) {
+            assertEquals(4, r.getGames());
+            points += r.getPoints();
+            ratings += r.getRating();
+        }
+        assertEquals(6, points, 1e-9);
+        assertEquals(3 * Standings.INITIAL_RATING, ratings, 1e-6); // Elo moves points between players
+        assertTrue(s.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    void testSameSeedSameScores() throws Exception {
+        Tournament a = Tournament.load(piecesPath, entrants, 50, 60_000);
+        Tournament b = Tournament.load(piecesPath, entrants, 50, 60_000);
+        a.setParallelism(1);
+        b.setParallelism(3);
+        Standings sa = a.roundRobin(), sb = b.roundRobin();
+        // Results are recorded in schedule order, so not even Elo depends on the thread count
+        for (Tournament.Entrant e : entrants) {
+            assertEquals(sa.points(e.name()), sb.points(e.name()), e.name());
+            assertEquals(sa.rating(e.name()), sb.rating(e.name()), e.name());
+        }
+    }
+
+    @Test
+    void testSameSeedSameSwiss() throws Exception {
+        Tournament a = Tournament.load(piecesPath, entrants, 50, 30_000);
+        Tournament b = Tournament.load(piecesPath, entrants, 50, 30_000);
+        a.setParallelism(1);
+        b.setParallelism(3);
+        a.setGamesPerPairing(1);
+        b.setGamesPerPairing(1);
+        List<String> pairingsA = Collections.synchronizedList(new ArrayList<>());
+        List<String> pairingsB = Collections.synchronizedList(new ArrayList<>());
+        a.setOnResult(r -> pairingsA.add(r.white() + "-" + r.black()));
+        b.setOnResult(r -> pairingsB.add(r.white() + "-" + r.black()));
+
+        Standings sa = a.swiss(3), sb = b.swiss(3);
+        Collections.sort(pairingsA);
+        Collections.sort(pairingsB);
+        assertEquals(pairingsA, pairingsB);
+        for (Tournament.Entrant e : entrants) {
+            assertEquals(sa.points(e.name()), sb.points(e.name()), e.name());
+            assertEquals(sa.rating(e.name()), sb.rating(e.name()), e.name());
+        }
+    }
+
+    @Test
+    void testSwissGivesEachOddEntrantOneBye() throws Exception {
+        List<Tournament.Entrant> five = new ArrayList<>(entrants);
+        five.add(new Tournament.Entrant("random-2", s -> new RandomBot(s, 600)));
+        five.add(new Tournament.Entrant("greedy-2", s -> new GreedyBot(s, 600)));
+        Tournament t = Tournament.load(piecesPath, five, 50, 30_000);
+        t.setGamesPerPairing(1);
+
+        Standings s = t.swiss(3);
+
+        assertEquals(3 * 2, s.getGames());
+        int sitOut = 0;
+        for (Standings.Row r : s.ranking()) {
+            assertTrue(r.getGames() >= 2 && r.getGames() <= 3, r.name);
+            if (r.getGames() == 2) sitOut++;
+        }
+        assertEquals(3, sitOut);
+    }
+
+    @Test
+    void testEloUpdate() {
+        Standings s = new Standings(List.of("a", "b"), 16);
+        s.record(new MatchRunner.Result("a", "b", MatchRunner.Outcome.WHITE, 1000));
+        assertEquals(1508, s.rating("a"), 1e-9);
+        assertEquals(1492, s.rating("b"), 1e-9);
+        s.record(new MatchRunner.Result("b", "a", MatchRunner.Outcome.DRAW, 1000));
+        assertTrue(s.rating("b") > 1492); // a draw against a stronger player gains rating
+        assertEquals(1.5, s.points("a"), 1e-9);
+    }
+}
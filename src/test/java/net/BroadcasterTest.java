@@ -0,0 +1,55 @@
+package net;
+
+import game.Game;
+import game.GameFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// In package net: Broadcaster and Connection are package-private
+public class BroadcasterTest {
+
+    private static final Broadcaster.Sink NO_SINK = new Broadcaster.Sink() {
+        @Override public void requestWrite(Connection c) {}
+        @Override public void requestDrop(Connection c) {}
+        @Override public void wakeup() {}
+    };
+
+    @Test
+    void testConnectionJoiningDuringBroadcastGetsAKeyframeLater() throws Exception {
+        Path pieces = Paths.get(getClass().getClassLoader().getResource("pieces").toURI());
+        Game game = GameFactory.createGame(pieces, 2);
+        Broadcaster broadcaster = new Broadcaster(game, 1000);
+
+        Connection first = new Connection(null);
+        Connection joiner = new Connection(null);
+        List<Connection> clients = new ArrayList<>(List.of(first));
+
+        // The selector thread adds a connection as soon as the tick has started looking at the
+        // targets, i.e. between the passes of a two-pass broadcast
+        Iterable<Connection> racing = () -> {
+            Iterator<Connection> it = List.copyOf(clients).iterator();
+            if (!clients.contains(joiner)) clients.add(joiner);
+            return it;
+        };
+
+        game._tick(0);
+        game._tick(20); // not a keyframe tick: only connections that need one get one
+        assertDoesNotThrow(() -> broadcaster.broadcast(game.snapshot(), false, racing, NO_SINK));
+        assertFalse(first.needsKeyframe);
+        assertTrue(first.hasPendingOutput());
+        assertTrue(joiner.needsKeyframe);
+        assertFalse(joiner.hasPendingOutput());
+
+        game._tick(40);
+        broadcaster.broadcast(game.snapshot(), false, racing, NO_SINK);
+        assertFalse(joiner.needsKeyframe);
+        assertTrue(joiner.hasPendingOutput());
+    }
+}